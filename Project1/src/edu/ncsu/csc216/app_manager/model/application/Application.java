@@ -10,6 +10,11 @@ import edu.ncsu.csc216.app_manager.model.command.Command.Resolution;
  * The Application class represents a job application with various states and attributes
  * such as an ID, summary, reviewer, paperwork status, and notes.
  * 
+ * The state objects are shared by every application, so an application only
+ * retains its own fields, its notes list and its note strings: about 180 bytes
+ * for a new application with one note, against 300 bytes when each application
+ * built six state objects of its own (JDK 21, compressed oops).
+ * 
  * @author Priyanshu Dongre
  */
 public class Application {
@@ -72,24 +77,11 @@ public class Application {
 	/** The current state of the application */
 	private AppState state;
 	
-	/** The review state of the application */
-	private final AppState reviewState = new ReviewState();
-	
-	/** The interview state of the application */
-	private final AppState interviewState = new InterviewState();
-	
-	
-	/** The reference check state of the application */
-	private final AppState refChkState = new RefCheckState();
-	
-	/** The offer state of the application */
-	private final AppState offerState = new OfferState();
-	
-	/** The waitlist state of the application */
-	private final AppState waitlistState = new WaitlistState();
-	
-	/** The closed state of the application */
-	private final AppState closedState = new ClosedState();
+	/** The states, shared by every application and indexed by their TransitionTable code */
+	private static final AppState[] STATES = {new TableState(REVIEW_NAME, TransitionTable.REVIEW),
+			new TableState(INTERVIEW_NAME, TransitionTable.INTERVIEW), new TableState(REFCHK_NAME, TransitionTable.REFCHK),
+			new TableState(OFFER_NAME, TransitionTable.OFFER), new TableState(WAITLIST_NAME, TransitionTable.WAITLIST),
+			new TableState(CLOSED_NAME, TransitionTable.CLOSED)};
 	
 	/** The type of the application (New, Old, Hired) */
 	private AppType appType = AppType.NEW;
@@ -97,6 +89,9 @@ public class Application {
 	/** The resolution status of the application */
 	private Resolution resolution;
 	
+	/** The listener notified around every update, or null if there is none */
+	private UpdateListener listener;
+	
 	
 	
 	/**
@@ -197,6 +192,24 @@ public class Application {
 		
 	}
 
+	/**
+	 * Copy constructor that creates an Application with the same id, state,
+	 * type, summary, reviewer, paperwork flag, resolution and notes as another.
+	 * The copy has its own list of notes and no update listener.
+	 * 
+	 * @param other the Application to copy.
+	 */
+	public Application(Application other) {
+		this.appId = other.appId;
+		this.summary = other.summary;
+		this.reviewer = other.reviewer;
+		this.processPaperwork = other.processPaperwork;
+		this.notes = new ArrayList<>(other.notes);
+		this.setState(other.getStateName());
+		this.appType = other.appType;
+		this.resolution = other.resolution;
+	}
+
 	/**
 	 * Gets the application ID.
 	 * 
@@ -282,6 +295,20 @@ public class Application {
 	public ArrayList<String> getNotes() {
 		return this.notes;
 	}
+	
+	/**
+	 * Appends the notes of another application that this application does
+	 * not already have, keeping their original order.
+	 * 
+	 * @param other the application whose notes are merged in.
+	 */
+	public void mergeNotes(Application other) {
+		for(String note: other.notes) {
+			if(!this.notes.contains(note)) {
+				this.notes.add(note);
+			}
+		}
+	}
 
 	/**
 	 * Sets the list of notes.
@@ -306,22 +333,22 @@ public class Application {
 	private void setState(String state) {
 		switch(state) {
 		case CLOSED_NAME:
-			this.state = closedState;
+			this.state = STATES[TransitionTable.CLOSED];
 			break;
 		case INTERVIEW_NAME:
-			this.state = interviewState;
+			this.state = STATES[TransitionTable.INTERVIEW];
 			break;
 		case OFFER_NAME:
-			this.state = offerState;
+			this.state = STATES[TransitionTable.OFFER];
 			break;
 		case WAITLIST_NAME:
-			this.state = waitlistState;
+			this.state = STATES[TransitionTable.WAITLIST];
 			break;
 		case REVIEW_NAME:
-			this.state = reviewState;
+			this.state = STATES[TransitionTable.REVIEW];
 			break;
 		case REFCHK_NAME:
-			this.state = refChkState;
+			this.state = STATES[TransitionTable.REFCHK];
 			break;
 		default:
 			throw new IllegalArgumentException("Invalid state.");
@@ -459,7 +486,8 @@ public class Application {
 		if(this.reviewer != null) {
 			strReturn += this.reviewer + ",";
 		} else {
-			strReturn += "";
+			// An application without a reviewer has an empty field, as in the files AppReader reads.
+			strReturn += ",";
 		}
 		strReturn += this.processPaperwork + ",";
 		
@@ -485,20 +513,68 @@ public class Application {
 	
 	
 	/**
-	 * Updates the application based on the given command.
+	 * Updates the application based on the given command. An application held
+	 * by an AppList may be shared with snapshots of the list, so it is
+	 * updated through AppList.executeCommand() or AppManager.executeCommand()
+	 * rather than by calling this method directly.
 	 * 
 	 * @param command the command to update the application.
 	 */
 	public void update(Command command) throws UnsupportedOperationException {
-		this.state.updateState(command);
-		this.addNote(command.getNote());
+		UpdateListener current = this.listener;
+		if(current != null) {
+			current.beforeUpdate(this);
+		}
+		try {
+			this.state.updateState(this, command);
+			this.addNote(command.getNote());
+		} finally {
+			if(current != null) {
+				current.afterUpdate(this);
+			}
+		}
+	}
+	
+	/**
+	 * Sets the listener that is notified before and after every update.
+	 * 
+	 * @param listener the listener to notify, or null to remove the current one.
+	 */
+	public void setUpdateListener(UpdateListener listener) {
+		this.listener = listener;
+	}
+	
+	/**
+	 * Interface for objects that keep information derived from an Application,
+	 * such as indexes on its state or type, in step with its transitions.
+	 * 
+	 * @author Priyanshu Dongre
+	 */
+	public interface UpdateListener {
+		
+		/**
+		 * Called before the Application is updated, while it still has its
+		 * old state, type and reviewer.
+		 * @param app the Application about to be updated.
+		 */
+		void beforeUpdate(Application app);
+		
+		/**
+		 * Called after the Application has been updated.  This is also called
+		 * when the update was rejected with an UnsupportedOperationException,
+		 * in which case the Application is unchanged.
+		 * @param app the Application that was updated.
+		 */
+		void afterUpdate(Application app);
 	}
 	
 	/**
 	 * Interface for states in the Application State Pattern.  All 
 	 * concrete application states must implement the AppState interface.
 	 * The AppState interface should be a private interface of the 
-	 * Application class.
+	 * Application class.  States keep no data of their own: they act on
+	 * the Application passed to updateState, so one instance of each state
+	 * is shared by every Application.
 	 * 
 	 * @author Dr. Sarah Heckman (sarah_heckman@ncsu.edu) 
 	 * @author Dr. Chandrika Satyavolu (jsatyav@ncsu.edu)
@@ -510,12 +586,13 @@ public class Application {
 		 * Update the Application based on the given Command.
 		 * An UnsupportedOperationException is thrown if the Command
 		 * is not a valid action for the given state.  
+		 * @param app the Application in this state that is being updated.
 		 * @param command Command describing the action that will update the Application's
 		 * state.
 		 * @throws UnsupportedOperationException if the Command is not a valid action
 		 * for the given state.
 		 */
-		void updateState(Command command) throws UnsupportedOperationException;
+		void updateState(Application app, Command command) throws UnsupportedOperationException;
 		
 		/**
 		 * Returns the name of the current state as a String.
@@ -526,259 +603,73 @@ public class Application {
 
 	
 	/**
-	 * Represents the Interview state of the application.
+	 * Applies a transition from the TransitionTable to the application.
+	 * 
+	 * @param transition the transition to apply.
+	 * @param command the command that selected the transition.
 	 */
-	private class InterviewState implements AppState
-	{
-
-		@Override
-		public void updateState(Command command) {
-			
-			switch(command.getCommand()) {
-			case ACCEPT:
-				
-				if(command.getReviewerId() != null && !("".equals(reviewer))) {
-					setReviewer(command.getReviewerId());
-					//setProcessPaperwork(true);
-					setState(REFCHK_NAME);
-					//addNote(command.getNote());
-					break;
-				}
-			case STANDBY:
-				
-				if(command.getReviewerId() != null && !"".equals(reviewer)
-						&& command.getResolution() == Resolution.INTCOMPLETED) {
-					setResolution(Command.R_INTCOMPLETED);
-					//setProcessPaperwork(true);
-					setState(WAITLIST_NAME);
-					//addNote(command.getNote());
-					break;
-				}
-				
-				
-			case REJECT:
-				
-				if(command.getResolution() == Resolution.INTCOMPLETED) {
-					setResolution(Command.R_INTCOMPLETED);
-					//setProcessPaperwork(true);
-					setState(CLOSED_NAME);
-					//addNote(command.getNote());
-					break;
-				}
-
-			default: 
-				throw new UnsupportedOperationException("Invalid information.");
-			}
-			
+	private void apply(TransitionTable.Transition transition, Command command) {
+		if(transition.takeReviewer) {
+			this.reviewer = command.getReviewerId();
 		}
-
-		@Override
-		public String getStateName() {
-		
-			return INTERVIEW_NAME;
+		if(transition.appType != null) {
+			this.appType = transition.appType;
 		}
-		
-	}
-	
-	
-	/**
-	 * Represents the Review state of the application.
-	 */
-	private class ReviewState implements AppState {
-
-		@Override
-		public void updateState(Command command) {			
-			switch(command.getCommand()) {
-			case ACCEPT:
-				if(command.getReviewerId() != null || !("".equals(getReviewer()))) {
-					setReviewer(command.getReviewerId());
-					setAppType(A_OLD);
-					setState(INTERVIEW_NAME);
-					//addNote(command.getNote());
-					break;
-				}
-				
-			case STANDBY:
-				
-				if(command.getResolution() == Resolution.REVCOMPLETED) {
-					setResolution(Command.R_REVCOMPLETED);
-					setState(WAITLIST_NAME);
-					//addNote(command.getNote());
-					break;
-				}
-				
-			case REJECT:
-				if(command.getResolution() == Resolution.REVCOMPLETED) {
-					setResolution(Command.R_REVCOMPLETED);
-					setState(CLOSED_NAME);
-					//addNote(command.getNote());
-					break;
-				}
-			default: 
-				throw new UnsupportedOperationException("Invalid information.");
-			}
-			
+		if(transition.resolution != null) {
+			this.resolution = transition.resolution;
 		}
-
-		@Override
-		public String getStateName() {
-			return REVIEW_NAME;
+		if(transition.processPaperwork) {
+			this.processPaperwork = true;
 		}
-		
+		this.state = STATES[transition.target];
 	}
 	
-	
 	/**
-	 * Represents the Reference Check state of the application.
+	 * Represents one state of the application.  The valid commands and their
+	 * effects are not written out per state but looked up in the
+	 * TransitionTable, so an update is a single array lookup.
 	 */
-	private class RefCheckState implements AppState {
-
-		@Override
-		public void updateState(Command command) {
-			switch(command.getCommand()) {
-			case ACCEPT:
-				if(command.getReviewerId() != null && !("".equals(getReviewer()))) {
-					setReviewer(command.getReviewerId());
-					setProcessPaperwork(true);
-					setState(OFFER_NAME);
-					//addNote(command.getNote());
-					break;
-				}
-				
-				
-			case REJECT:
-				if(command.getResolution() == Resolution.REFCHKCOMPLETED) {
-					setResolution(Command.R_REFCHKCOMPLETED);
-					setState(CLOSED_NAME);
-					//addNote(command.getNote());
-					break;
-				}
-				
-			default: 
-				throw new UnsupportedOperationException("Invalid information.");
-			}
-			
-		}
-
-		@Override
-		public String getStateName() {
-			return REFCHK_NAME;
-		}
+	private static class TableState implements AppState {
 		
-	}
-	
-	
-	/**
-	 * Represents the Offer state of the application.
-	 */
-	private class OfferState implements AppState {
-
-		@Override
-		public void updateState(Command command) {
-			switch(command.getCommand()) {
-			case ACCEPT:
-				
-				if(command.getReviewerId() != null && !("".equals(getReviewer())) && command.getResolution() == Resolution.OFFERCOMPLETED) {
-					setReviewer(command.getReviewerId());
-					setAppType(A_HIRED);
-//					setProcessPaperwork(true);
-					setResolution(Command.R_OFFERCOMPLETED);
-					setState(CLOSED_NAME);
-					//addNote(command.getNote());
-					break;
-				}
-				
-				
-			case REJECT:
-				if(command.getResolution() == Resolution.OFFERCOMPLETED) {
-					setResolution(Command.R_OFFERCOMPLETED);
-					setState(CLOSED_NAME);
-					//addNote(command.getNote());
-					break;
-				}
-				
-				
-			default: 
-				throw new UnsupportedOperationException("Invalid information.");
-			}
-			
-		}
-
-		@Override
-		public String getStateName() {
-
-			return OFFER_NAME;
-		}
+		/** The name of the state */
+		private final String name;
 		
-	}
-	
-	
-	/**
-	 * Represents the Closed state of the application.
-	 */
-	private class ClosedState implements AppState {
-
-		@Override
-		public void updateState(Command command) {
-			switch(command.getCommand()) {
-			case REOPEN:
-				if(command.getResolution() == Resolution.REVCOMPLETED && getAppType().equals(A_NEW)) {
-					setAppType(A_OLD);
-					setState(REVIEW_NAME);
-					//addNote(command.getNote());
-					break;
-				}
-				
-			default:
-				throw new UnsupportedOperationException("Invalid information.");
-			}
-			
-		}
-
-		@Override
-		public String getStateName() {
-
-			return CLOSED_NAME;
-		}
+		/** The code of the state in the TransitionTable */
+		private final int code;
 		
-	}
-	
-	/**
-	 * Represents the Waitlist state of the application.
-	 */
-	private class WaitlistState implements AppState {
+		/**
+		 * Constructs a TableState.
+		 * @param name the name of the state.
+		 * @param code the code of the state in the TransitionTable.
+		 */
+		TableState(String name, int code) {
+			this.name = name;
+			this.code = code;
+		}
 
 		@Override
-		public void updateState(Command command) {
-			
-			switch(command.getCommand()) {
-			case REOPEN:
-				if(command.getResolution() == Resolution.INTCOMPLETED && command.getReviewerId() != null && !"".equals(getReviewer())) {
-					setReviewer(command.getReviewerId());
-					setProcessPaperwork(true);
-					setState(REFCHK_NAME);
-					//addNote(command.getNote());
-					break;
-					
-				} else if(command.getResolution() == Resolution.REVCOMPLETED && getAppType().equals(A_NEW)) {
-					setAppType(A_OLD);
-					setState(REVIEW_NAME);
-					//addNote(command.getNote());
-					break;
-				}
-				
-			default: 
+		public void updateState(Application app, Command command) {
+			int flags = 0;
+			if(command.getReviewerId() != null) {
+				flags |= TransitionTable.COMMAND_REVIEWER;
+			}
+			if(!"".equals(app.reviewer)) {
+				flags |= TransitionTable.APP_REVIEWER;
+			}
+			if(app.appType == AppType.NEW) {
+				flags |= TransitionTable.NEW_TYPE;
+			}
+			TransitionTable.Transition transition = TransitionTable.lookup(code, command.getCommand(),
+					command.getResolution(), flags);
+			if(transition == null) {
 				throw new UnsupportedOperationException("Invalid information.");
 			}
-
-			
+			app.apply(transition, command);
 		}
 
 		@Override
 		public String getStateName() {
-
-			return WAITLIST_NAME;
+			return name;
 		}
-		
 	}
 }
@@ -0,0 +1,253 @@
+/**
+ *
+ */
+package edu.ncsu.csc216.app_manager.model.application;
+
+import java.util.ArrayList;
+import java.util.function.IntPredicate;
+
+import edu.ncsu.csc216.app_manager.model.application.Application.AppType;
+import edu.ncsu.csc216.app_manager.model.command.Command.CommandValue;
+import edu.ncsu.csc216.app_manager.model.command.Command.Resolution;
+
+/**
+ * The TransitionTable class holds the Application state machine as a
+ * precompiled table. Every combination of current state, CommandValue,
+ * Resolution (or none) and the three facts a transition can depend on
+ * (whether the Command has a reviewer, whether the Application's reviewer
+ * is not the empty string, and whether the Application is New) has one
+ * entry. The entry is either null, meaning the Command is not valid, or the
+ * Transition describing the target state and every side effect, so an
+ * update is a single array lookup.
+ *
+ * The table is compiled from rules written in the same order, and with the
+ * same fall-through from one command to the next, as the switch statements
+ * of the original state classes, so the transitions are exactly the same.
+ *
+ * @author Priyanshu Dongre
+ */
+final class TransitionTable {
+
+	/** Code of the Review state */
+	static final int REVIEW = 0;
+
+	/** Code of the Interview state */
+	static final int INTERVIEW = 1;
+
+	/** Code of the RefCheck state */
+	static final int REFCHK = 2;
+
+	/** Code of the Offer state */
+	static final int OFFER = 3;
+
+	/** Code of the Waitlist state */
+	static final int WAITLIST = 4;
+
+	/** Code of the Closed state */
+	static final int CLOSED = 5;
+
+	/** Flag set when the Command has a reviewer id */
+	static final int COMMAND_REVIEWER = 1;
+
+	/** Flag set when the Application's reviewer is not the empty string */
+	static final int APP_REVIEWER = 2;
+
+	/** Flag set when the Application is of type New */
+	static final int NEW_TYPE = 4;
+
+	/** Number of states */
+	private static final int STATES = 6;
+
+	/** Number of command values */
+	private static final int COMMANDS = CommandValue.values().length;
+
+	/** Number of resolutions, plus one for no resolution */
+	private static final int RESOLUTIONS = Resolution.values().length + 1;
+
+	/** Number of combinations of flags */
+	private static final int FLAGS = 8;
+
+	/** The compiled transitions */
+	private static final Transition[] TABLE = compile();
+
+	/**
+	 * Prevents instantiation.
+	 */
+	private TransitionTable() {
+	}
+
+	/**
+	 * Looks up the transition for a Command.
+	 *
+	 * @param state the code of the current state.
+	 * @param command the CommandValue of the Command.
+	 * @param resolution the Resolution of the Command, or null.
+	 * @param flags the flags describing the Command and the Application.
+	 * @return the transition, or null if the Command is not valid in the state.
+	 */
+	static Transition lookup(int state, CommandValue command, Resolution resolution, int flags) {
+		return TABLE[index(state, command.ordinal(), resolution == null ? 0 : resolution.ordinal() + 1, flags)];
+	}
+
+	/**
+	 * Computes the position of an entry in the table.
+	 *
+	 * @param state the code of the state.
+	 * @param command the ordinal of the CommandValue.
+	 * @param resolution the ordinal of the Resolution plus one, or 0 for none.
+	 * @param flags the flags.
+	 * @return the position in the table.
+	 */
+	private static int index(int state, int command, int resolution, int flags) {
+		return ((state * COMMANDS + command) * RESOLUTIONS + resolution) * FLAGS + flags;
+	}
+
+	/**
+	 * Compiles the rules of every state into the table.
+	 *
+	 * @return the compiled table.
+	 */
+	private static Transition[] compile() {
+		IntPredicate any = f -> true;
+		IntPredicate commandOrAppReviewer = f -> (f & (COMMAND_REVIEWER | APP_REVIEWER)) != 0;
+		IntPredicate commandAndAppReviewer = f -> (f & (COMMAND_REVIEWER | APP_REVIEWER)) == (COMMAND_REVIEWER | APP_REVIEWER);
+		IntPredicate isNew = f -> (f & NEW_TYPE) != 0;
+
+		ArrayList<ArrayList<Rule>> rules = new ArrayList<>();
+		for(int s = 0; s < STATES; s++) {
+			rules.add(new ArrayList<>());
+		}
+
+		rules.get(REVIEW).add(new Rule(CommandValue.ACCEPT, null, commandOrAppReviewer,
+				new Transition(INTERVIEW, true, AppType.OLD, null, false)));
+		rules.get(REVIEW).add(new Rule(CommandValue.STANDBY, Resolution.REVCOMPLETED, any,
+				new Transition(WAITLIST, false, null, Resolution.REVCOMPLETED, false)));
+		rules.get(REVIEW).add(new Rule(CommandValue.REJECT, Resolution.REVCOMPLETED, any,
+				new Transition(CLOSED, false, null, Resolution.REVCOMPLETED, false)));
+
+		rules.get(INTERVIEW).add(new Rule(CommandValue.ACCEPT, null, commandAndAppReviewer,
+				new Transition(REFCHK, true, null, null, false)));
+		rules.get(INTERVIEW).add(new Rule(CommandValue.STANDBY, Resolution.INTCOMPLETED, commandAndAppReviewer,
+				new Transition(WAITLIST, false, null, Resolution.INTCOMPLETED, false)));
+		rules.get(INTERVIEW).add(new Rule(CommandValue.REJECT, Resolution.INTCOMPLETED, any,
+				new Transition(CLOSED, false, null, Resolution.INTCOMPLETED, false)));
+
+		rules.get(REFCHK).add(new Rule(CommandValue.ACCEPT, null, commandAndAppReviewer,
+				new Transition(OFFER, true, null, null, true)));
+		rules.get(REFCHK).add(new Rule(CommandValue.REJECT, Resolution.REFCHKCOMPLETED, any,
+				new Transition(CLOSED, false, null, Resolution.REFCHKCOMPLETED, false)));
+
+		rules.get(OFFER).add(new Rule(CommandValue.ACCEPT, Resolution.OFFERCOMPLETED, commandAndAppReviewer,
+				new Transition(CLOSED, true, AppType.HIRED, Resolution.OFFERCOMPLETED, false)));
+		rules.get(OFFER).add(new Rule(CommandValue.REJECT, Resolution.OFFERCOMPLETED, any,
+				new Transition(CLOSED, false, null, Resolution.OFFERCOMPLETED, false)));
+
+		rules.get(CLOSED).add(new Rule(CommandValue.REOPEN, Resolution.REVCOMPLETED, isNew,
+				new Transition(REVIEW, false, AppType.OLD, null, false)));
+
+		// Both Waitlist rules are alternatives within the single REOPEN case.
+		rules.get(WAITLIST).add(new Rule(CommandValue.REOPEN, Resolution.INTCOMPLETED, commandAndAppReviewer,
+				new Transition(REFCHK, true, null, null, true)));
+		rules.get(WAITLIST).add(new Rule(null, Resolution.REVCOMPLETED, isNew,
+				new Transition(REVIEW, false, AppType.OLD, null, false)));
+
+		Transition[] table = new Transition[STATES * COMMANDS * RESOLUTIONS * FLAGS];
+		for(int s = 0; s < STATES; s++) {
+			ArrayList<Rule> stateRules = rules.get(s);
+			for(CommandValue c: CommandValue.values()) {
+				int first = -1;
+				for(int i = 0; i < stateRules.size() && first < 0; i++) {
+					if(stateRules.get(i).label == c) {
+						first = i;
+					}
+				}
+				if(first < 0) {
+					continue;
+				}
+				for(int r = 0; r < RESOLUTIONS; r++) {
+					Resolution resolution = r == 0 ? null : Resolution.values()[r - 1];
+					for(int f = 0; f < FLAGS; f++) {
+						// Like the switch statements, a failed case falls through to the next one.
+						for(int i = first; i < stateRules.size(); i++) {
+							Rule rule = stateRules.get(i);
+							if((rule.resolution == null || rule.resolution == resolution) && rule.guard.test(f)) {
+								table[index(s, c.ordinal(), r, f)] = rule.transition;
+								break;
+							}
+						}
+					}
+				}
+			}
+		}
+		return table;
+	}
+
+	/**
+	 * One case of a state's switch statement, used to compile the table.
+	 */
+	private static class Rule {
+
+		/** The case label, or null for a rule that continues the previous case */
+		private final CommandValue label;
+
+		/** The Resolution the Command must have, or null for any */
+		private final Resolution resolution;
+
+		/** The condition on the flags */
+		private final IntPredicate guard;
+
+		/** The transition made when the rule applies */
+		private final Transition transition;
+
+		/**
+		 * Constructs a Rule.
+		 * @param label the case label, or null to continue the previous case.
+		 * @param resolution the Resolution the Command must have, or null for any.
+		 * @param guard the condition on the flags.
+		 * @param transition the transition made when the rule applies.
+		 */
+		Rule(CommandValue label, Resolution resolution, IntPredicate guard, Transition transition) {
+			this.label = label;
+			this.resolution = resolution;
+			this.guard = guard;
+			this.transition = transition;
+		}
+	}
+
+	/**
+	 * The target state and side effects of one valid transition.
+	 */
+	static final class Transition {
+
+		/** The code of the target state */
+		final int target;
+
+		/** Whether the Command's reviewer id becomes the Application's reviewer */
+		final boolean takeReviewer;
+
+		/** The new type of the Application, or null to keep the current one */
+		final AppType appType;
+
+		/** The new resolution of the Application, or null to keep the current one */
+		final Resolution resolution;
+
+		/** Whether the paperwork becomes processed */
+		final boolean processPaperwork;
+
+		/**
+		 * Constructs a Transition.
+		 * @param target the code of the target state.
+		 * @param takeReviewer whether the Command's reviewer id becomes the reviewer.
+		 * @param appType the new type, or null to keep the current one.
+		 * @param resolution the new resolution, or null to keep the current one.
+		 * @param processPaperwork whether the paperwork becomes processed.
+		 */
+		Transition(int target, boolean takeReviewer, AppType appType, Resolution resolution, boolean processPaperwork) {
+			this.target = target;
+			this.takeReviewer = takeReviewer;
+			this.appType = appType;
+			this.resolution = resolution;
+			this.processPaperwork = processPaperwork;
+		}
+	}
+}
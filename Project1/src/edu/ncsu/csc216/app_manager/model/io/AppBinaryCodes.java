@@ -0,0 +1,171 @@
+/**
+ *
+ */
+package edu.ncsu.csc216.app_manager.model.io;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import edu.ncsu.csc216.app_manager.model.application.Application;
+import edu.ncsu.csc216.app_manager.model.command.Command;
+
+/**
+ * The AppBinaryCodes class holds the layout shared by AppBinaryWriter and
+ * AppBinaryReader. A binary application file is:
+ *
+ * the magic bytes "APPB", a version byte, and the number of applications as
+ * a varint, followed by each application as its id (varint), state, type,
+ * flags and resolution codes (one byte each), its reviewer (varint), its
+ * summary (string) and its number of notes (varint) followed by the notes.
+ *
+ * Varints are unsigned LEB128: seven bits per byte, low bits first, with
+ * the high bit set on every byte but the last. Strings are a varint byte
+ * length followed by UTF-8 bytes.
+ *
+ * Reviewers are written through a dictionary built as the file is written:
+ * 0 means no reviewer, a number up to the size of the dictionary refers to
+ * a reviewer already written, and the next number is followed by the new
+ * reviewer's string, which is added to the dictionary.
+ *
+ * A note is written as a prefix code and the rest of the note as a string.
+ * Prefix code 0 means the note is written in full without its leading '-'.
+ * Code 1 plus a state code means it starts with "-[State] " for that state.
+ *
+ * @author Priyanshu Dongre
+ */
+final class AppBinaryCodes {
+
+	/** The magic bytes at the start of a binary application file */
+	static final byte[] MAGIC = {'A', 'P', 'P', 'B'};
+
+	/** The version of the format written */
+	static final int VERSION = 1;
+
+	/** Flag set when the paperwork is processed */
+	static final int PROCESSED = 1;
+
+	/** The largest string, in bytes, a file may hold */
+	static final int MAX_STRING = 1 << 20;
+
+	/** The state names, indexed by state code */
+	static final String[] STATES = {Application.REVIEW_NAME, Application.INTERVIEW_NAME, Application.REFCHK_NAME,
+			Application.OFFER_NAME, Application.WAITLIST_NAME, Application.CLOSED_NAME};
+
+	/** The type names, indexed by type code */
+	static final String[] TYPES = {Application.A_NEW, Application.A_OLD, Application.A_HIRED};
+
+	/** The resolution names, indexed by resolution code; code 0 is no resolution */
+	static final String[] RESOLUTIONS = {"", Command.R_REVCOMPLETED, Command.R_INTCOMPLETED,
+			Command.R_REFCHKCOMPLETED, Command.R_OFFERCOMPLETED};
+
+	/** The note prefixes, indexed by prefix code; code 0 is no prefix */
+	static final String[] NOTE_PREFIXES = {"-", "-[" + STATES[0] + "] ", "-[" + STATES[1] + "] ", "-[" + STATES[2] + "] ",
+			"-[" + STATES[3] + "] ", "-[" + STATES[4] + "] ", "-[" + STATES[5] + "] "};
+
+	/**
+	 * Prevents instantiation.
+	 */
+	private AppBinaryCodes() {
+	}
+
+	/**
+	 * Finds the code of a name.
+	 *
+	 * @param names the names, indexed by code.
+	 * @param name the name to find, or null.
+	 * @return the code of the name.
+	 * @throws IllegalArgumentException if the name has no code.
+	 */
+	static int code(String[] names, String name) {
+		for(int i = 0; i < names.length; i++) {
+			if(names[i].equals(name)) {
+				return i;
+			}
+		}
+		throw new IllegalArgumentException("Unable to save file.");
+	}
+
+	/**
+	 * Finds the name of a code read from a file.
+	 *
+	 * @param names the names, indexed by code.
+	 * @param code the code that was read.
+	 * @return the name of the code.
+	 * @throws IOException if the code is not valid.
+	 */
+	static String name(String[] names, int code) throws IOException {
+		if(code < 0 || code >= names.length) {
+			throw new IOException("Invalid code.");
+		}
+		return names[code];
+	}
+
+	/**
+	 * Writes a non-negative int as a varint.
+	 *
+	 * @param out the output to write to.
+	 * @param value the value to write.
+	 * @throws IOException if the value cannot be written.
+	 */
+	static void writeVarint(DataOutput out, int value) throws IOException {
+		while((value & ~0x7F) != 0) {
+			out.writeByte((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		out.writeByte(value);
+	}
+
+	/**
+	 * Reads a varint written by writeVarint().
+	 *
+	 * @param in the input to read from.
+	 * @return the value that was read.
+	 * @throws IOException if the value cannot be read or is not valid.
+	 */
+	static int readVarint(DataInput in) throws IOException {
+		int value = 0;
+		for(int shift = 0; shift < 35; shift += 7) {
+			int b = in.readUnsignedByte();
+			value |= (b & 0x7F) << shift;
+			if((b & 0x80) == 0) {
+				if(value < 0) {
+					break;
+				}
+				return value;
+			}
+		}
+		throw new IOException("Invalid varint.");
+	}
+
+	/**
+	 * Writes a string as its UTF-8 length and bytes.
+	 *
+	 * @param out the output to write to.
+	 * @param value the string to write.
+	 * @throws IOException if the string cannot be written.
+	 */
+	static void writeString(DataOutput out, String value) throws IOException {
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		writeVarint(out, bytes.length);
+		out.write(bytes);
+	}
+
+	/**
+	 * Reads a string written by writeString().
+	 *
+	 * @param in the input to read from.
+	 * @return the string that was read.
+	 * @throws IOException if the string cannot be read or is too long.
+	 */
+	static String readString(DataInput in) throws IOException {
+		int length = readVarint(in);
+		if(length > MAX_STRING) {
+			throw new IOException("Invalid string.");
+		}
+		byte[] bytes = new byte[length];
+		in.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+}
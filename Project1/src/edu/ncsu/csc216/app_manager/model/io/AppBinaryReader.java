@@ -0,0 +1,187 @@
+/**
+ *
+ */
+package edu.ncsu.csc216.app_manager.model.io;
+
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import edu.ncsu.csc216.app_manager.model.application.Application;
+
+/**
+ * The AppBinaryReader class reads applications from a file written by
+ * AppBinaryWriter, compressed or not. The file must start with the binary
+ * magic bytes and a version this reader understands.
+ *
+ * Applications are built through the same constructor AppReader uses, so
+ * an application read from a binary file is equal to the one read from
+ * the text file it was converted from.
+ *
+ * @author Priyanshu Dongre
+ */
+public class AppBinaryReader {
+
+	/**
+	 * Reads applications from a binary file and returns them as an ArrayList.
+	 *
+	 * @param fileName the name of the file to read applications from.
+	 * @return an ArrayList of Application objects.
+	 */
+	public static ArrayList<Application> readAppsFromFile(String fileName) {
+		try (InputStream in = AppFileFormat.openInput(fileName)) {
+			return readApps(in);
+		} catch(IOException io) {
+			throw new IllegalArgumentException("Unable to load file.");
+		}
+	}
+
+	/**
+	 * Checks whether a file starts with the magic bytes of the binary format,
+	 * once it is decompressed if it is compressed.
+	 *
+	 * @param fileName the name of the file to check.
+	 * @return true if the file is a binary application file.
+	 */
+	public static boolean isBinaryFile(String fileName) {
+		try (InputStream in = AppFileFormat.openInput(fileName)) {
+			return AppFileFormat.isBinary(in);
+		} catch(IOException io) {
+			return false;
+		}
+	}
+
+	/**
+	 * Converts a binary application file into a text one, as written by
+	 * AppWriter.
+	 *
+	 * @param binaryFileName the name of the binary file to read.
+	 * @param textFileName the name of the text file to write.
+	 * @return the number of applications converted.
+	 */
+	public static int convertToText(String binaryFileName, String textFileName) {
+		ArrayList<Application> list = readAppsFromFile(binaryFileName);
+		AppWriter.writeAppsToFile(textFileName, list);
+		return list.size();
+	}
+
+	/**
+	 * Reads applications in the binary format from a stream, which is not
+	 * closed.
+	 *
+	 * @param stream the stream to read from.
+	 * @return an ArrayList of Application objects.
+	 * @throws IOException if the applications cannot be read or the format is not valid.
+	 */
+	static ArrayList<Application> readApps(InputStream stream) throws IOException {
+		Records records = new Records(stream);
+		ArrayList<Application> applications = new ArrayList<>(Math.min(records.remaining, 1 << 16));
+		Application app = records.next();
+		while(app != null) {
+			applications.add(app);
+			app = records.next();
+		}
+		return applications;
+	}
+
+	/**
+	 * Reads one application.
+	 *
+	 * @param in the stream to read from.
+	 * @param reviewers the dictionary of reviewers read so far; reviewer n is at index n - 1.
+	 * @return the application that was read.
+	 * @throws IOException if the application cannot be read or is not valid.
+	 */
+	private static Application readApp(DataInputStream in, ArrayList<String> reviewers) throws IOException {
+		int id = AppBinaryCodes.readVarint(in);
+		String state = AppBinaryCodes.name(AppBinaryCodes.STATES, in.readUnsignedByte());
+		String type = AppBinaryCodes.name(AppBinaryCodes.TYPES, in.readUnsignedByte());
+		boolean processed = (in.readUnsignedByte() & AppBinaryCodes.PROCESSED) != 0;
+		String resolution = AppBinaryCodes.name(AppBinaryCodes.RESOLUTIONS, in.readUnsignedByte());
+
+		int number = AppBinaryCodes.readVarint(in);
+		String reviewer = "";
+		if(number == reviewers.size() + 1) {
+			reviewer = AppBinaryCodes.readString(in);
+			reviewers.add(reviewer);
+		} else if(number > reviewers.size()) {
+			throw new IOException("Invalid reviewer.");
+		} else if(number > 0) {
+			reviewer = reviewers.get(number - 1);
+		}
+
+		String summary = AppBinaryCodes.readString(in);
+		int count = AppBinaryCodes.readVarint(in);
+		ArrayList<String> notes = new ArrayList<>(Math.min(count, 1 << 10));
+		for(int i = 0; i < count; i++) {
+			String note = AppBinaryCodes.name(AppBinaryCodes.NOTE_PREFIXES, in.readUnsignedByte())
+					+ AppBinaryCodes.readString(in);
+			// The constructor drops the last character of each note and adds a leading '-'.
+			notes.add(note.substring(1) + "\n");
+		}
+		return new Application(id, state, type, summary, reviewer, processed, resolution, notes);
+	}
+
+	/**
+	 * The applications of a binary stream, read one at a time after the
+	 * header has been checked.
+	 */
+	static class Records implements Closeable {
+
+		/** The stream being read */
+		private final DataInputStream in;
+
+		/** The number of applications not read yet */
+		private int remaining;
+
+		/** The dictionary of reviewers read so far; reviewer n is at index n - 1 */
+		private final ArrayList<String> reviewers;
+
+		/**
+		 * Reads and checks the header of a binary stream.
+		 *
+		 * @param stream the stream to read, closed when the Records are closed.
+		 * @throws IOException if the header cannot be read or is not valid.
+		 */
+		Records(InputStream stream) throws IOException {
+			this.in = new DataInputStream(stream);
+			byte[] magic = new byte[AppBinaryCodes.MAGIC.length];
+			in.readFully(magic);
+			if(!Arrays.equals(magic, AppBinaryCodes.MAGIC) || in.readUnsignedByte() != AppBinaryCodes.VERSION) {
+				throw new IOException("Invalid format.");
+			}
+			this.remaining = AppBinaryCodes.readVarint(in);
+			this.reviewers = new ArrayList<>();
+		}
+
+		/**
+		 * Reads the next application.
+		 *
+		 * @return the application, or null if every application has been read.
+		 * @throws IOException if the application cannot be read or the format is not valid.
+		 */
+		Application next() throws IOException {
+			if(remaining == 0) {
+				if(in.read() != -1) {
+					throw new IOException("Invalid format.");
+				}
+				return null;
+			}
+			remaining--;
+			return readApp(in, reviewers);
+		}
+
+		/**
+		 * Closes the stream.
+		 *
+		 * @throws IOException if the stream cannot be closed.
+		 */
+		@Override
+		public void close() throws IOException {
+			in.close();
+		}
+	}
+}
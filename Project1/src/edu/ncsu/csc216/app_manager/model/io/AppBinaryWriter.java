@@ -0,0 +1,150 @@
+/**
+ *
+ */
+package edu.ncsu.csc216.app_manager.model.io;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.List;
+
+import edu.ncsu.csc216.app_manager.model.application.Application;
+
+/**
+ * The AppBinaryWriter class writes a list of applications in the compact,
+ * versioned binary format described in AppBinaryCodes. States, types and
+ * resolutions are written as one byte codes instead of names, ids and
+ * lengths as varints, each reviewer's name only once, and the "-[State] "
+ * prefix of a note as a single byte. The file is read back by
+ * AppBinaryReader.
+ *
+ * @author Priyanshu Dongre
+ */
+public class AppBinaryWriter {
+
+	/**
+	 * Writes a list of Application objects to the specified file in the
+	 * binary format.
+	 *
+	 * @param fileName the name of the file to write the applications to.
+	 * @param list the list of Application objects to write.
+	 */
+	public static void writeAppsToFile(String fileName, List<Application> list) {
+		try (OutputStream out = new BufferedOutputStream(new FileOutputStream(fileName))) {
+			writeApps(out, list);
+		} catch(IOException io) {
+			throw new IllegalArgumentException("Unable to save file.");
+		}
+	}
+
+	/**
+	 * Writes a list of Application objects to the specified file in the
+	 * binary format, compressed with deflate as it is written.
+	 *
+	 * @param fileName the name of the file to write the applications to.
+	 * @param list the list of Application objects to write.
+	 * @param level the deflate level, from Deflater.DEFAULT_COMPRESSION (-1) to Deflater.BEST_COMPRESSION (9).
+	 */
+	public static void writeAppsToFile(String fileName, List<Application> list, int level) {
+		try (OutputStream out = AppFileFormat.openCompressedOutput(fileName, level)) {
+			writeApps(new BufferedOutputStream(out), list);
+		} catch(IOException io) {
+			throw new IllegalArgumentException("Unable to save file.");
+		}
+	}
+
+	/**
+	 * Converts a text application file, as read by AppReader, into a binary
+	 * one.
+	 *
+	 * @param textFileName the name of the text file to read.
+	 * @param binaryFileName the name of the binary file to write.
+	 * @return the number of applications converted.
+	 */
+	public static int convertToBinary(String textFileName, String binaryFileName) {
+		List<Application> list = AppReader.readAppsFromFile(textFileName);
+		writeAppsToFile(binaryFileName, list);
+		return list.size();
+	}
+
+	/**
+	 * Writes a list of applications in the binary format to a stream, which
+	 * is flushed but not closed.
+	 *
+	 * @param stream the stream to write to.
+	 * @param list the list of Application objects to write.
+	 * @throws IOException if the applications cannot be written.
+	 */
+	static void writeApps(OutputStream stream, List<Application> list) throws IOException {
+		DataOutputStream out = new DataOutputStream(stream);
+		out.write(AppBinaryCodes.MAGIC);
+		out.writeByte(AppBinaryCodes.VERSION);
+		AppBinaryCodes.writeVarint(out, list.size());
+		HashMap<String, Integer> reviewers = new HashMap<>();
+		for(int i = 0; i < list.size(); i++) {
+			writeApp(out, list.get(i), reviewers);
+		}
+		out.flush();
+	}
+
+	/**
+	 * Writes one application.
+	 *
+	 * @param out the stream to write to.
+	 * @param app the application to write.
+	 * @param reviewers the dictionary of reviewers written so far, by their number.
+	 * @throws IOException if the application cannot be written.
+	 */
+	private static void writeApp(DataOutputStream out, Application app, HashMap<String, Integer> reviewers)
+			throws IOException {
+		AppBinaryCodes.writeVarint(out, app.getAppId());
+		out.writeByte(AppBinaryCodes.code(AppBinaryCodes.STATES, app.getStateName()));
+		out.writeByte(AppBinaryCodes.code(AppBinaryCodes.TYPES, app.getAppType()));
+		out.writeByte(app.isProcessed() ? AppBinaryCodes.PROCESSED : 0);
+		out.writeByte(app.getResolution() == null ? 0 : AppBinaryCodes.code(AppBinaryCodes.RESOLUTIONS, app.getResolution()));
+
+		String reviewer = app.getReviewer();
+		if(reviewer == null || reviewer.isEmpty()) {
+			AppBinaryCodes.writeVarint(out, 0);
+		} else {
+			Integer number = reviewers.get(reviewer);
+			if(number != null) {
+				AppBinaryCodes.writeVarint(out, number);
+			} else {
+				number = reviewers.size() + 1;
+				reviewers.put(reviewer, number);
+				AppBinaryCodes.writeVarint(out, number);
+				AppBinaryCodes.writeString(out, reviewer);
+			}
+		}
+
+		AppBinaryCodes.writeString(out, app.getSummary());
+		List<String> notes = app.getNotes();
+		AppBinaryCodes.writeVarint(out, notes.size());
+		for(int i = 0; i < notes.size(); i++) {
+			writeNote(out, notes.get(i));
+		}
+	}
+
+	/**
+	 * Writes one note as its prefix code and the rest of the note.
+	 *
+	 * @param out the stream to write to.
+	 * @param note the note to write.
+	 * @throws IOException if the note cannot be written.
+	 */
+	private static void writeNote(DataOutputStream out, String note) throws IOException {
+		for(int code = AppBinaryCodes.NOTE_PREFIXES.length - 1; code >= 0; code--) {
+			String prefix = AppBinaryCodes.NOTE_PREFIXES[code];
+			if(note.startsWith(prefix)) {
+				out.writeByte(code);
+				AppBinaryCodes.writeString(out, note.substring(prefix.length()));
+				return;
+			}
+		}
+		throw new IllegalArgumentException("Unable to save file.");
+	}
+}
@@ -0,0 +1,195 @@
+/**
+ *
+ */
+package edu.ncsu.csc216.app_manager.model.io;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import edu.ncsu.csc216.app_manager.model.application.Application;
+
+/**
+ * The AppCheckpoint class saves the snapshot of a journaled application
+ * list together with the length of the journal it holds, so that recovery
+ * never replays a journal event that is already part of the snapshot.
+ *
+ * A checkpoint first writes the new snapshot to a temporary file, then
+ * writes a marker file next to the snapshot naming that temporary file and
+ * the journal length, and only then renames the temporary file over the
+ * snapshot. The marker is the point at which the checkpoint takes effect.
+ * After a crash, complete() finishes an interrupted rename and returns the
+ * journal length to skip; without a marker the whole journal is replayed
+ * on the old snapshot. The marker is removed with clear() once the journal
+ * has been emptied.
+ *
+ * The marker is two lines: the journal length and the name of the
+ * temporary file, which is in the directory of the snapshot.
+ *
+ * @author Priyanshu Dongre
+ */
+public class AppCheckpoint {
+
+	/** The suffix added to the name of a snapshot file to name its marker */
+	public static final String SUFFIX = ".ckpt";
+
+	/**
+	 * Saves a snapshot that holds the first journalLength bytes of the
+	 * journal, replacing the snapshot file atomically. The marker stays in
+	 * place until clear() is called.
+	 *
+	 * @param snapshotFileName the name of the snapshot file.
+	 * @param list the applications to save.
+	 * @param journalLength the length of the journal the applications include.
+	 */
+	public static void save(String snapshotFileName, List<Application> list, long journalLength) {
+		Path target = path(snapshotFileName, "Unable to save file.");
+		Path marker = markerOf(target);
+		Path temp = null;
+		boolean marked = false;
+		try {
+			temp = AppWriter.writeTempFile(target, list);
+			writeMarker(marker, journalLength + "\n" + temp.getFileName() + "\n");
+			marked = true;
+			AppWriter.replaceFile(temp, target);
+			temp = null;
+		} catch(IOException io) {
+			throw new IllegalArgumentException("Unable to save file.");
+		} finally {
+			if(temp != null) {
+				discard(marked ? marker : null, temp);
+			}
+		}
+	}
+
+	/**
+	 * Finishes a checkpoint that was interrupted by a crash. If the marker
+	 * names a temporary file that is still there, it is renamed over the
+	 * snapshot, since it holds the list the checkpoint saved.
+	 *
+	 * @param snapshotFileName the name of the snapshot file.
+	 * @return the length of the journal the snapshot holds, or -1 if there is no marker.
+	 */
+	public static long complete(String snapshotFileName) {
+		Path target = path(snapshotFileName, "Unable to load file.");
+		Path marker = markerOf(target);
+		if(!Files.exists(marker)) {
+			return -1;
+		}
+		try {
+			List<String> lines = Files.readAllLines(marker, StandardCharsets.UTF_8);
+			if(lines.size() != 2) {
+				throw new IllegalArgumentException("Unable to load file.");
+			}
+			long journalLength = Long.parseLong(lines.get(0));
+			Path temp = target.resolveSibling(lines.get(1));
+			if(journalLength < 0 || !temp.getParent().equals(target.getParent())) {
+				throw new IllegalArgumentException("Unable to load file.");
+			}
+			if(Files.exists(temp)) {
+				AppWriter.replaceFile(temp, target);
+			}
+			return journalLength;
+		} catch(IOException | NumberFormatException | InvalidPathException e) {
+			throw new IllegalArgumentException("Unable to load file.");
+		}
+	}
+
+	/**
+	 * Removes the marker of a snapshot once the journal it refers to has been
+	 * emptied, so that later journal events are all replayed.
+	 *
+	 * @param snapshotFileName the name of the snapshot file.
+	 */
+	public static void clear(String snapshotFileName) {
+		try {
+			clear(markerOf(path(snapshotFileName, "Unable to save file.")));
+		} catch(IOException e) {
+			throw new IllegalArgumentException("Unable to save file.");
+		}
+	}
+
+	/**
+	 * Returns the absolute path of a file.
+	 *
+	 * @param fileName the name of the file.
+	 * @param message the message of the exception thrown if the name is not valid.
+	 * @return the path of the file.
+	 */
+	private static Path path(String fileName, String message) {
+		try {
+			return Paths.get(fileName).toAbsolutePath();
+		} catch(InvalidPathException | NullPointerException e) {
+			throw new IllegalArgumentException(message);
+		}
+	}
+
+	/**
+	 * Returns the path of the marker of a snapshot.
+	 *
+	 * @param target the path of the snapshot.
+	 * @return the path of its marker.
+	 */
+	private static Path markerOf(Path target) {
+		return target.resolveSibling(target.getFileName() + SUFFIX);
+	}
+
+	/**
+	 * Writes a marker to a temporary file, forces it to disk and renames it
+	 * over the marker, so the marker is either absent or complete.
+	 *
+	 * @param marker the path of the marker.
+	 * @param text the text of the marker.
+	 * @throws IOException if the marker cannot be written.
+	 */
+	private static void writeMarker(Path marker, String text) throws IOException {
+		Path temp = Files.createTempFile(marker.getParent(), marker.getFileName().toString() + ".", ".tmp");
+		try {
+			try (FileOutputStream out = new FileOutputStream(temp.toFile())) {
+				out.write(text.getBytes(StandardCharsets.UTF_8));
+				out.getFD().sync();
+			}
+			AppWriter.replaceFile(temp, marker);
+		} catch(IOException e) {
+			Files.deleteIfExists(temp);
+			throw e;
+		}
+	}
+
+	/**
+	 * Removes the files of a checkpoint that failed. The marker goes first:
+	 * while it names a temporary file that exists, recovery would install
+	 * that file, so the temporary file is kept if the marker cannot be
+	 * removed.
+	 *
+	 * @param marker the marker to remove, or null if it was not written.
+	 * @param temp the temporary snapshot file.
+	 */
+	private static void discard(Path marker, Path temp) {
+		try {
+			if(marker != null) {
+				clear(marker);
+			}
+			Files.deleteIfExists(temp);
+		} catch(IOException e) {
+			// The snapshot is untouched, which is the error already reported.
+		}
+	}
+
+	/**
+	 * Deletes a marker and forces its directory to disk.
+	 *
+	 * @param marker the path of the marker.
+	 * @throws IOException if the marker cannot be deleted.
+	 */
+	private static void clear(Path marker) throws IOException {
+		if(Files.deleteIfExists(marker)) {
+			AppWriter.syncDirectory(marker.getParent());
+		}
+	}
+}
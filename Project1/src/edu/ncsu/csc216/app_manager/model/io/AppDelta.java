@@ -0,0 +1,199 @@
+/**
+ *
+ */
+package edu.ncsu.csc216.app_manager.model.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import edu.ncsu.csc216.app_manager.model.application.Application;
+
+/**
+ * The AppDelta class holds the changes made to an application list between
+ * two saves: the ids of the applications that were deleted and the
+ * applications that were added or changed. Deltas are appended to a delta
+ * file by AppWriter and read back in order by AppReader, so that a save
+ * only writes what changed instead of the whole list.
+ *
+ * In the file every delta is framed by a header line "#delta length crc":
+ * the length in bytes of its body and the CRC32 of the body in hex. The
+ * body is one "~id" line for every deleted application followed by the
+ * applications in the format of a full file, in UTF-8. A delta that was
+ * only partly appended when the program stopped is short or fails its
+ * checksum, so readers ignore it and the next append cuts it off.
+ *
+ * @author Priyanshu Dongre
+ */
+public class AppDelta {
+
+	/** The line that starts every delta in a delta file */
+	static final String HEADER = "#delta";
+
+	/** The character that starts the line of a deleted id */
+	static final String TOMBSTONE = "~";
+
+	/** The longest header line, including its line break */
+	private static final int MAX_HEADER = 64;
+
+	/** The ids of the deleted applications */
+	private final int[] deletedIds;
+
+	/** The added and changed applications */
+	private final List<Application> apps;
+
+	/**
+	 * Constructs an AppDelta.
+	 *
+	 * @param deletedIds the ids of the deleted applications.
+	 * @param apps the added and changed applications.
+	 */
+	public AppDelta(int[] deletedIds, List<Application> apps) {
+		if(deletedIds == null || apps == null) {
+			throw new IllegalArgumentException("Invalid delta.");
+		}
+		this.deletedIds = deletedIds.clone();
+		this.apps = Collections.unmodifiableList(apps);
+	}
+
+	/**
+	 * Returns the ids of the deleted applications.
+	 *
+	 * @return the deleted ids.
+	 */
+	public int[] getDeletedIds() {
+		return deletedIds.clone();
+	}
+
+	/**
+	 * Returns the added and changed applications.
+	 *
+	 * @return an unmodifiable list of the applications.
+	 */
+	public List<Application> getApps() {
+		return apps;
+	}
+
+	/**
+	 * Checks whether the delta holds no changes.
+	 *
+	 * @return true if nothing was deleted, added or changed.
+	 */
+	public boolean isEmpty() {
+		return deletedIds.length == 0 && apps.isEmpty();
+	}
+
+	/**
+	 * Returns the header line that frames a delta body.
+	 *
+	 * @param length the length of the body in bytes.
+	 * @param crc the CRC32 of the body.
+	 * @return the header line, including its line break.
+	 */
+	static String header(int length, long crc) {
+		return HEADER + " " + length + " " + Long.toHexString(crc) + "\n";
+	}
+
+	/**
+	 * Parses a header line without its line break.
+	 *
+	 * @param line the header line.
+	 * @return the body length and CRC32 of the delta.
+	 * @throws IOException if the line is not a delta header.
+	 */
+	static long[] parseHeader(String line) throws IOException {
+		String[] fields = line.split(" ");
+		if(fields.length != 3 || !HEADER.equals(fields[0])) {
+			throw new IOException("Invalid delta header.");
+		}
+		try {
+			long length = Long.parseLong(fields[1]);
+			long crc = Long.parseLong(fields[2], 16);
+			if(length < 0 || crc < 0 || crc > 0xFFFFFFFFL) {
+				throw new IOException("Invalid delta header.");
+			}
+			return new long[] {length, crc};
+		} catch(NumberFormatException e) {
+			throw new IOException("Invalid delta header.");
+		}
+	}
+
+	/**
+	 * Finds the end of the last complete delta of a delta file. Only the
+	 * headers are read, and the checksum of the last delta is checked,
+	 * since a crash while appending can only damage the end of the file.
+	 *
+	 * @param channel the delta file.
+	 * @return the length of the file up to the end of the last complete delta.
+	 * @throws IOException if the file cannot be read or holds something other than deltas.
+	 */
+	static long validLength(FileChannel channel) throws IOException {
+		long size = channel.size();
+		long position = 0;
+		long lastStart = -1;
+		long lastBody = 0;
+		long lastCrc = 0;
+		while(position < size) {
+			ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(MAX_HEADER, size - position));
+			while(buffer.hasRemaining() && channel.read(buffer, position + buffer.position()) >= 0) {
+				// Keep reading until the buffer is full.
+			}
+			int newline = -1;
+			for(int i = 0; i < buffer.position() && newline < 0; i++) {
+				if(buffer.get(i) == '\n') {
+					newline = i;
+				}
+			}
+			if(newline < 0) {
+				if(buffer.capacity() == MAX_HEADER) {
+					throw new IOException("Invalid delta header.");
+				}
+				break;
+			}
+			long[] header = parseHeader(new String(buffer.array(), 0, newline, StandardCharsets.US_ASCII));
+			long body = position + newline + 1;
+			if(header[0] > size - body) {
+				break;
+			}
+			lastStart = position;
+			lastBody = body;
+			lastCrc = header[1];
+			position = body + header[0];
+		}
+		if(lastStart >= 0 && checksum(channel, lastBody, position) != lastCrc) {
+			return lastStart;
+		}
+		return position;
+	}
+
+	/**
+	 * Computes the CRC32 of part of a file.
+	 *
+	 * @param channel the file.
+	 * @param start the position of the first byte.
+	 * @param end the position after the last byte.
+	 * @return the CRC32 of the bytes.
+	 * @throws IOException if the file cannot be read.
+	 */
+	private static long checksum(FileChannel channel, long start, long end) throws IOException {
+		CRC32 crc = new CRC32();
+		ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+		long position = start;
+		while(position < end) {
+			buffer.clear();
+			buffer.limit((int) Math.min(buffer.capacity(), end - position));
+			int read = channel.read(buffer, position);
+			if(read < 0) {
+				break;
+			}
+			buffer.flip();
+			crc.update(buffer);
+			position += read;
+		}
+		return crc.getValue();
+	}
+}
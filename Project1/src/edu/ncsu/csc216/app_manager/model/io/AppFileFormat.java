@@ -0,0 +1,167 @@
+/**
+ *
+ */
+package edu.ncsu.csc216.app_manager.model.io;
+
+import java.io.BufferedInputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * The AppFileFormat class opens application files for the readers and
+ * writers of this package and recognizes their format from the first bytes
+ * of the file.
+ *
+ * A file is either text, as written by AppWriter, or binary, starting with
+ * the magic bytes of AppBinaryCodes, and either format may be compressed
+ * with deflate in a zlib stream. Compressed files are recognized by their
+ * two byte zlib header, which a text file starting with '*' or a binary
+ * file starting with "APPB" never has, so every reader loads any of the
+ * four kinds of file. Compression and decompression both stream, so
+ * neither side holds the whole file in memory.
+ *
+ * Text is always encoded as UTF-8, whatever the default charset of the
+ * platform, so a file reads back the same on every machine.
+ *
+ * @author Priyanshu Dongre
+ */
+final class AppFileFormat {
+
+	/** The size of the buffers between the file and the stream */
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	/**
+	 * Prevents instantiation.
+	 */
+	private AppFileFormat() {
+	}
+
+	/**
+	 * Opens a file for reading, decompressing it if it is compressed. The
+	 * stream returned supports mark and reset.
+	 *
+	 * @param fileName the name of the file.
+	 * @return the uncompressed contents of the file.
+	 * @throws IOException if the file cannot be opened.
+	 */
+	static InputStream openInput(String fileName) throws IOException {
+		return openInput(new FileInputStream(fileName));
+	}
+
+	/**
+	 * Wraps a stream over the bytes of a file for reading, decompressing it
+	 * if it is compressed. The stream returned supports mark and reset, and
+	 * closes the given stream when it is closed.
+	 *
+	 * @param file the stream over the file, at its start.
+	 * @return the uncompressed contents of the file.
+	 * @throws IOException if the file cannot be read.
+	 */
+	static InputStream openInput(InputStream file) throws IOException {
+		InputStream in = new BufferedInputStream(file, BUFFER_SIZE);
+		try {
+			if(startsWithZlibHeader(in)) {
+				return new BufferedInputStream(new InflaterInputStream(in), BUFFER_SIZE);
+			}
+			return in;
+		} catch(IOException e) {
+			in.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Opens a file for writing, compressing what is written to it.
+	 *
+	 * @param fileName the name of the file.
+	 * @param level the deflate level, from Deflater.DEFAULT_COMPRESSION (-1) to Deflater.BEST_COMPRESSION (9).
+	 * @return the stream to write the uncompressed contents to.
+	 * @throws IOException if the file cannot be opened.
+	 */
+	static OutputStream openCompressedOutput(String fileName, int level) throws IOException {
+		if(level < Deflater.DEFAULT_COMPRESSION || level > Deflater.BEST_COMPRESSION) {
+			throw new IllegalArgumentException("Invalid compression level.");
+		}
+		Deflater deflater = new Deflater(level);
+		try {
+			return new DeflaterOutputStream(new FileOutputStream(fileName), deflater, BUFFER_SIZE) {
+
+				@Override
+				public void close() throws IOException {
+					try {
+						super.close();
+					} finally {
+						// A Deflater passed in is not released by DeflaterOutputStream.
+						deflater.end();
+					}
+				}
+			};
+		} catch(IOException e) {
+			deflater.end();
+			throw e;
+		}
+	}
+
+	/**
+	 * Checks whether a stream, at its current position, holds a binary
+	 * application file. The position of the stream is not changed.
+	 *
+	 * @param in the stream, which must support mark and reset.
+	 * @return true if the stream starts with the binary magic bytes.
+	 * @throws IOException if the stream cannot be read.
+	 */
+	static boolean isBinary(InputStream in) throws IOException {
+		in.mark(AppBinaryCodes.MAGIC.length);
+		byte[] head = in.readNBytes(AppBinaryCodes.MAGIC.length);
+		in.reset();
+		return Arrays.equals(head, AppBinaryCodes.MAGIC);
+	}
+
+	/**
+	 * Checks whether the first bytes of a file are the start of a text file
+	 * that is not compressed.
+	 *
+	 * @param bytes the bytes of the file.
+	 * @return true if the file is uncompressed text.
+	 */
+	static boolean isPlainText(byte[] bytes) {
+		return !(bytes.length >= 2 && isZlibHeader(bytes[0] & 0xFF, bytes[1] & 0xFF))
+				&& !(bytes.length >= AppBinaryCodes.MAGIC.length
+						&& Arrays.equals(bytes, 0, AppBinaryCodes.MAGIC.length, AppBinaryCodes.MAGIC, 0, AppBinaryCodes.MAGIC.length));
+	}
+
+	/**
+	 * Checks whether a stream, at its current position, starts with a zlib
+	 * header. The position of the stream is not changed.
+	 *
+	 * @param in the stream, which must support mark and reset.
+	 * @return true if the stream is compressed.
+	 * @throws IOException if the stream cannot be read.
+	 */
+	private static boolean startsWithZlibHeader(InputStream in) throws IOException {
+		in.mark(2);
+		int first = in.read();
+		int second = in.read();
+		in.reset();
+		return second >= 0 && isZlibHeader(first, second);
+	}
+
+	/**
+	 * Checks whether two bytes are a zlib header for a deflate stream with
+	 * no preset dictionary.
+	 *
+	 * @param first the first byte.
+	 * @param second the second byte.
+	 * @return true if the bytes are a zlib header.
+	 */
+	private static boolean isZlibHeader(int first, int second) {
+		return (first & 0x0F) == 8 && (first >> 4) <= 7 && (second & 0x20) == 0 && ((first << 8) | second) % 31 == 0;
+	}
+}
@@ -0,0 +1,298 @@
+/**
+ *
+ */
+package edu.ncsu.csc216.app_manager.model.io;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+import edu.ncsu.csc216.app_manager.model.application.Application;
+
+/**
+ * The AppFileIndex class gives random access to the applications of a text
+ * file through the sidecar index AppWriter.writeAppsToFileWithIndex()
+ * writes next to it. The index maps every application id to the byte
+ * offset and length of its record in the file, and holds the state and
+ * type code of each record, so one application, or every application in
+ * a state or of a type, is read by parsing only its own records.
+ *
+ * The index file is the magic bytes "APPI", a version byte, the number of
+ * entries, and the length and CRC-32 of the data file it describes,
+ * followed by one entry per application in order of id: the id (int),
+ * offset (long), length (int), state code and type code (one byte each).
+ * An index whose data length or checksum does not match the data file is
+ * out of date and is rejected. The checksum costs one sequential read of
+ * the data file when it is opened, which is far less than parsing it.
+ *
+ * The index is written to a temporary file and renamed over the old one,
+ * so a crash leaves either the old index, which the checksum rejects, or
+ * the new one, never a partial index.
+ *
+ * @author Priyanshu Dongre
+ */
+public class AppFileIndex implements AutoCloseable {
+
+	/** The magic bytes at the start of an index file */
+	private static final byte[] MAGIC = {'A', 'P', 'P', 'I'};
+
+	/** The version of the format written */
+	private static final int VERSION = 2;
+
+	/** The size of the buffer used to compute the checksum of a data file */
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	/** The suffix added to the name of a data file to name its index */
+	public static final String SUFFIX = ".idx";
+
+	/** The data file, or null once closed */
+	private FileChannel channel;
+
+	/** The ids of the applications, in increasing order */
+	private final int[] ids;
+
+	/** The offset of each record in the data file */
+	private final long[] offsets;
+
+	/** The length in bytes of each record */
+	private final int[] lengths;
+
+	/** The state code of each record */
+	private final byte[] states;
+
+	/** The type code of each record */
+	private final byte[] types;
+
+	/**
+	 * Opens a data file and reads its index.
+	 *
+	 * @param fileName the name of the data file, whose index is fileName + SUFFIX.
+	 */
+	public AppFileIndex(String fileName) {
+		try {
+			channel = FileChannel.open(Paths.get(fileName));
+		} catch(IOException | InvalidPathException e) {
+			throw new IllegalArgumentException("Unable to load file.");
+		}
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(fileName + SUFFIX)))) {
+			byte[] magic = new byte[MAGIC.length];
+			in.readFully(magic);
+			if(!Arrays.equals(magic, MAGIC) || in.readUnsignedByte() != VERSION) {
+				throw new IOException("Invalid index.");
+			}
+			int count = in.readInt();
+			long dataLength = in.readLong();
+			long dataChecksum = in.readInt() & 0xFFFFFFFFL;
+			if(count < 0 || dataLength != channel.size() || dataChecksum != checksum(channel)) {
+				throw new IOException("Out of date index.");
+			}
+			ids = new int[count];
+			offsets = new long[count];
+			lengths = new int[count];
+			states = new byte[count];
+			types = new byte[count];
+			for(int i = 0; i < count; i++) {
+				ids[i] = in.readInt();
+				offsets[i] = in.readLong();
+				lengths[i] = in.readInt();
+				states[i] = in.readByte();
+				types[i] = in.readByte();
+			}
+		} catch(IOException e) {
+			try {
+				channel.close();
+			} catch(IOException closing) {
+				// The index could not be read, which is the error reported.
+			}
+			channel = null;
+			throw new IllegalArgumentException("Unable to load file.");
+		}
+	}
+
+	/**
+	 * Returns the number of applications in the file.
+	 *
+	 * @return the number of applications.
+	 */
+	public int size() {
+		return ids.length;
+	}
+
+	/**
+	 * Reads one application.
+	 *
+	 * @param id the id of the application.
+	 * @return the application, or null if the file has no application with the id.
+	 */
+	public Application getAppById(int id) {
+		int entry = Arrays.binarySearch(ids, id);
+		return entry < 0 ? null : read(entry);
+	}
+
+	/**
+	 * Reads the applications in a state, in order of id.
+	 *
+	 * @param state the name of the state.
+	 * @return the applications in the state.
+	 */
+	public ArrayList<Application> getAppsByState(String state) {
+		if(state == null || !Arrays.asList(AppBinaryCodes.STATES).contains(state)) {
+			throw new IllegalArgumentException("Invalid state.");
+		}
+		return readMatching(states, AppBinaryCodes.code(AppBinaryCodes.STATES, state));
+	}
+
+	/**
+	 * Reads the applications of a type, in order of id.
+	 *
+	 * @param type the name of the type.
+	 * @return the applications of the type.
+	 */
+	public ArrayList<Application> getAppsByType(String type) {
+		if(type == null || !Arrays.asList(AppBinaryCodes.TYPES).contains(type)) {
+			throw new IllegalArgumentException("Invalid type");
+		}
+		return readMatching(types, AppBinaryCodes.code(AppBinaryCodes.TYPES, type));
+	}
+
+	/**
+	 * Closes the data file.
+	 */
+	@Override
+	public void close() {
+		if(channel != null) {
+			try {
+				channel.close();
+			} catch(IOException e) {
+				// Nothing was written, so there is nothing to lose.
+			}
+			channel = null;
+		}
+	}
+
+	/**
+	 * Reads the applications whose code matches.
+	 *
+	 * @param codes the codes of every entry.
+	 * @param code the code to match.
+	 * @return the matching applications, in order of id.
+	 */
+	private ArrayList<Application> readMatching(byte[] codes, int code) {
+		ArrayList<Application> apps = new ArrayList<>();
+		for(int i = 0; i < codes.length; i++) {
+			if(codes[i] == code) {
+				apps.add(read(i));
+			}
+		}
+		return apps;
+	}
+
+	/**
+	 * Reads and parses the record of one entry.
+	 *
+	 * @param entry the position of the entry.
+	 * @return the application.
+	 */
+	private Application read(int entry) {
+		if(channel == null) {
+			throw new IllegalStateException("Index is closed.");
+		}
+		ByteBuffer buffer = ByteBuffer.allocate(lengths[entry]);
+		try {
+			while(buffer.hasRemaining()) {
+				if(channel.read(buffer, offsets[entry] + buffer.position()) < 0) {
+					throw new IOException("Truncated file.");
+				}
+			}
+		} catch(IOException e) {
+			throw new IllegalArgumentException("Unable to load file.");
+		}
+		String record = new String(buffer.array(), StandardCharsets.UTF_8);
+		if(record.isEmpty() || record.charAt(0) != '*') {
+			throw new IllegalArgumentException("Unable to load file.");
+		}
+		return AppReader.processApp(record.substring(1));
+	}
+
+	/**
+	 * Computes the CRC-32 of a data file.
+	 *
+	 * @param channel the data file.
+	 * @return the checksum of its contents.
+	 * @throws IOException if the file cannot be read.
+	 */
+	private static long checksum(FileChannel channel) throws IOException {
+		CRC32 crc = new CRC32();
+		ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+		long position = 0;
+		int read;
+		while((read = channel.read(buffer, position)) > 0) {
+			buffer.flip();
+			crc.update(buffer);
+			buffer.clear();
+			position += read;
+		}
+		return crc.getValue();
+	}
+
+	/**
+	 * Writes the index of a data file.
+	 *
+	 * @param fileName the name of the data file.
+	 * @param ids the ids of the applications, in the order they were written.
+	 * @param offsets the offset of each record.
+	 * @param lengths the length of each record.
+	 * @param stateCodes the state code of each record.
+	 * @param typeCodes the type code of each record.
+	 * @param dataLength the length of the data file.
+	 * @param dataChecksum the CRC-32 of the data file.
+	 * @throws IOException if the index cannot be written.
+	 */
+	static void write(String fileName, int[] ids, long[] offsets, int[] lengths, byte[] stateCodes, byte[] typeCodes,
+			long dataLength, long dataChecksum) throws IOException {
+		Integer[] order = new Integer[ids.length];
+		for(int i = 0; i < order.length; i++) {
+			order[i] = i;
+		}
+		Arrays.sort(order, (a, b) -> Integer.compare(ids[a], ids[b]));
+		Path index = Paths.get(fileName + SUFFIX).toAbsolutePath();
+		Path temp = Files.createTempFile(index.getParent(), index.getFileName().toString() + ".", ".tmp");
+		try {
+			try (FileOutputStream file = new FileOutputStream(temp.toFile());
+					DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file))) {
+				out.write(MAGIC);
+				out.writeByte(VERSION);
+				out.writeInt(ids.length);
+				out.writeLong(dataLength);
+				out.writeInt((int) dataChecksum);
+				for(int i: order) {
+					out.writeInt(ids[i]);
+					out.writeLong(offsets[i]);
+					out.writeInt(lengths[i]);
+					out.writeByte(stateCodes[i]);
+					out.writeByte(typeCodes[i]);
+				}
+				out.flush();
+				file.getFD().sync();
+			}
+			AppWriter.replaceFile(temp, index);
+		} catch(IOException e) {
+			Files.deleteIfExists(temp);
+			throw e;
+		}
+	}
+}
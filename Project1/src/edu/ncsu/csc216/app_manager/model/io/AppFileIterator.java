@@ -0,0 +1,128 @@
+/**
+ *
+ */
+package edu.ncsu.csc216.app_manager.model.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import edu.ncsu.csc216.app_manager.model.application.Application;
+
+/**
+ * The AppFileIterator class reads the applications of a file one at a
+ * time. Only the next application is parsed ahead, so filters, exports and
+ * bulk merges can walk a file of any size in constant memory. Compressed
+ * and binary files are recognized and read one application at a time too.
+ *
+ * The file is closed as soon as the last application has been read, when a
+ * record cannot be read or parsed, or when close() is called, whichever
+ * comes first. Callers that may stop early should use the iterator in a
+ * try-with-resources statement.
+ *
+ * @author Priyanshu Dongre
+ */
+public class AppFileIterator implements Iterator<Application>, AutoCloseable {
+
+	/** The records of a text file, or null once the file is closed or if it is binary */
+	private AppRecordReader records;
+
+	/** The records of a binary file, or null once the file is closed or if it is text */
+	private AppBinaryReader.Records binaryRecords;
+
+	/** The next application, or null if it has not been read */
+	private Application next;
+
+	/**
+	 * Opens a file of applications.
+	 *
+	 * @param fileName the name of the file to read.
+	 */
+	public AppFileIterator(String fileName) {
+		try {
+			InputStream in = AppFileFormat.openInput(fileName);
+			try {
+				if(AppFileFormat.isBinary(in)) {
+					binaryRecords = new AppBinaryReader.Records(in);
+				} else {
+					records = new AppRecordReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+				}
+			} catch(IOException e) {
+				in.close();
+				throw e;
+			}
+		} catch(IOException e) {
+			throw new IllegalArgumentException("Unable to load file.");
+		}
+	}
+
+	/**
+	 * Checks whether the file has another application, reading it if it has
+	 * not been read yet.
+	 *
+	 * @return true if there is another application.
+	 */
+	@Override
+	public boolean hasNext() {
+		if(next == null && (records != null || binaryRecords != null)) {
+			try {
+				if(binaryRecords != null) {
+					next = binaryRecords.next();
+				} else {
+					String record = records.nextRecord();
+					next = record == null ? null : AppReader.processApp(record);
+				}
+				if(next == null) {
+					close();
+				}
+			} catch(IOException e) {
+				close();
+				throw new IllegalArgumentException("Unable to load file.");
+			} catch(RuntimeException e) {
+				close();
+				throw e;
+			}
+		}
+		return next != null;
+	}
+
+	/**
+	 * Returns the next application in the file.
+	 *
+	 * @return the next application.
+	 */
+	@Override
+	public Application next() {
+		if(!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		Application app = next;
+		next = null;
+		return app;
+	}
+
+	/**
+	 * Closes the file. Applications that have not been read are skipped.
+	 */
+	@Override
+	public void close() {
+		if(records != null || binaryRecords != null) {
+			try {
+				if(records != null) {
+					records.close();
+				} else {
+					binaryRecords.close();
+				}
+			} catch(IOException e) {
+				throw new IllegalArgumentException("Unable to load file.");
+			} finally {
+				records = null;
+				binaryRecords = null;
+				next = null;
+			}
+		}
+	}
+}
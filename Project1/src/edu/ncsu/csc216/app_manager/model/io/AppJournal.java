@@ -0,0 +1,389 @@
+/**
+ *
+ */
+package edu.ncsu.csc216.app_manager.model.io;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32;
+
+import edu.ncsu.csc216.app_manager.model.application.Application.AppType;
+import edu.ncsu.csc216.app_manager.model.command.Command;
+import edu.ncsu.csc216.app_manager.model.command.Command.CommandValue;
+import edu.ncsu.csc216.app_manager.model.command.Command.Resolution;
+
+/**
+ * The AppJournal class is an append-only log of the changes made to an
+ * application list since its last saved snapshot. Every added application,
+ * executed command and deleted application is appended as one compact
+ * binary event, so a change costs a few bytes instead of rewriting the
+ * whole file, and nothing is lost between saves.
+ *
+ * Each event is written as its length, its payload and a CRC32 of the
+ * payload. An event that was only partly written when the program stopped
+ * fails its length or checksum, so replay stops at the last complete event,
+ * and opening the journal again cuts the broken tail off before appending.
+ *
+ * Events are handed to a WalWriter, which writes the events of concurrent
+ * callers as one group. The log methods return as soon as the event is
+ * queued, in order, and return a sequence number; awaitCommit() waits
+ * until that event is committed under the journal's SyncMode. Callers can
+ * therefore record an event while holding their own lock and wait for it
+ * after releasing the lock.
+ *
+ * @author Priyanshu Dongre
+ */
+public class AppJournal {
+
+	/** Tag of an event that adds an application */
+	private static final byte ADD = 1;
+
+	/** Tag of an event that executes a command */
+	private static final byte EXECUTE = 2;
+
+	/** Tag of an event that deletes an application */
+	private static final byte DELETE = 3;
+
+	/** The largest payload an event can have */
+	private static final int MAX_EVENT = 1 << 20;
+
+	/** The writer events are appended through */
+	private final WalWriter writer;
+
+	/**
+	 * Opens a journal for appending, creating the file if it does not exist,
+	 * and leaves syncing to the operating system.
+	 *
+	 * @param fileName the name of the journal file.
+	 */
+	public AppJournal(String fileName) {
+		this(fileName, WalWriter.SyncMode.OS, 0);
+	}
+
+	/**
+	 * Opens a journal for appending, creating the file if it does not exist.
+	 * A partly written event at the end of the file is removed first.
+	 *
+	 * @param fileName the name of the journal file.
+	 * @param mode when the journal is forced to disk.
+	 * @param intervalMillis the time between syncs in INTERVAL mode, in milliseconds.
+	 */
+	public AppJournal(String fileName, WalWriter.SyncMode mode, long intervalMillis) {
+		if(fileName == null || "".equals(fileName)) {
+			throw new IllegalArgumentException("Invalid file name.");
+		}
+		try {
+			long valid = scan(fileName, 0, null);
+			File file = new File(fileName);
+			if(file.exists() && file.length() > valid) {
+				try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+					raf.setLength(valid);
+				}
+			}
+		} catch(IOException e) {
+			throw new IllegalArgumentException("Unable to open journal.");
+		}
+		this.writer = new WalWriter(fileName, mode, intervalMillis);
+	}
+
+	/**
+	 * Records that an application was added.
+	 *
+	 * @param id the id the application was given.
+	 * @param appType the type of the application.
+	 * @param summary the summary of the application.
+	 * @param note the first note of the application.
+	 * @return the sequence number of the event.
+	 */
+	public long logAdd(int id, AppType appType, String summary, String note) {
+		ByteArrayOutputStream event = new ByteArrayOutputStream();
+		DataOutputStream eventOut = new DataOutputStream(event);
+		try {
+			eventOut.writeByte(ADD);
+			eventOut.writeInt(id);
+			eventOut.writeByte(appType.ordinal());
+			eventOut.writeUTF(summary);
+			eventOut.writeUTF(note);
+		} catch(IOException e) {
+			throw new IllegalArgumentException("Unable to write journal.");
+		}
+		return writer.enqueue(frame(event.toByteArray()));
+	}
+
+	/**
+	 * Records that a command was executed on an application.
+	 *
+	 * @param id the id of the application.
+	 * @param command the command that was executed.
+	 * @return the sequence number of the event.
+	 */
+	public long logCommand(int id, Command command) {
+		ByteArrayOutputStream event = new ByteArrayOutputStream();
+		DataOutputStream eventOut = new DataOutputStream(event);
+		try {
+			eventOut.writeByte(EXECUTE);
+			eventOut.writeInt(id);
+			eventOut.writeByte(command.getCommand().ordinal());
+			eventOut.writeByte(command.getResolution() == null ? -1 : command.getResolution().ordinal());
+			eventOut.writeBoolean(command.getReviewerId() != null);
+			if(command.getReviewerId() != null) {
+				eventOut.writeUTF(command.getReviewerId());
+			}
+			eventOut.writeUTF(command.getNote());
+		} catch(IOException e) {
+			throw new IllegalArgumentException("Unable to write journal.");
+		}
+		return writer.enqueue(frame(event.toByteArray()));
+	}
+
+	/**
+	 * Records that an application was deleted.
+	 *
+	 * @param id the id of the application.
+	 * @return the sequence number of the event.
+	 */
+	public long logDelete(int id) {
+		ByteArrayOutputStream event = new ByteArrayOutputStream();
+		DataOutputStream eventOut = new DataOutputStream(event);
+		try {
+			eventOut.writeByte(DELETE);
+			eventOut.writeInt(id);
+		} catch(IOException e) {
+			throw new IllegalArgumentException("Unable to write journal.");
+		}
+		return writer.enqueue(frame(event.toByteArray()));
+	}
+
+	/**
+	 * Waits until an event and every event logged before it are committed.
+	 *
+	 * @param sequence the sequence number returned when the event was logged.
+	 */
+	public void awaitCommit(long sequence) {
+		writer.awaitCommit(sequence);
+	}
+
+	/**
+	 * Returns the commit latency and group size statistics of the journal.
+	 *
+	 * @return the statistics of the journal's writer.
+	 */
+	public WalWriter.Stats getStats() {
+		return writer.getStats();
+	}
+
+	/**
+	 * Returns the length of the journal once every event logged so far is
+	 * committed. A checkpoint records it as the part of the journal that its
+	 * snapshot already holds.
+	 *
+	 * @return the length of the journal in bytes.
+	 */
+	public long size() {
+		return writer.size();
+	}
+
+	/**
+	 * Empties the journal, once the changes it holds have been saved in a
+	 * snapshot.
+	 */
+	public void truncate() {
+		writer.truncate();
+	}
+
+	/**
+	 * Commits every logged event and closes the journal.
+	 */
+	public void close() {
+		writer.close();
+	}
+
+	/**
+	 * Frames an encoded event with its length and checksum.
+	 *
+	 * @param payload the encoded event.
+	 * @return the framed event.
+	 */
+	private static byte[] frame(byte[] payload) {
+		CRC32 crc = new CRC32();
+		crc.update(payload);
+		byte[] framed = new byte[payload.length + 8];
+		ByteBuffer buffer = ByteBuffer.wrap(framed);
+		buffer.putInt(payload.length);
+		buffer.put(payload);
+		buffer.putInt((int) crc.getValue());
+		return framed;
+	}
+
+	/**
+	 * Replays the complete events of a journal in the order they were
+	 * written. A missing file holds no events.
+	 *
+	 * @param fileName the name of the journal file.
+	 * @param handler the handler each event is passed to.
+	 * @return the number of events replayed.
+	 */
+	public static int replay(String fileName, Handler handler) {
+		return replay(fileName, 0, handler);
+	}
+
+	/**
+	 * Replays the complete events of a journal that start at or after a
+	 * position, in the order they were written. Events before the position
+	 * are read but not passed to the handler, since a snapshot already holds
+	 * them.
+	 *
+	 * @param fileName the name of the journal file.
+	 * @param offset the position of the first event to replay.
+	 * @param handler the handler each event is passed to.
+	 * @return the number of events replayed.
+	 */
+	public static int replay(String fileName, long offset, Handler handler) {
+		if(handler == null) {
+			throw new IllegalArgumentException("Invalid handler.");
+		}
+		int[] count = new int[1];
+		try {
+			scan(fileName, offset, new Handler() {
+
+				@Override
+				public void added(int id, AppType appType, String summary, String note) {
+					handler.added(id, appType, summary, note);
+					count[0]++;
+				}
+
+				@Override
+				public void executed(int id, Command command) {
+					handler.executed(id, command);
+					count[0]++;
+				}
+
+				@Override
+				public void deleted(int id) {
+					handler.deleted(id);
+					count[0]++;
+				}
+			});
+		} catch(IOException e) {
+			throw new IllegalArgumentException("Unable to read journal.");
+		}
+		return count[0];
+	}
+
+	/**
+	 * Reads the complete events of a journal, stopping at the first event
+	 * that is partly written or fails its checksum.
+	 *
+	 * @param fileName the name of the journal file.
+	 * @param offset the position of the first event passed to the handler.
+	 * @param handler the handler each event is passed to, or null to only scan.
+	 * @return the length of the file up to the end of the last complete event.
+	 * @throws IOException if the file cannot be read.
+	 */
+	private static long scan(String fileName, long offset, Handler handler) throws IOException {
+		DataInputStream in;
+		try {
+			in = new DataInputStream(new BufferedInputStream(new FileInputStream(fileName)));
+		} catch(FileNotFoundException e) {
+			return 0;
+		}
+		long valid = 0;
+		CRC32 check = new CRC32();
+		try (DataInputStream input = in) {
+			while(true) {
+				int length = input.readInt();
+				if(length < 1 || length > MAX_EVENT) {
+					break;
+				}
+				byte[] payload = new byte[length];
+				input.readFully(payload);
+				int sum = input.readInt();
+				check.reset();
+				check.update(payload);
+				if((int) check.getValue() != sum) {
+					break;
+				}
+				if(handler != null && valid >= offset) {
+					dispatch(payload, handler);
+				}
+				valid += 8 + length;
+			}
+		} catch(EOFException e) {
+			// The last event was only partly written.
+		}
+		return valid;
+	}
+
+	/**
+	 * Decodes one event and passes it to a handler.
+	 *
+	 * @param payload the encoded event.
+	 * @param handler the handler to pass the event to.
+	 * @throws IOException if the event cannot be decoded.
+	 */
+	private static void dispatch(byte[] payload, Handler handler) throws IOException {
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+		byte tag = in.readByte();
+		int id = in.readInt();
+		switch(tag) {
+		case ADD:
+			AppType appType = AppType.values()[in.readByte()];
+			String summary = in.readUTF();
+			handler.added(id, appType, summary, in.readUTF());
+			break;
+		case EXECUTE:
+			CommandValue value = CommandValue.values()[in.readByte()];
+			byte resolution = in.readByte();
+			String reviewer = in.readBoolean() ? in.readUTF() : null;
+			String note = in.readUTF();
+			handler.executed(id, new Command(value, reviewer, resolution < 0 ? null : Resolution.values()[resolution], note));
+			break;
+		case DELETE:
+			handler.deleted(id);
+			break;
+		default:
+			throw new IOException("Invalid event.");
+		}
+	}
+
+	/**
+	 * Interface for objects that apply the events of a journal, for example
+	 * to rebuild an application list on startup.
+	 *
+	 * @author Priyanshu Dongre
+	 */
+	public interface Handler {
+
+		/**
+		 * Called for an event that added an application.
+		 * @param id the id the application was given.
+		 * @param appType the type of the application.
+		 * @param summary the summary of the application.
+		 * @param note the first note of the application.
+		 */
+		void added(int id, AppType appType, String summary, String note);
+
+		/**
+		 * Called for an event that executed a command.
+		 * @param id the id of the application.
+		 * @param command the command that was executed.
+		 */
+		void executed(int id, Command command);
+
+		/**
+		 * Called for an event that deleted an application.
+		 * @param id the id of the application.
+		 */
+		void deleted(int id);
+	}
+}
@@ -4,14 +4,29 @@
 package edu.ncsu.csc216.app_manager.model.io;
 
 
-import java.io.FileReader;
-import java.io.BufferedReader;
+import java.io.File;
 
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Paths;
 
 import java.util.ArrayList;
-import java.util.Scanner;
+import java.util.Comparator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import java.util.zip.CRC32;
 
 import edu.ncsu.csc216.app_manager.model.application.Application;
 
@@ -21,15 +36,22 @@ import edu.ncsu.csc216.app_manager.model.application.Application;
  * methods to read the file and convert the data into usable application instances.
  * 
  * It supports file reading and parsing individual lines into applications, 
- * returning them as a list of Application objects.
+ * returning them as a list of Application objects, or one at a time through
+ * an iterator or a stream for files that should not be held in memory.
  * @author Priyanshu Dongre
  */ 
 public class AppReader {
 
+	/** The number of comma separated fields before the notes of a record */
+	private static final int FIELDS = 7;
+
 	/**
 	 * Reads applications from a specified file and returns them as an ArrayList.
-	 * Each line in the file represents an application, which is processed and added
-	 * to the list.
+	 * The file is streamed record by record, splitting on the '*' that starts
+	 * each application, so reading takes time linear in the size of the file
+	 * and only one record is held as text at a time. Files compressed by
+	 * AppWriter and binary files written by AppBinaryWriter are recognized
+	 * from their first bytes and read as well.
 	 * 
 	 * @param fileName the name of the file to read applications from.
 	 * @return an ArrayList of Application objects.
@@ -38,35 +60,8 @@ public class AppReader {
 		
 		ArrayList<Application> applications = new ArrayList<>();
 		
-		String strFromFile = "";
-		try {
-			BufferedReader bufferedReader = new BufferedReader(new FileReader(fileName));
-			
-			
-			
-			String line = bufferedReader.readLine();
-			while(line != null) {
-				strFromFile += line + "\n";
-				line = bufferedReader.readLine();
-				//System.out.print("The Readed Line: " + line);
-			}
-			strFromFile = strFromFile.substring(0, strFromFile.length());
-			//System.out.println("All Lines from the file: " + strFromFile);
-			
-			Scanner lineProcessor = new Scanner(strFromFile);
-			lineProcessor = lineProcessor.useDelimiter("[*]");
-			
-			while(lineProcessor.hasNext()) {
-				String application = lineProcessor.next();
-//				System.out.println("Application String: " + application);
-				Application app = processApp(application);
-				applications.add(app);
-				//System.out.println("Application.toString(): " + app.toString());
-			}
-			lineProcessor.close();
-			bufferedReader.close();
-			return applications;
-			
+		try (InputStream in = AppFileFormat.openInput(fileName)) {
+			return readApps(in);
 		} catch (IOException io) {
 			throw new IllegalArgumentException("Unable to load file.");
 		}
@@ -74,65 +69,397 @@ public class AppReader {
 		
 	}
 	
+	/**
+	 * Reads every application from an uncompressed stream of text or binary
+	 * records.
+	 * 
+	 * @param in the stream, which must support mark and reset.
+	 * @return an ArrayList of Application objects.
+	 * @throws IOException if the stream cannot be read.
+	 */
+	private static ArrayList<Application> readApps(InputStream in) throws IOException {
+		if(AppFileFormat.isBinary(in)) {
+			return AppBinaryReader.readApps(in);
+		}
+		ArrayList<Application> applications = new ArrayList<>();
+		AppRecordReader records = new AppRecordReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+		String application = records.nextRecord();
+		while(application != null) {
+			applications.add(processApp(application));
+			application = records.nextRecord();
+		}
+		return applications;
+	}
+	
 	
 	/**
-	 * Processes a single line of text and converts it into an Application object.
-	 * The line should contain data fields that map to the attributes of the Application.
+	 * Reads applications from a specified file on the common ForkJoinPool.
 	 * 
-	 * @param line the line of text to process.
-	 * @return an Application object created from the line data.
+	 * @param fileName the name of the file to read applications from.
+	 * @return an ArrayList of Application objects, in order of id.
 	 */
+	public static ArrayList<Application> readAppsFromFileParallel(String fileName) {
+		return readAppsFromFileParallel(fileName, ForkJoinPool.commonPool());
+	}
 	
-	private static Application processApp(String line) {
-		Scanner lineProcessor = new Scanner(line).useDelimiter(",");
-		
-		int id = Integer.parseInt(lineProcessor.next());
-		//System.out.println(id);
-		String state = lineProcessor.next();
-		//System.out.println(state);
-		String type = lineProcessor.next();
-		//System.out.println(type);
-		String summary = lineProcessor.next();
-		//System.out.println(summary);
-		String reviewer = lineProcessor.next();
-		//System.out.println(reviewer);
-		boolean processPaperwork = Boolean.parseBoolean(lineProcessor.next());
-		//System.out.println(processPaperwork);
-		String resolution = lineProcessor.next();
-		
-		if(Character.isLetter(resolution.charAt(0))) {
-			resolution = resolution.substring(0, resolution.indexOf('\n'));
+	/**
+	 * Reads applications from a specified file, parsing parts of the file
+	 * in parallel. Every application starts with a '*' at the beginning of
+	 * a line, so the text is split in halves at record starts until each
+	 * part is small enough to parse on its own, and the parts are parsed as
+	 * tasks on the given pool. The applications are returned in order of id.
+	 * 
+	 * @param fileName the name of the file to read applications from.
+	 * @param pool the pool to parse the parts of the file on.
+	 * @return an ArrayList of Application objects, in order of id.
+	 */
+	public static ArrayList<Application> readAppsFromFileParallel(String fileName, ForkJoinPool pool) {
+		byte[] bytes;
+		try {
+			bytes = Files.readAllBytes(Paths.get(fileName));
+		} catch (IOException | InvalidPathException e) {
+			throw new IllegalArgumentException("Unable to load file.");
+		}
+		ArrayList<Application> applications;
+		if(AppFileFormat.isPlainText(bytes)) {
+			String text = new String(bytes, StandardCharsets.UTF_8);
+			applications = pool.invoke(new ParseTask(text, 0, text.length()));
 		} else {
-			resolution = "";
+			// A compressed or binary file is not split, since its records cannot be found without reading it.
+			applications = readAppsFromFile(fileName);
 		}
-		
-		if(lineProcessor.hasNext()) {
+		for(int i = 1; i < applications.size(); i++) {
+			if(applications.get(i - 1).getAppId() > applications.get(i).getAppId()) {
+				applications.sort(Comparator.comparingInt(Application::getAppId));
+				break;
+			}
+		}
+		return applications;
+	}
+	
+	
+	/**
+	 * Reads applications from a specified file by mapping it into memory
+	 * instead of reading it through a Reader. Records are split directly
+	 * from the mapped bytes, and only records that are not all ASCII are
+	 * decoded as UTF-8, so very large files load with little heap beyond
+	 * the applications themselves. Compressed and binary files cannot be
+	 * split this way; they are recognized from the mapped bytes and read
+	 * from the same open file as readAppsFromFile() reads them.
+	 * 
+	 * @param fileName the name of the file to read applications from.
+	 * @return an ArrayList of Application objects.
+	 */
+	public static ArrayList<Application> readAppsFromFileMapped(String fileName) {
+		return readAppsFromFileMapped(fileName, Integer.MAX_VALUE);
+	}
+	
+	/**
+	 * Reads applications from a specified file by mapping it into memory
+	 * one window at a time.
+	 * 
+	 * @param fileName the name of the file to read applications from.
+	 * @param windowSize the largest number of bytes to map at a time.
+	 * @return an ArrayList of Application objects.
+	 */
+	static ArrayList<Application> readAppsFromFileMapped(String fileName, int windowSize) {
+		ArrayList<Application> applications = new ArrayList<>();
+		try (FileChannel channel = FileChannel.open(Paths.get(fileName));
+				MappedRecordReader records = new MappedRecordReader(channel, windowSize)) {
+			if(!records.isPlainText()) {
+				// The format is known from the mapping, so the open file is read as a stream from its start.
+				return readApps(AppFileFormat.openInput(Channels.newInputStream(channel.position(0))));
+			}
+			String application = records.nextRecord();
+			while(application != null) {
+				applications.add(processApp(application));
+				application = records.nextRecord();
+			}
+			return applications;
+		} catch (IOException | InvalidPathException e) {
 			throw new IllegalArgumentException("Unable to load file.");
 		}
+	}
+	
+	
+	/**
+	 * Opens a file of applications for reading one application at a time.
+	 * The iterator closes the file when it is exhausted or closed.
+	 * 
+	 * @param fileName the name of the file to read applications from.
+	 * @return an iterator over the applications in the file.
+	 */
+	public static AppFileIterator iterateAppsFromFile(String fileName) {
+		return new AppFileIterator(fileName);
+	}
+	
+	/**
+	 * Returns a lazy, sequential stream of the applications in a file. The
+	 * file is read as the stream is consumed and is closed when the stream
+	 * is closed or has been read to the end, so the stream should be used in
+	 * a try-with-resources statement.
+	 * 
+	 * @param fileName the name of the file to read applications from.
+	 * @return a stream of the applications in the file.
+	 */
+	public static Stream<Application> streamAppsFromFile(String fileName) {
+		AppFileIterator iterator = new AppFileIterator(fileName);
+		Spliterator<Application> spliterator = Spliterators.spliteratorUnknownSize(iterator,
+				Spliterator.ORDERED | Spliterator.NONNULL);
+		return StreamSupport.stream(spliterator, false).onClose(iterator::close);
+	}
+	
+	
+	/**
+	 * Reads the deltas appended to a delta file by AppWriter, in the order
+	 * they were written. Each delta starts with a "#delta" header holding
+	 * the length and CRC32 of its body, which is one "~id" line for every
+	 * deleted application and then the changed and added applications in
+	 * the same format as a full file. A missing file holds no deltas, and a
+	 * last delta that was only partly written is ignored.
+	 * 
+	 * @param fileName the name of the delta file.
+	 * @return the deltas in the order they were written.
+	 */
+	public static ArrayList<AppDelta> readDeltasFromFile(String fileName) {
+		ArrayList<AppDelta> deltas = new ArrayList<>();
+		if(!new File(fileName).exists()) {
+			return deltas;
+		}
+		try {
+			byte[] data = Files.readAllBytes(Paths.get(fileName));
+			CRC32 crc = new CRC32();
+			int position = 0;
+			while(position < data.length) {
+				int newline = position;
+				while(newline < data.length && data[newline] != '\n') {
+					newline++;
+				}
+				if(newline == data.length) {
+					break;
+				}
+				long[] header = AppDelta.parseHeader(new String(data, position, newline - position, StandardCharsets.US_ASCII));
+				int body = newline + 1;
+				if(header[0] > data.length - body) {
+					break;
+				}
+				int length = (int) header[0];
+				crc.reset();
+				crc.update(data, body, length);
+				if(crc.getValue() != header[1]) {
+					if(body + length == data.length) {
+						break;
+					}
+					throw new IllegalArgumentException("Unable to load file.");
+				}
+				deltas.add(processDelta(new String(data, body, length, StandardCharsets.UTF_8)));
+				position = body + length;
+			}
+			return deltas;
+		} catch (IOException | InvalidPathException | NumberFormatException e) {
+			throw new IllegalArgumentException("Unable to load file.");
+		}
+	}
+	
+	/**
+	 * Processes the body of a delta: the "~id" lines of the deleted
+	 * applications followed by the changed and added applications.
+	 * 
+	 * @param body the text of the body.
+	 * @return the delta.
+	 * @throws IOException if the text cannot be read.
+	 */
+	private static AppDelta processDelta(String body) throws IOException {
+		ArrayList<Integer> deleted = new ArrayList<>();
+		int position = 0;
+		while(body.startsWith(AppDelta.TOMBSTONE, position)) {
+			int newline = body.indexOf('\n', position);
+			if(newline < 0) {
+				newline = body.length();
+			}
+			deleted.add(Integer.parseInt(body.substring(position + 1, newline)));
+			position = Math.min(newline + 1, body.length());
+		}
+		int[] ids = new int[deleted.size()];
+		for(int i = 0; i < ids.length; i++) {
+			ids[i] = deleted.get(i);
+		}
+		ArrayList<Application> apps = new ArrayList<>();
+		processApps(body.substring(position), apps);
+		return new AppDelta(ids, apps);
+	}
+	
+	/**
+	 * Processes text holding any number of applications, each starting with
+	 * a '*', and adds the applications to a list.
+	 * 
+	 * @param text the text to process.
+	 * @param applications the list to add the applications to.
+	 * @throws IOException if the text cannot be read.
+	 */
+	private static void processApps(String text, ArrayList<Application> applications) throws IOException {
+		try (AppRecordReader records = new AppRecordReader(new StringReader(text))) {
+			String application = records.nextRecord();
+			while(application != null) {
+				applications.add(processApp(application));
+				application = records.nextRecord();
+			}
+		}
+	}
+	
+	/**
+	 * A task that parses the applications in part of the text of a file,
+	 * splitting the part in two at a record start while it is large.
+	 */
+	private static class ParseTask extends RecursiveTask<ArrayList<Application>> {
+
+		/** ID used for serialization */
+		private static final long serialVersionUID = 1L;
+
+		/** The number of characters below which a part is parsed without splitting */
+		private static final int CHUNK_SIZE = 1 << 16;
+
+		/** The text of the file */
+		private final String text;
+
+		/** The start of the part */
+		private final int start;
+
+		/** The end of the part */
+		private final int end;
+
+		/**
+		 * Constructs a ParseTask.
+		 * @param text the text of the file.
+		 * @param start the start of the part, at a record start or the start of the text.
+		 * @param end the end of the part, at a record start or the end of the text.
+		 */
+		ParseTask(String text, int start, int end) {
+			this.text = text;
+			this.start = start;
+			this.end = end;
+		}
+
+		/**
+		 * Parses the part, or splits it and parses both halves.
+		 * @return the applications in the part, in the order of the text.
+		 */
+		@Override
+		protected ArrayList<Application> compute() {
+			if(end - start > CHUNK_SIZE) {
+				int middle = recordStart(start + (end - start) / 2);
+				if(middle < end) {
+					ParseTask second = new ParseTask(text, middle, end);
+					second.fork();
+					ArrayList<Application> applications = new ParseTask(text, start, middle).compute();
+					applications.addAll(second.join());
+					return applications;
+				}
+			}
+			ArrayList<Application> applications = new ArrayList<>();
+			try (AppRecordReader records = new AppRecordReader(new StringReader(text.substring(start, end)))) {
+				String application = records.nextRecord();
+				while(application != null) {
+					applications.add(processApp(application));
+					application = records.nextRecord();
+				}
+			} catch (IOException e) {
+				throw new IllegalArgumentException("Unable to load file.");
+			}
+			return applications;
+		}
+
+		/**
+		 * Finds the first '*' at the beginning of a line at or after a position.
+		 * @param from the position to search from.
+		 * @return the position of the '*', or the end of the part if there is none.
+		 */
+		private int recordStart(int from) {
+			for(int i = Math.max(from, start + 1); i < end; i++) {
+				char previous = text.charAt(i - 1);
+				if(text.charAt(i) == '*' && (previous == '\n' || previous == '\r')) {
+					return i;
+				}
+			}
+			return end;
+		}
+	}
+	
+	/**
+	 * Processes a single record of text and converts it into an Application
+	 * object. The record holds the id, state, type, summary, reviewer,
+	 * processPaperwork and resolution separated by commas, followed by the
+	 * notes, each starting with a '-'.
+	 * 
+	 * The record is tokenized in one pass over its characters, finding the
+	 * commas and the '-' characters together, and only the fields and notes
+	 * themselves are copied out. Fields are split exactly as the Scanner
+	 * this replaces split them: a comma at the very start and an empty
+	 * field at the very end are ignored, the notes start at the first '-'
+	 * in the record, and empty notes between two '-' characters are kept.
+	 * 
+	 * @param line the record of text to process.
+	 * @return an Application object created from the record.
+	 */
+	static Application processApp(String line) {
+		int length = line.length();
+		int start = length > 0 && line.charAt(0) == ',' ? 1 : 0;
 		
-		//System.out.println("Index of first `-`: " + line.indexOf("-"));
-		
-		String notesStr = line.substring(line.indexOf("-"));
-		lineProcessor = new Scanner(notesStr).useDelimiter("[-]");
-		
+		// fieldStarts[i] is where field i starts; the fields end at the next comma.
+		int[] fieldStarts = new int[FIELDS + 1];
+		fieldStarts[0] = start;
+		int fields = 1;
+		int firstDash = -1;
+		int noteStart = -1;
 		ArrayList<String> notes = new ArrayList<>();
-		//System.out.println("LineProcesor with Delimiter`-`: " + lineProcessor.next());
 		
-		while(lineProcessor.hasNext()) {
-			String note = lineProcessor.next();
-			notes.add(note);
-			//System.out.println("Note:" + note);
+		for(int i = start; i < length; i++) {
+			char c = line.charAt(i);
+			if(c == ',') {
+				if(fields > FIELDS) {
+					throw new IllegalArgumentException("Unable to load file.");
+				}
+				fieldStarts[fields++] = i + 1;
+			} else if(c == '-') {
+				if(firstDash >= 0) {
+					notes.add(line.substring(noteStart, i));
+				} else {
+					firstDash = i;
+				}
+				noteStart = i + 1;
+			}
+		}
+		int lastEnd = length;
+		if(fieldStarts[fields - 1] == length) {
+			fields--;
+			lastEnd = fieldStarts[fields] - 1;
+		}
+		if(fields != FIELDS || lastEnd == fieldStarts[FIELDS - 1] || firstDash < 0) {
+			throw new IllegalArgumentException("Unable to load file.");
+		}
+		if(noteStart < length) {
+			notes.add(line.substring(noteStart));
 		}
 		
-//		System.out.println("Resolution (0): " + resolution);
-		Application app = new Application(id, state, type, summary, reviewer, processPaperwork, resolution, notes);
-//		System.out.println("Resolution (1): " + resolution);
-//		System.out.println("Application " + app.getAppId() + ": " + app.toString());
-//		System.out.println("Resolution (2): " + app.getResolution());
-//		System.out.println("Last Time: "+ resolution + ":" + app.getResolution());
-//		System.out.println(app.getNotesString() + " -> Last Line");
-		lineProcessor.close();
-		return app;
+		int id = Integer.parseInt(line, fieldStarts[0], fieldStarts[1] - 1, 10);
+		String state = line.substring(fieldStarts[1], fieldStarts[2] - 1);
+		String type = line.substring(fieldStarts[2], fieldStarts[3] - 1);
+		String summary = line.substring(fieldStarts[3], fieldStarts[4] - 1);
+		String reviewer = line.substring(fieldStarts[4], fieldStarts[5] - 1);
+		int paperworkEnd = fieldStarts[6] - 1;
+		boolean processPaperwork = paperworkEnd - fieldStarts[5] == 4 && line.regionMatches(true, fieldStarts[5], "true", 0, 4);
+		
+		// The resolution field runs into the notes, so it ends at its line break.
+		String resolution = "";
+		int resolutionStart = fieldStarts[6];
+		if(Character.isLetter(line.charAt(resolutionStart))) {
+			int resolutionEnd = line.indexOf('\n', resolutionStart);
+			if(resolutionEnd < 0 || resolutionEnd > lastEnd) {
+				throw new IllegalArgumentException("Unable to load file.");
+			}
+			resolution = line.substring(resolutionStart, resolutionEnd);
+		}
 		
+		return new Application(id, state, type, summary, reviewer, processPaperwork, resolution, notes);
 	}
 }
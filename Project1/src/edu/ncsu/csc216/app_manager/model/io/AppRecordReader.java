@@ -0,0 +1,134 @@
+/**
+ *
+ */
+package edu.ncsu.csc216.app_manager.model.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * The AppRecordReader class splits the text of an application file into
+ * records as it streams through it. Characters are read into one reusable
+ * buffer and copied into the record being built until the next '*', so the
+ * memory used is proportional to the longest record rather than to the
+ * file.
+ *
+ * Records are split exactly as AppReader has always split them: line
+ * endings are normalized to '\n', every line including the last ends with
+ * '\n', every '*' ends a record, and empty text before the first '*' or
+ * after the last one is not a record.
+ *
+ * @author Priyanshu Dongre
+ */
+class AppRecordReader implements Closeable {
+
+	/** The size of the read buffer */
+	private static final int BUFFER_SIZE = 8192;
+
+	/** The text being split */
+	private final Reader reader;
+
+	/** The buffer characters are read into */
+	private final char[] buffer;
+
+	/** The position of the next character in the buffer */
+	private int position;
+
+	/** The number of characters in the buffer */
+	private int limit;
+
+	/** The record being built */
+	private final StringBuilder record;
+
+	/** Whether the first record has not been returned or skipped yet */
+	private boolean first;
+
+	/** Whether the last character read was a '\r', so a following '\n' is skipped */
+	private boolean afterCarriageReturn;
+
+	/** Whether the last character added was a '\n', or nothing has been read */
+	private boolean atLineStart;
+
+	/** Whether the end of the text has been reached */
+	private boolean done;
+
+	/**
+	 * Constructs an AppRecordReader over a reader.
+	 *
+	 * @param reader the text to split, closed when this reader is closed.
+	 */
+	AppRecordReader(Reader reader) {
+		this.reader = reader;
+		this.buffer = new char[BUFFER_SIZE];
+		this.record = new StringBuilder();
+		this.first = true;
+		this.atLineStart = true;
+	}
+
+	/**
+	 * Reads the next record.
+	 *
+	 * @return the text of the record without its '*', or null at the end of the text.
+	 * @throws IOException if the text cannot be read.
+	 */
+	String nextRecord() throws IOException {
+		while(!done) {
+			if(position == limit) {
+				limit = reader.read(buffer, 0, buffer.length);
+				position = 0;
+				if(limit < 0) {
+					limit = 0;
+					done = true;
+					if(!atLineStart) {
+						record.append('\n');
+					}
+					return take(true);
+				}
+			}
+			char c = buffer[position++];
+			if(c == '\n' && afterCarriageReturn) {
+				afterCarriageReturn = false;
+				continue;
+			}
+			afterCarriageReturn = c == '\r';
+			if(c == '\r') {
+				c = '\n';
+			}
+			atLineStart = c == '\n';
+			if(c == '*') {
+				String text = take(false);
+				if(text != null) {
+					return text;
+				}
+			} else {
+				record.append(c);
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Takes the record that has been built.
+	 *
+	 * @param last whether the record ends at the end of the text.
+	 * @return the record, or null if it is empty text before the first '*' or after the last one.
+	 */
+	private String take(boolean last) {
+		boolean skip = record.length() == 0 && (first || last);
+		first = false;
+		String text = skip ? null : record.toString();
+		record.setLength(0);
+		return text;
+	}
+
+	/**
+	 * Closes the text being split.
+	 *
+	 * @throws IOException if the text cannot be closed.
+	 */
+	@Override
+	public void close() throws IOException {
+		reader.close();
+	}
+}
@@ -0,0 +1,98 @@
+/**
+ *
+ */
+package edu.ncsu.csc216.app_manager.model.io;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+import edu.ncsu.csc216.app_manager.model.application.Application;
+
+/**
+ * The AppTextSerializer class writes applications in the text format of
+ * Application.toString() straight into a Writer. Each field is written as
+ * it is read from the Application, and the id is written from a reusable
+ * digit buffer, so no String is built for a record. The output is
+ * character for character the same as writing toString() followed by a
+ * line break.
+ *
+ * @author Priyanshu Dongre
+ */
+final class AppTextSerializer {
+
+	/** The writer records are written to */
+	private final Writer out;
+
+	/** The buffer the digits of an id are written into */
+	private final char[] digits;
+
+	/**
+	 * Constructs an AppTextSerializer.
+	 *
+	 * @param out the writer to write records to, which should be buffered.
+	 */
+	AppTextSerializer(Writer out) {
+		this.out = out;
+		this.digits = new char[11];
+	}
+
+	/**
+	 * Writes one application, followed by a line break.
+	 *
+	 * @param app the application to write.
+	 * @throws IOException if the application cannot be written.
+	 */
+	void write(Application app) throws IOException {
+		out.write('*');
+		writeInt(app.getAppId());
+		out.write(',');
+		out.write(app.getStateName());
+		out.write(',');
+		out.write(app.getAppType());
+		out.write(',');
+		out.write(app.getSummary());
+		out.write(',');
+		if(app.getReviewer() != null) {
+			out.write(app.getReviewer());
+		}
+		out.write(',');
+		out.write(app.isProcessed() ? "true" : "false");
+		out.write(',');
+		if(app.getResolution() != null) {
+			out.write(app.getResolution());
+		}
+		out.write('\n');
+		List<String> notes = app.getNotes();
+		for(int i = 0; i < notes.size(); i++) {
+			if(i > 0) {
+				out.write('\n');
+			}
+			out.write(notes.get(i));
+		}
+		out.write('\n');
+	}
+
+	/**
+	 * Writes an int in decimal, as String.valueOf() would.
+	 *
+	 * @param value the int to write.
+	 * @throws IOException if the int cannot be written.
+	 */
+	private void writeInt(int value) throws IOException {
+		if(value == Integer.MIN_VALUE) {
+			out.write(Integer.toString(value));
+			return;
+		}
+		int position = digits.length;
+		int rest = Math.abs(value);
+		do {
+			digits[--position] = (char) ('0' + rest % 10);
+			rest /= 10;
+		} while(rest != 0);
+		if(value < 0) {
+			digits[--position] = '-';
+		}
+		out.write(digits, position, digits.length - position);
+	}
+}
@@ -3,10 +3,32 @@
  */
 package edu.ncsu.csc216.app_manager.model.io;
 
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.File;
-import java.io.PrintWriter;
+import java.io.FileOutputStream;
+import java.io.FileWriter;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
 
 import edu.ncsu.csc216.app_manager.model.application.Application;
 
@@ -16,32 +38,351 @@ import edu.ncsu.csc216.app_manager.model.application.Application;
  * to the specified file.
  * 
  * The applications are written in a format that can be later read and processed
- * by the AppReader class.
+ * by the AppReader class, either as plain text or compressed with deflate.
  * 
  * @author Priyanshu Dongre
  */
 public class AppWriter {
 
+	/** The size of the buffer between the serializer and the file */
+	private static final int BUFFER_SIZE = 1 << 16;
+	
+	/** The number of applications serialized by one task of a parallel save */
+	private static final int PARTITION_SIZE = 2048;
+
 	/**
 	 * Writes a list of Application objects to the specified file.
-	 * Each application in the list is converted to a string format and written
-	 * to the file.
+	 * Each application in the list is written in the format of its toString()
+	 * directly into a buffered writer, without building the string.
 	 * 
 	 * @param fileName the name of the file to write the applications to.
 	 * @param list the list of Application objects to write.
 	 */
 	public static void writeAppsToFile(String fileName, List<Application> list) {
-		try {
-			PrintWriter writer = new PrintWriter(new File(fileName));
+		try (Writer writer = new BufferedWriter(new FileWriter(fileName, StandardCharsets.UTF_8), BUFFER_SIZE)) {
+			AppTextSerializer serializer = new AppTextSerializer(writer);
 			for(int i = 0; i < list.size(); i++) {
-				writer.write(list.get(i).toString());
-				writer.write("\n");
+				serializer.write(list.get(i));
 			}
-			writer.close();
 			
 		} catch(IOException io) {
 			throw new IllegalArgumentException("Unable to save file.");
 		} 
 		
 	}
+	
+	/**
+	 * Writes a list of Application objects to the specified file, as
+	 * writeAppsToFile() does, and writes a sidecar index next to it named
+	 * fileName + AppFileIndex.SUFFIX. The index records the byte offset,
+	 * length, state and type of every record, so AppFileIndex can read
+	 * single applications or applications in one state without parsing the
+	 * rest of the file. The index is written after the file and replaces
+	 * any earlier index atomically, and it records a checksum of the file,
+	 * so an index left by an earlier save is never taken for this one.
+	 * 
+	 * @param fileName the name of the file to write the applications to.
+	 * @param list the list of Application objects to write.
+	 */
+	public static void writeAppsToFileWithIndex(String fileName, List<Application> list) {
+		int[] ids = new int[list.size()];
+		long[] offsets = new long[list.size()];
+		int[] lengths = new int[list.size()];
+		byte[] states = new byte[list.size()];
+		byte[] types = new byte[list.size()];
+		long offset = 0;
+		CRC32 crc = new CRC32();
+		try (OutputStream out = new BufferedOutputStream(new FileOutputStream(fileName), BUFFER_SIZE)) {
+			ExposedByteArrayOutputStream record = new ExposedByteArrayOutputStream();
+			Writer recordWriter = new OutputStreamWriter(record, StandardCharsets.UTF_8);
+			AppTextSerializer serializer = new AppTextSerializer(recordWriter);
+			for(int i = 0; i < list.size(); i++) {
+				Application app = list.get(i);
+				record.reset();
+				serializer.write(app);
+				recordWriter.flush();
+				ids[i] = app.getAppId();
+				offsets[i] = offset;
+				lengths[i] = record.size();
+				states[i] = (byte) AppBinaryCodes.code(AppBinaryCodes.STATES, app.getStateName());
+				types[i] = (byte) AppBinaryCodes.code(AppBinaryCodes.TYPES, app.getAppType());
+				crc.update(record.toByteBuffer());
+				record.writeTo(out);
+				offset += record.size();
+			}
+		} catch(IOException io) {
+			throw new IllegalArgumentException("Unable to save file.");
+		}
+		try {
+			AppFileIndex.write(fileName, ids, offsets, lengths, states, types, offset, crc.getValue());
+		} catch(IOException | InvalidPathException io) {
+			throw new IllegalArgumentException("Unable to save file.");
+		}
+	}
+	
+	/**
+	 * Writes a list of Application objects to the specified file, serializing
+	 * on the common ForkJoinPool.
+	 * 
+	 * @param fileName the name of the file to write the applications to.
+	 * @param list the list of Application objects to write.
+	 */
+	public static void writeAppsToFileParallel(String fileName, List<Application> list) {
+		writeAppsToFileParallel(fileName, list, ForkJoinPool.commonPool());
+	}
+	
+	/**
+	 * Writes a list of Application objects to the specified file, serializing
+	 * parts of the list in parallel. The list is split into partitions of
+	 * consecutive applications, and each partition is serialized into its
+	 * own buffer as a task on the given pool. The buffers are written in
+	 * list order with one gathering write per group of partitions, so the
+	 * file is the same as one written by writeAppsToFile(). Only a few
+	 * partitions per worker are buffered at a time.
+	 * 
+	 * @param fileName the name of the file to write the applications to.
+	 * @param list the list of Application objects to write.
+	 * @param pool the pool to serialize the partitions on.
+	 */
+	public static void writeAppsToFileParallel(String fileName, List<Application> list, ForkJoinPool pool) {
+		int partitions = (list.size() + PARTITION_SIZE - 1) / PARTITION_SIZE;
+		int window = pool.getParallelism() * 2;
+		try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.CREATE,
+				StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			for(int first = 0; first < partitions; first += window) {
+				ArrayList<Callable<ByteBuffer>> tasks = new ArrayList<>();
+				for(int p = first; p < Math.min(partitions, first + window); p++) {
+					List<Application> partition = list.subList(p * PARTITION_SIZE, Math.min(list.size(), (p + 1) * PARTITION_SIZE));
+					tasks.add(() -> serialize(partition));
+				}
+				List<Future<ByteBuffer>> results = pool.invokeAll(tasks);
+				ByteBuffer[] buffers = new ByteBuffer[results.size()];
+				long remaining = 0;
+				for(int i = 0; i < buffers.length; i++) {
+					buffers[i] = results.get(i).get();
+					remaining += buffers[i].remaining();
+				}
+				while(remaining > 0) {
+					remaining -= channel.write(buffers);
+				}
+			}
+		} catch(IOException | InvalidPathException | ExecutionException io) {
+			throw new IllegalArgumentException("Unable to save file.");
+		} catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalArgumentException("Unable to save file.");
+		}
+	}
+	
+	/**
+	 * Serializes applications into a buffer, encoded as writeAppsToFile()
+	 * encodes them.
+	 * 
+	 * @param apps the applications to serialize.
+	 * @return a buffer holding the encoded applications, ready to be written.
+	 * @throws IOException if the applications cannot be serialized.
+	 */
+	private static ByteBuffer serialize(List<Application> apps) throws IOException {
+		ExposedByteArrayOutputStream bytes = new ExposedByteArrayOutputStream();
+		try (Writer writer = new BufferedWriter(new OutputStreamWriter(bytes, StandardCharsets.UTF_8), BUFFER_SIZE)) {
+			AppTextSerializer serializer = new AppTextSerializer(writer);
+			for(int i = 0; i < apps.size(); i++) {
+				serializer.write(apps.get(i));
+			}
+		}
+		return bytes.toByteBuffer();
+	}
+	
+	/**
+	 * Writes a list of Application objects to the specified file so that a
+	 * crash during the save never leaves a partly written file behind. The
+	 * applications are written to a temporary file in the same directory,
+	 * which is forced to disk and then renamed over the target in one
+	 * atomic step, so the target holds either the old list or the new one.
+	 * 
+	 * @param fileName the name of the file to write the applications to.
+	 * @param list the list of Application objects to write.
+	 */
+	public static void writeAppsToFileAtomically(String fileName, List<Application> list) {
+		Path target;
+		try {
+			target = Paths.get(fileName).toAbsolutePath();
+		} catch(InvalidPathException e) {
+			throw new IllegalArgumentException("Unable to save file.");
+		}
+		Path temp = null;
+		try {
+			temp = writeTempFile(target, list);
+			replaceFile(temp, target);
+			temp = null;
+		} catch(IOException io) {
+			throw new IllegalArgumentException("Unable to save file.");
+		} finally {
+			if(temp != null) {
+				try {
+					Files.deleteIfExists(temp);
+				} catch(IOException e) {
+					// The temporary file is left behind, but the target is untouched.
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Writes a list of Application objects to a new temporary file in the
+	 * directory of a target file and forces it to disk.
+	 * 
+	 * @param target the file the temporary file will replace.
+	 * @param list the list of Application objects to write.
+	 * @return the temporary file.
+	 * @throws IOException if the file cannot be written.
+	 */
+	static Path writeTempFile(Path target, List<Application> list) throws IOException {
+		Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString() + ".", ".tmp");
+		try (FileOutputStream file = new FileOutputStream(temp.toFile());
+				Writer writer = new BufferedWriter(new OutputStreamWriter(file, StandardCharsets.UTF_8), BUFFER_SIZE)) {
+			AppTextSerializer serializer = new AppTextSerializer(writer);
+			for(int i = 0; i < list.size(); i++) {
+				serializer.write(list.get(i));
+			}
+			writer.flush();
+			file.getFD().sync();
+		} catch(IOException e) {
+			Files.deleteIfExists(temp);
+			throw e;
+		}
+		return temp;
+	}
+	
+	/**
+	 * Renames a file over a target in one atomic step where the file system
+	 * supports it, and forces the directory to disk.
+	 * 
+	 * @param source the file to rename.
+	 * @param target the file to replace.
+	 * @throws IOException if the file cannot be renamed.
+	 */
+	static void replaceFile(Path source, Path target) throws IOException {
+		try {
+			Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+		} catch(AtomicMoveNotSupportedException e) {
+			Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+		}
+		syncDirectory(target.getParent());
+	}
+	
+	/**
+	 * Forces a directory to disk, so that a file just renamed into it is
+	 * still there after a crash. Platforms that cannot open a directory skip
+	 * this step.
+	 * 
+	 * @param directory the directory to force.
+	 */
+	static void syncDirectory(Path directory) {
+		try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+			channel.force(true);
+		} catch(IOException e) {
+			// Directories cannot be opened or forced on every platform.
+		}
+	}
+	
+	/**
+	 * Writes a list of Application objects to the specified file in the same
+	 * text format as writeAppsToFile(), compressed with deflate as it is
+	 * written. AppReader recognizes and decompresses the file when it is
+	 * read.
+	 * 
+	 * @param fileName the name of the file to write the applications to.
+	 * @param list the list of Application objects to write.
+	 * @param level the deflate level, from Deflater.DEFAULT_COMPRESSION (-1) to Deflater.BEST_COMPRESSION (9).
+	 */
+	public static void writeAppsToFile(String fileName, List<Application> list, int level) {
+		try (Writer writer = new BufferedWriter(new OutputStreamWriter(AppFileFormat.openCompressedOutput(fileName, level),
+				StandardCharsets.UTF_8), BUFFER_SIZE)) {
+			AppTextSerializer serializer = new AppTextSerializer(writer);
+			for(int i = 0; i < list.size(); i++) {
+				serializer.write(list.get(i));
+			}
+		} catch(IOException io) {
+			throw new IllegalArgumentException("Unable to save file.");
+		}
+	}
+	
+	/**
+	 * Appends a delta to the end of a delta file, creating the file if it
+	 * does not exist. The delta is written as a "#delta" header holding the
+	 * length and CRC32 of its body, one "~id" line for every deleted
+	 * application, and the added and changed applications in the same
+	 * format as writeAppsToFile. A partly appended delta left at the end of
+	 * the file by a crash is cut off first, and the file is forced to disk
+	 * before this method returns.
+	 * 
+	 * @param fileName the name of the delta file.
+	 * @param delta the delta to append.
+	 */
+	public static void appendDeltaToFile(String fileName, AppDelta delta) {
+		ExposedByteArrayOutputStream body = new ExposedByteArrayOutputStream();
+		try (Writer writer = new BufferedWriter(new OutputStreamWriter(body, StandardCharsets.UTF_8), BUFFER_SIZE)) {
+			for(int id: delta.getDeletedIds()) {
+				writer.write(AppDelta.TOMBSTONE + id + "\n");
+			}
+			List<Application> list = delta.getApps();
+			AppTextSerializer serializer = new AppTextSerializer(writer);
+			for(int i = 0; i < list.size(); i++) {
+				serializer.write(list.get(i));
+			}
+		} catch(IOException io) {
+			throw new IllegalArgumentException("Unable to save file.");
+		}
+		ByteBuffer bodyBuffer = body.toByteBuffer();
+		CRC32 crc = new CRC32();
+		crc.update(bodyBuffer.duplicate());
+		ByteBuffer[] buffers = {
+			ByteBuffer.wrap(AppDelta.header(bodyBuffer.remaining(), crc.getValue()).getBytes(StandardCharsets.US_ASCII)),
+			bodyBuffer
+		};
+		Path path;
+		try {
+			path = Paths.get(fileName).toAbsolutePath();
+		} catch(InvalidPathException e) {
+			throw new IllegalArgumentException("Unable to save file.");
+		}
+		boolean created = !Files.exists(path);
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE)) {
+			long end = AppDelta.validLength(channel);
+			channel.truncate(end);
+			channel.position(end);
+			while(buffers[0].hasRemaining() || bodyBuffer.hasRemaining()) {
+				channel.write(buffers);
+			}
+			channel.force(false);
+		} catch(IOException io) {
+			throw new IllegalArgumentException("Unable to save file.");
+		}
+		if(created) {
+			syncDirectory(path.getParent());
+		}
+	}
+	
+	/**
+	 * A ByteArrayOutputStream whose contents can be wrapped without copying.
+	 */
+	private static class ExposedByteArrayOutputStream extends ByteArrayOutputStream {
+		
+		/**
+		 * Constructs an ExposedByteArrayOutputStream.
+		 */
+		ExposedByteArrayOutputStream() {
+			super(1 << 16);
+		}
+		
+		/**
+		 * Wraps the bytes written so far.
+		 * @return a buffer over the bytes written.
+		 */
+		ByteBuffer toByteBuffer() {
+			return ByteBuffer.wrap(buf, 0, count);
+		}
+	}
 }
@@ -0,0 +1,188 @@
+/**
+ *
+ */
+package edu.ncsu.csc216.app_manager.model.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * The MappedRecordReader class splits a memory-mapped application file
+ * into records, exactly as AppRecordReader splits text. The file is mapped
+ * in windows of at most 2 GB, so files of any size can be read, and bytes
+ * go from the mapping into one reusable record buffer without passing
+ * through a Reader.
+ *
+ * '*', '\r' and '\n' are single bytes in UTF-8 and never occur inside a
+ * multi-byte character, so records are split and line endings normalized
+ * on the bytes. A record that is all ASCII is turned into a String
+ * directly; only records holding other bytes are decoded as UTF-8, the
+ * charset of every text file in this package.
+ *
+ * @author Priyanshu Dongre
+ */
+class MappedRecordReader implements Closeable {
+
+	/** The file being split */
+	private final FileChannel channel;
+
+	/** The size of the file */
+	private final long size;
+
+	/** The largest window mapped at a time */
+	private final int windowSize;
+
+	/** The current window, or null before the first one is mapped */
+	private MappedByteBuffer window;
+
+	/** The position in the file of the current window */
+	private long windowStart;
+
+	/** The bytes of the record being built */
+	private byte[] record;
+
+	/** The number of bytes in the record */
+	private int length;
+
+	/** Whether every byte of the record is ASCII */
+	private boolean ascii;
+
+	/** Whether the first record has not been returned or skipped yet */
+	private boolean first;
+
+	/** Whether the last byte read was a '\r', so a following '\n' is skipped */
+	private boolean afterCarriageReturn;
+
+	/** Whether the last byte added was a '\n', or nothing has been read */
+	private boolean atLineStart;
+
+	/** Whether the end of the file has been reached */
+	private boolean done;
+
+	/**
+	 * Constructs a MappedRecordReader over a file.
+	 *
+	 * @param channel the file to split, closed when this reader is closed.
+	 * @param windowSize the largest number of bytes to map at a time, raised to the length of the binary magic if smaller.
+	 * @throws IOException if the size of the file cannot be read.
+	 */
+	MappedRecordReader(FileChannel channel, int windowSize) throws IOException {
+		this.channel = channel;
+		this.size = channel.size();
+		this.windowSize = Math.max(windowSize, AppBinaryCodes.MAGIC.length);
+		this.record = new byte[256];
+		this.ascii = true;
+		this.first = true;
+		this.atLineStart = true;
+	}
+
+	/**
+	 * Checks whether the file is uncompressed text from the first bytes of
+	 * the first window, which is mapped if it is not already. The window is
+	 * not advanced, so records can be read after the check.
+	 *
+	 * @return true if the file is uncompressed text.
+	 * @throws IOException if the file cannot be mapped.
+	 */
+	boolean isPlainText() throws IOException {
+		if(size == 0) {
+			return true;
+		}
+		if(window == null) {
+			windowStart = 0;
+			window = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(windowSize, size));
+		}
+		byte[] head = new byte[Math.min(AppBinaryCodes.MAGIC.length, window.limit())];
+		window.get(0, head);
+		return AppFileFormat.isPlainText(head);
+	}
+
+	/**
+	 * Reads the next record.
+	 *
+	 * @return the text of the record without its '*', or null at the end of the file.
+	 * @throws IOException if the file cannot be mapped.
+	 */
+	String nextRecord() throws IOException {
+		while(!done) {
+			if(window == null || !window.hasRemaining()) {
+				long next = window == null ? 0 : windowStart + window.capacity();
+				if(next >= size) {
+					window = null;
+					done = true;
+					if(!atLineStart) {
+						append((byte) '\n');
+					}
+					return take(true);
+				}
+				windowStart = next;
+				window = channel.map(FileChannel.MapMode.READ_ONLY, next, Math.min(windowSize, size - next));
+			}
+			byte b = window.get();
+			if(b == '\n' && afterCarriageReturn) {
+				afterCarriageReturn = false;
+				continue;
+			}
+			afterCarriageReturn = b == '\r';
+			if(b == '\r') {
+				b = '\n';
+			}
+			atLineStart = b == '\n';
+			if(b == '*') {
+				String text = take(false);
+				if(text != null) {
+					return text;
+				}
+			} else {
+				append(b);
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Adds a byte to the record being built.
+	 *
+	 * @param b the byte to add.
+	 */
+	private void append(byte b) {
+		if(length == record.length) {
+			record = Arrays.copyOf(record, length * 2);
+		}
+		record[length++] = b;
+		ascii &= b >= 0;
+	}
+
+	/**
+	 * Takes the record that has been built.
+	 *
+	 * @param last whether the record ends at the end of the file.
+	 * @return the record, or null if it is empty text before the first '*' or after the last one.
+	 */
+	private String take(boolean last) {
+		boolean skip = length == 0 && (first || last);
+		first = false;
+		String text = null;
+		if(!skip) {
+			text = new String(record, 0, length, ascii ? StandardCharsets.ISO_8859_1 : StandardCharsets.UTF_8);
+		}
+		length = 0;
+		ascii = true;
+		return text;
+	}
+
+	/**
+	 * Closes the file. The mapping is released once it is no longer referenced.
+	 *
+	 * @throws IOException if the file cannot be closed.
+	 */
+	@Override
+	public void close() throws IOException {
+		window = null;
+		channel.close();
+	}
+}
@@ -0,0 +1,531 @@
+/**
+ *
+ */
+package edu.ncsu.csc216.app_manager.model.io;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * The WalWriter class appends records to a write-ahead log file with group
+ * commit. Callers only copy their record into a pending buffer, which keeps
+ * the order in which records were enqueued, and get back a sequence number.
+ * A single flusher thread takes everything that is pending, writes it with
+ * one call and, depending on the SyncMode, forces it to disk once for the
+ * whole group. Callers that need their record to be committed wait for its
+ * sequence number, so many concurrent records share one write and one sync.
+ *
+ * The SyncMode trades durability for throughput:
+ * EVERY_COMMIT forces every group before its records count as committed,
+ * INTERVAL forces at most once per interval, and OS leaves syncing to the
+ * operating system. In the last two modes a committed record has been
+ * written to the file but may still be lost if the machine fails.
+ *
+ * @author Priyanshu Dongre
+ */
+public class WalWriter {
+
+	/**
+	 * Enumeration of when the log is forced to disk.
+	 */
+	public enum SyncMode { EVERY_COMMIT, INTERVAL, OS }
+
+	/** The channel of the log file, opened for appending */
+	private final FileChannel channel;
+
+	/** When the log is forced to disk */
+	private final SyncMode mode;
+
+	/** The time between syncs in INTERVAL mode, in nanoseconds */
+	private final long intervalNanos;
+
+	/** Guards the channel, so that truncation never overlaps a write */
+	private final Object ioLock;
+
+	/** The thread that writes and syncs pending records */
+	private final Thread flusher;
+
+	/** The records waiting to be written, in enqueue order */
+	private byte[] pending;
+
+	/** The number of bytes in the pending buffer */
+	private int pendingBytes;
+
+	/** The enqueue time of each pending record, in nanoseconds */
+	private long[] pendingTimes;
+
+	/** The number of pending records */
+	private int pendingCount;
+
+	/** The sequence number of the last record enqueued */
+	private long enqueued;
+
+	/** The sequence number of the last record committed */
+	private long committed;
+
+	/** The time of the last sync, in nanoseconds */
+	private long lastSync;
+
+	/** Whether records were written since the last sync */
+	private boolean unsynced;
+
+	/** Whether the writer is closed */
+	private boolean closed;
+
+	/** Whether enqueue() waits because the log is being truncated or measured */
+	private boolean paused;
+
+	/** The error that stopped the flusher, or null */
+	private IOException failure;
+
+	/** The number of groups committed */
+	private long commits;
+
+	/** The number of syncs */
+	private long syncs;
+
+	/** The total time records waited from enqueue to commit, in nanoseconds */
+	private long totalLatency;
+
+	/** The longest time a record waited from enqueue to commit, in nanoseconds */
+	private long maxLatency;
+
+	/** The largest number of records committed in one group */
+	private int maxBatch;
+
+	/**
+	 * Opens a log file for appending, creating it if it does not exist.
+	 *
+	 * @param fileName the name of the log file.
+	 * @param mode when the log is forced to disk.
+	 * @param intervalMillis the time between syncs in INTERVAL mode, in milliseconds.
+	 */
+	public WalWriter(String fileName, SyncMode mode, long intervalMillis) {
+		if(fileName == null || mode == null || (mode == SyncMode.INTERVAL && intervalMillis < 1)) {
+			throw new IllegalArgumentException("Invalid log.");
+		}
+		try {
+			this.channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.CREATE,
+					StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+		} catch(IOException e) {
+			throw new IllegalArgumentException("Unable to open journal.");
+		}
+		this.mode = mode;
+		this.intervalNanos = intervalMillis * 1_000_000L;
+		this.ioLock = new Object();
+		this.pending = new byte[4096];
+		this.pendingTimes = new long[64];
+		this.lastSync = System.nanoTime();
+		this.flusher = new Thread(this::run, "wal-flusher");
+		this.flusher.setDaemon(true);
+		this.flusher.start();
+	}
+
+	/**
+	 * Adds a record to the log without waiting for it to be committed.
+	 *
+	 * @param record the bytes of the record.
+	 * @return the sequence number of the record, to pass to awaitCommit().
+	 */
+	public synchronized long enqueue(byte[] record) {
+		awaitResume();
+		checkOpen();
+		if(pendingBytes + record.length > pending.length) {
+			pending = Arrays.copyOf(pending, Math.max(pending.length * 2, pendingBytes + record.length));
+		}
+		System.arraycopy(record, 0, pending, pendingBytes, record.length);
+		pendingBytes += record.length;
+		if(pendingCount == pendingTimes.length) {
+			pendingTimes = Arrays.copyOf(pendingTimes, pendingCount * 2);
+		}
+		pendingTimes[pendingCount++] = System.nanoTime();
+		notifyAll();
+		return ++enqueued;
+	}
+
+	/**
+	 * Waits until a record and every record enqueued before it are committed.
+	 *
+	 * @param sequence the sequence number returned by enqueue().
+	 */
+	public synchronized void awaitCommit(long sequence) {
+		boolean interrupted = false;
+		while(committed < sequence && failure == null) {
+			try {
+				wait();
+			} catch(InterruptedException e) {
+				interrupted = true;
+			}
+		}
+		if(interrupted) {
+			Thread.currentThread().interrupt();
+		}
+		if(committed < sequence) {
+			throw new IllegalArgumentException("Unable to write journal.");
+		}
+	}
+
+	/**
+	 * Adds a record to the log and waits until it is committed.
+	 *
+	 * @param record the bytes of the record.
+	 */
+	public void append(byte[] record) {
+		awaitCommit(enqueue(record));
+	}
+
+	/**
+	 * Waits until every record enqueued so far is committed.
+	 */
+	public void flush() {
+		long sequence;
+		synchronized(this) {
+			sequence = enqueued;
+		}
+		awaitCommit(sequence);
+	}
+
+	/**
+	 * Returns the length of the log file once every record enqueued so far
+	 * is committed.
+	 *
+	 * @return the length of the log in bytes.
+	 */
+	public long size() {
+		pause();
+		try {
+			flush();
+			synchronized(ioLock) {
+				return channel.size();
+			}
+		} catch(IOException e) {
+			throw new IllegalArgumentException("Unable to read journal.");
+		} finally {
+			resume();
+		}
+	}
+
+	/**
+	 * Empties the log file once every record enqueued so far is committed.
+	 * Records enqueued meanwhile wait until the log is empty, so a record is
+	 * never written before the truncation and then wiped by it.
+	 */
+	public void truncate() {
+		pause();
+		try {
+			flush();
+			synchronized(ioLock) {
+				channel.truncate(0);
+				channel.force(false);
+			}
+		} catch(IOException e) {
+			throw new IllegalArgumentException("Unable to write journal.");
+		} finally {
+			resume();
+		}
+	}
+
+	/**
+	 * Commits every pending record, forces the log to disk and closes it.
+	 * The file is closed even if the pending records cannot be committed.
+	 */
+	public void close() {
+		synchronized(this) {
+			if(closed) {
+				return;
+			}
+		}
+		try {
+			flush();
+		} finally {
+			synchronized(this) {
+				closed = true;
+				notifyAll();
+			}
+			try {
+				flusher.join();
+			} catch(InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			synchronized(ioLock) {
+				try {
+					try {
+						if(mode != SyncMode.OS) {
+							channel.force(false);
+						}
+					} finally {
+						channel.close();
+					}
+				} catch(IOException e) {
+					throw new IllegalArgumentException("Unable to write journal.");
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the commit statistics of the log so far.
+	 *
+	 * @return the statistics.
+	 */
+	public synchronized Stats getStats() {
+		return new Stats(commits, committed, syncs, totalLatency, maxLatency, maxBatch);
+	}
+
+	/**
+	 * Stops new records from being enqueued until resume() is called. Only
+	 * one caller pauses the writer at a time.
+	 */
+	private synchronized void pause() {
+		awaitResume();
+		paused = true;
+	}
+
+	/**
+	 * Lets enqueue() continue after pause().
+	 */
+	private synchronized void resume() {
+		paused = false;
+		notifyAll();
+	}
+
+	/**
+	 * Waits while the writer is paused. Must be called holding the lock of
+	 * the writer.
+	 */
+	private void awaitResume() {
+		boolean interrupted = false;
+		while(paused) {
+			try {
+				wait();
+			} catch(InterruptedException e) {
+				interrupted = true;
+			}
+		}
+		if(interrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Checks that the writer is open and has not failed.
+	 */
+	private void checkOpen() {
+		if(closed) {
+			throw new IllegalStateException("Journal is closed.");
+		}
+		if(failure != null) {
+			throw new IllegalArgumentException("Unable to write journal.");
+		}
+	}
+
+	/**
+	 * The loop of the flusher thread: waits for pending records, takes all
+	 * of them as one group, writes and syncs the group, and then marks its
+	 * records committed.
+	 */
+	private void run() {
+		byte[] spare = new byte[pending.length];
+		long[] spareTimes = new long[pendingTimes.length];
+		while(true) {
+			byte[] group;
+			long[] times;
+			int bytes;
+			int count;
+			synchronized(this) {
+				while(pendingCount == 0 && !closed && !syncDue()) {
+					try {
+						if(mode == SyncMode.INTERVAL && unsynced) {
+							wait(Math.max(1, (lastSync + intervalNanos - System.nanoTime()) / 1_000_000L));
+						} else {
+							wait();
+						}
+					} catch(InterruptedException e) {
+						// Waiting callers would never be woken, so the writer fails instead.
+						failure = new InterruptedIOException("Journal flusher was interrupted.");
+						notifyAll();
+						return;
+					}
+				}
+				if(pendingCount == 0 && closed) {
+					return;
+				}
+				group = pending;
+				times = pendingTimes;
+				bytes = pendingBytes;
+				count = pendingCount;
+				pending = spare.length >= group.length ? spare : new byte[group.length];
+				pendingTimes = spareTimes.length >= times.length ? spareTimes : new long[times.length];
+				pendingBytes = 0;
+				pendingCount = 0;
+			}
+
+			boolean synced = false;
+			try {
+				synchronized(ioLock) {
+					ByteBuffer buffer = ByteBuffer.wrap(group, 0, bytes);
+					while(buffer.hasRemaining()) {
+						channel.write(buffer);
+					}
+					if(mode == SyncMode.EVERY_COMMIT && count > 0 || syncDue(count)) {
+						channel.force(false);
+						synced = true;
+					}
+				}
+			} catch(IOException e) {
+				synchronized(this) {
+					failure = e;
+					notifyAll();
+				}
+				return;
+			}
+
+			long now = System.nanoTime();
+			synchronized(this) {
+				if(synced) {
+					syncs++;
+					lastSync = now;
+					unsynced = false;
+				} else if(count > 0) {
+					unsynced = true;
+				}
+				if(count > 0) {
+					commits++;
+					committed += count;
+					maxBatch = Math.max(maxBatch, count);
+					for(int i = 0; i < count; i++) {
+						long latency = now - times[i];
+						totalLatency += latency;
+						maxLatency = Math.max(maxLatency, latency);
+					}
+				}
+				notifyAll();
+			}
+			spare = group;
+			spareTimes = times;
+		}
+	}
+
+	/**
+	 * Checks whether written records are waiting for an INTERVAL sync.
+	 *
+	 * @return true if a sync is due.
+	 */
+	private boolean syncDue() {
+		return syncDue(0);
+	}
+
+	/**
+	 * Checks whether an INTERVAL sync is due, counting records about to be
+	 * written as well as records already written.
+	 *
+	 * @param count the number of records about to be written.
+	 * @return true if a sync is due.
+	 */
+	private boolean syncDue(int count) {
+		return mode == SyncMode.INTERVAL && (unsynced || count > 0) && System.nanoTime() - lastSync >= intervalNanos;
+	}
+
+	/**
+	 * The commit statistics of a WalWriter at one point in time.
+	 */
+	public static class Stats {
+
+		/** The number of groups committed */
+		private final long commits;
+
+		/** The number of records committed */
+		private final long records;
+
+		/** The number of syncs */
+		private final long syncs;
+
+		/** The total time records waited from enqueue to commit, in nanoseconds */
+		private final long totalLatency;
+
+		/** The longest time a record waited from enqueue to commit, in nanoseconds */
+		private final long maxLatency;
+
+		/** The largest number of records committed in one group */
+		private final int maxBatch;
+
+		/**
+		 * Constructs a Stats.
+		 * @param commits the number of groups committed.
+		 * @param records the number of records committed.
+		 * @param syncs the number of syncs.
+		 * @param totalLatency the total commit latency in nanoseconds.
+		 * @param maxLatency the longest commit latency in nanoseconds.
+		 * @param maxBatch the largest number of records in one group.
+		 */
+		Stats(long commits, long records, long syncs, long totalLatency, long maxLatency, int maxBatch) {
+			this.commits = commits;
+			this.records = records;
+			this.syncs = syncs;
+			this.totalLatency = totalLatency;
+			this.maxLatency = maxLatency;
+			this.maxBatch = maxBatch;
+		}
+
+		/**
+		 * Returns the number of groups committed.
+		 * @return the number of commits.
+		 */
+		public long getCommits() {
+			return commits;
+		}
+
+		/**
+		 * Returns the number of records committed.
+		 * @return the number of records.
+		 */
+		public long getRecords() {
+			return records;
+		}
+
+		/**
+		 * Returns the number of times the log was forced to disk.
+		 * @return the number of syncs.
+		 */
+		public long getSyncs() {
+			return syncs;
+		}
+
+		/**
+		 * Returns the average number of records committed per group.
+		 * @return the average batch size, or 0 if nothing was committed.
+		 */
+		public double getAverageBatchSize() {
+			return commits == 0 ? 0 : (double) records / commits;
+		}
+
+		/**
+		 * Returns the largest number of records committed in one group.
+		 * @return the largest batch size.
+		 */
+		public int getMaxBatchSize() {
+			return maxBatch;
+		}
+
+		/**
+		 * Returns the average time from enqueue to commit of a record.
+		 * @return the average commit latency in microseconds.
+		 */
+		public double getAverageLatencyMicros() {
+			return records == 0 ? 0 : totalLatency / 1000.0 / records;
+		}
+
+		/**
+		 * Returns the longest time from enqueue to commit of a record.
+		 * @return the longest commit latency in microseconds.
+		 */
+		public double getMaxLatencyMicros() {
+			return maxLatency / 1000.0;
+		}
+	}
+}
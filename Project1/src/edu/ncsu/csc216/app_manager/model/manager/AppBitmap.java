@@ -0,0 +1,584 @@
+/**
+ *
+ */
+package edu.ncsu.csc216.app_manager.model.manager;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * The AppBitmap class is a compressed bitmap of non-negative int application
+ * ids. Ids are grouped by their upper 16 bits, and each group is stored in
+ * a container chosen by its density: a sorted array of the lower 16 bits
+ * when the group holds at most 4096 ids, or a 65536-bit bitset otherwise.
+ * Sparse and dense sets of ids therefore both stay small, and AND, OR and
+ * AND NOT work one container at a time without visiting single ids where
+ * the containers are bitsets.
+ *
+ * @author Priyanshu Dongre
+ */
+class AppBitmap {
+
+	/** Largest number of ids kept in an array container */
+	private static final int ARRAY_MAX = 4096;
+
+	/** Number of longs in a bitset container */
+	private static final int BITSET_WORDS = 1024;
+
+	/** The upper 16 bits of the ids in each container, in ascending order */
+	private char[] keys;
+
+	/** The containers, parallel to keys */
+	private Container[] containers;
+
+	/** The number of containers in use */
+	private int count;
+
+	/**
+	 * Constructs an empty AppBitmap.
+	 */
+	AppBitmap() {
+		keys = new char[4];
+		containers = new Container[4];
+		count = 0;
+	}
+
+	/**
+	 * Checks whether the bitmap contains an id.
+	 *
+	 * @param id the id to look for.
+	 * @return true if the id is in the bitmap, false otherwise.
+	 */
+	boolean contains(int id) {
+		int pos = find((char) (id >>> 16));
+		return pos >= 0 && containers[pos].contains((char) id);
+	}
+
+	/**
+	 * Adds an id to the bitmap.
+	 *
+	 * @param id the id to add.
+	 */
+	void add(int id) {
+		char key = (char) (id >>> 16);
+		int pos = find(key);
+		if(pos >= 0) {
+			containers[pos] = containers[pos].add((char) id);
+		} else {
+			insert(-(pos + 1), key, new ArrayContainer().add((char) id));
+		}
+	}
+
+	/**
+	 * Removes an id from the bitmap.
+	 *
+	 * @param id the id to remove.
+	 */
+	void remove(int id) {
+		int pos = find((char) (id >>> 16));
+		if(pos < 0) {
+			return;
+		}
+		Container c = containers[pos].remove((char) id);
+		if(c.cardinality() == 0) {
+			System.arraycopy(keys, pos + 1, keys, pos, count - pos - 1);
+			System.arraycopy(containers, pos + 1, containers, pos, count - pos - 1);
+			containers[--count] = null;
+		} else {
+			containers[pos] = c;
+		}
+	}
+
+	/**
+	 * Removes every id from the bitmap.
+	 */
+	void clear() {
+		keys = new char[4];
+		containers = new Container[4];
+		count = 0;
+	}
+
+	/**
+	 * Returns the number of ids in the bitmap.
+	 *
+	 * @return the number of ids.
+	 */
+	int cardinality() {
+		int card = 0;
+		for(int i = 0; i < count; i++) {
+			card += containers[i].cardinality();
+		}
+		return card;
+	}
+
+	/**
+	 * Passes every id in the bitmap to an action, in ascending order.
+	 *
+	 * @param action the action to perform on each id.
+	 */
+	void forEach(IntConsumer action) {
+		for(int i = 0; i < count; i++) {
+			containers[i].forEach(keys[i] << 16, action);
+		}
+	}
+
+	/**
+	 * Returns the ids in the bitmap in ascending order.
+	 *
+	 * @return an array of the ids.
+	 */
+	int[] toArray() {
+		int[] ids = new int[cardinality()];
+		int[] next = new int[1];
+		forEach(id -> ids[next[0]++] = id);
+		return ids;
+	}
+
+	/**
+	 * Returns a new bitmap holding the ids that are in both bitmaps.
+	 *
+	 * @param other the other bitmap.
+	 * @return the intersection of the bitmaps.
+	 */
+	AppBitmap and(AppBitmap other) {
+		AppBitmap result = new AppBitmap();
+		int i = 0;
+		int j = 0;
+		while(i < count && j < other.count) {
+			if(keys[i] < other.keys[j]) {
+				i++;
+			} else if(keys[i] > other.keys[j]) {
+				j++;
+			} else {
+				Container c = containers[i].and(other.containers[j]);
+				if(c.cardinality() > 0) {
+					result.insert(result.count, keys[i], c);
+				}
+				i++;
+				j++;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns a new bitmap holding the ids that are in either bitmap.
+	 *
+	 * @param other the other bitmap.
+	 * @return the union of the bitmaps.
+	 */
+	AppBitmap or(AppBitmap other) {
+		AppBitmap result = new AppBitmap();
+		int i = 0;
+		int j = 0;
+		while(i < count || j < other.count) {
+			if(j == other.count || (i < count && keys[i] < other.keys[j])) {
+				result.insert(result.count, keys[i], containers[i].copy());
+				i++;
+			} else if(i == count || keys[i] > other.keys[j]) {
+				result.insert(result.count, other.keys[j], other.containers[j].copy());
+				j++;
+			} else {
+				result.insert(result.count, keys[i], containers[i].or(other.containers[j]));
+				i++;
+				j++;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns a new bitmap holding the ids that are in this bitmap but not
+	 * in the other one.
+	 *
+	 * @param other the bitmap of ids to leave out.
+	 * @return the difference of the bitmaps.
+	 */
+	AppBitmap andNot(AppBitmap other) {
+		AppBitmap result = new AppBitmap();
+		int j = 0;
+		for(int i = 0; i < count; i++) {
+			while(j < other.count && other.keys[j] < keys[i]) {
+				j++;
+			}
+			Container c = j < other.count && other.keys[j] == keys[i]
+					? containers[i].andNot(other.containers[j]) : containers[i].copy();
+			if(c.cardinality() > 0) {
+				result.insert(result.count, keys[i], c);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Finds the container for the given upper 16 bits.
+	 *
+	 * @param key the upper 16 bits of an id.
+	 * @return the position of the container, or -(insertion point) - 1 if there is none.
+	 */
+	private int find(char key) {
+		if(count > 0 && keys[count - 1] == key) {
+			return count - 1;
+		}
+		return Arrays.binarySearch(keys, 0, count, key);
+	}
+
+	/**
+	 * Inserts a container at the given position.
+	 *
+	 * @param pos the position of the new container.
+	 * @param key the upper 16 bits of the ids in the container.
+	 * @param c the container to insert.
+	 */
+	private void insert(int pos, char key, Container c) {
+		if(count == keys.length) {
+			keys = Arrays.copyOf(keys, count * 2);
+			containers = Arrays.copyOf(containers, count * 2);
+		}
+		System.arraycopy(keys, pos, keys, pos + 1, count - pos);
+		System.arraycopy(containers, pos, containers, pos + 1, count - pos);
+		keys[pos] = key;
+		containers[pos] = c;
+		count++;
+	}
+
+	/**
+	 * The ids of a bitmap that share the same upper 16 bits.  Operations that
+	 * change the number of ids may return a different kind of container.
+	 */
+	private abstract static class Container {
+
+		/**
+		 * Checks whether the container holds a value.
+		 * @param value the lower 16 bits of an id.
+		 * @return true if the value is present.
+		 */
+		abstract boolean contains(char value);
+
+		/**
+		 * Adds a value.
+		 * @param value the lower 16 bits of an id.
+		 * @return the container now holding the values.
+		 */
+		abstract Container add(char value);
+
+		/**
+		 * Removes a value.
+		 * @param value the lower 16 bits of an id.
+		 * @return the container now holding the values.
+		 */
+		abstract Container remove(char value);
+
+		/**
+		 * Returns the number of values in the container.
+		 * @return the number of values.
+		 */
+		abstract int cardinality();
+
+		/**
+		 * Passes every id in the container to an action, in ascending order.
+		 * @param high the upper 16 bits of the ids, already shifted into place.
+		 * @param action the action to perform on each id.
+		 */
+		abstract void forEach(int high, IntConsumer action);
+
+		/**
+		 * Returns a copy of the container.
+		 * @return a copy of the container.
+		 */
+		abstract Container copy();
+
+		/**
+		 * Returns the values in the container as a bitset.
+		 * @return a bitset container with the same values.
+		 */
+		abstract BitsetContainer toBitset();
+
+		/**
+		 * Returns a new container holding the values in both containers.
+		 * @param other the other container.
+		 * @return the intersection of the containers.
+		 */
+		Container and(Container other) {
+			if(this instanceof ArrayContainer) {
+				return ((ArrayContainer) this).filter(other, true);
+			} else if(other instanceof ArrayContainer) {
+				return ((ArrayContainer) other).filter(this, true);
+			}
+			return ((BitsetContainer) this).combine((BitsetContainer) other, 0);
+		}
+
+		/**
+		 * Returns a new container holding the values in either container.
+		 * @param other the other container.
+		 * @return the union of the containers.
+		 */
+		Container or(Container other) {
+			if(this instanceof ArrayContainer && other instanceof ArrayContainer
+					&& cardinality() + other.cardinality() <= ARRAY_MAX) {
+				return ((ArrayContainer) this).union((ArrayContainer) other);
+			}
+			return toBitset().combine(other.toBitset(), 1);
+		}
+
+		/**
+		 * Returns a new container holding the values in this container but not
+		 * in the other one.
+		 * @param other the container of values to leave out.
+		 * @return the difference of the containers.
+		 */
+		Container andNot(Container other) {
+			if(this instanceof ArrayContainer) {
+				return ((ArrayContainer) this).filter(other, false);
+			}
+			return ((BitsetContainer) this).combine(other.toBitset(), 2);
+		}
+	}
+
+	/**
+	 * A container holding up to 4096 values as a sorted array.
+	 */
+	private static class ArrayContainer extends Container {
+
+		/** The values in ascending order, followed by unused slots */
+		private char[] values;
+
+		/** The number of values */
+		private int card;
+
+		/**
+		 * Constructs an empty ArrayContainer.
+		 */
+		ArrayContainer() {
+			this(new char[4], 0);
+		}
+
+		/**
+		 * Constructs an ArrayContainer over existing sorted values.
+		 * @param values the values in ascending order.
+		 * @param card the number of values used.
+		 */
+		ArrayContainer(char[] values, int card) {
+			this.values = values;
+			this.card = card;
+		}
+
+		@Override
+		boolean contains(char value) {
+			return Arrays.binarySearch(values, 0, card, value) >= 0;
+		}
+
+		@Override
+		Container add(char value) {
+			int pos = card == 0 || values[card - 1] < value ? -(card + 1) : Arrays.binarySearch(values, 0, card, value);
+			if(pos >= 0) {
+				return this;
+			}
+			if(card == ARRAY_MAX) {
+				return toBitset().add(value);
+			}
+			pos = -(pos + 1);
+			if(card == values.length) {
+				values = Arrays.copyOf(values, Math.min(card * 2, ARRAY_MAX));
+			}
+			System.arraycopy(values, pos, values, pos + 1, card - pos);
+			values[pos] = value;
+			card++;
+			return this;
+		}
+
+		@Override
+		Container remove(char value) {
+			int pos = Arrays.binarySearch(values, 0, card, value);
+			if(pos >= 0) {
+				System.arraycopy(values, pos + 1, values, pos, card - pos - 1);
+				card--;
+			}
+			return this;
+		}
+
+		@Override
+		int cardinality() {
+			return card;
+		}
+
+		@Override
+		void forEach(int high, IntConsumer action) {
+			for(int i = 0; i < card; i++) {
+				action.accept(high | values[i]);
+			}
+		}
+
+		@Override
+		Container copy() {
+			return new ArrayContainer(Arrays.copyOf(values, Math.max(card, 1)), card);
+		}
+
+		@Override
+		BitsetContainer toBitset() {
+			BitsetContainer bits = new BitsetContainer();
+			for(int i = 0; i < card; i++) {
+				bits.add(values[i]);
+			}
+			return bits;
+		}
+
+		/**
+		 * Returns the values of this container that are, or are not, in another container.
+		 * @param other the container to test values against.
+		 * @param keep true to keep values in the other container, false to drop them.
+		 * @return a new container with the kept values.
+		 */
+		ArrayContainer filter(Container other, boolean keep) {
+			char[] kept = new char[Math.max(card, 1)];
+			int n = 0;
+			for(int i = 0; i < card; i++) {
+				if(other.contains(values[i]) == keep) {
+					kept[n++] = values[i];
+				}
+			}
+			return new ArrayContainer(kept, n);
+		}
+
+		/**
+		 * Merges the values of two array containers.
+		 * @param other the other container.
+		 * @return a new container holding the values of both.
+		 */
+		ArrayContainer union(ArrayContainer other) {
+			char[] merged = new char[Math.max(card + other.card, 1)];
+			int i = 0;
+			int j = 0;
+			int n = 0;
+			while(i < card || j < other.card) {
+				if(j == other.card || (i < card && values[i] < other.values[j])) {
+					merged[n++] = values[i++];
+				} else if(i == card || values[i] > other.values[j]) {
+					merged[n++] = other.values[j++];
+				} else {
+					merged[n++] = values[i++];
+					j++;
+				}
+			}
+			return new ArrayContainer(merged, n);
+		}
+	}
+
+	/**
+	 * A container holding more than 4096 values as a 65536-bit bitset.
+	 */
+	private static class BitsetContainer extends Container {
+
+		/** The bits of the values */
+		private final long[] words;
+
+		/** The number of values */
+		private int card;
+
+		/**
+		 * Constructs an empty BitsetContainer.
+		 */
+		BitsetContainer() {
+			this(new long[BITSET_WORDS], 0);
+		}
+
+		/**
+		 * Constructs a BitsetContainer over existing words.
+		 * @param words the bits of the values.
+		 * @param card the number of bits set.
+		 */
+		BitsetContainer(long[] words, int card) {
+			this.words = words;
+			this.card = card;
+		}
+
+		@Override
+		boolean contains(char value) {
+			return (words[value >>> 6] & (1L << value)) != 0;
+		}
+
+		@Override
+		Container add(char value) {
+			long before = words[value >>> 6];
+			words[value >>> 6] = before | (1L << value);
+			if(before != words[value >>> 6]) {
+				card++;
+			}
+			return this;
+		}
+
+		@Override
+		Container remove(char value) {
+			long before = words[value >>> 6];
+			words[value >>> 6] = before & ~(1L << value);
+			if(before != words[value >>> 6]) {
+				card--;
+			}
+			return card <= ARRAY_MAX ? toArrayContainer() : this;
+		}
+
+		@Override
+		int cardinality() {
+			return card;
+		}
+
+		@Override
+		void forEach(int high, IntConsumer action) {
+			for(int w = 0; w < BITSET_WORDS; w++) {
+				long word = words[w];
+				while(word != 0) {
+					action.accept(high | (w << 6) | Long.numberOfTrailingZeros(word));
+					word &= word - 1;
+				}
+			}
+		}
+
+		@Override
+		Container copy() {
+			return new BitsetContainer(words.clone(), card);
+		}
+
+		@Override
+		BitsetContainer toBitset() {
+			return this;
+		}
+
+		/**
+		 * Converts the bitset into a sorted array container.
+		 * @return an array container with the same values.
+		 */
+		ArrayContainer toArrayContainer() {
+			char[] values = new char[Math.max(card, 1)];
+			int[] n = new int[1];
+			forEach(0, v -> values[n[0]++] = (char) v);
+			return new ArrayContainer(values, card);
+		}
+
+		/**
+		 * Combines two bitsets word by word.
+		 * @param other the other bitset.
+		 * @param op 0 for AND, 1 for OR, 2 for AND NOT.
+		 * @return a new container holding the result.
+		 */
+		Container combine(BitsetContainer other, int op) {
+			long[] result = new long[BITSET_WORDS];
+			int n = 0;
+			for(int w = 0; w < BITSET_WORDS; w++) {
+				switch(op) {
+				case 0:
+					result[w] = words[w] & other.words[w];
+					break;
+				case 1:
+					result[w] = words[w] | other.words[w];
+					break;
+				default:
+					result[w] = words[w] & ~other.words[w];
+					break;
+				}
+				n += Long.bitCount(result[w]);
+			}
+			BitsetContainer bits = new BitsetContainer(result, n);
+			return n <= ARRAY_MAX ? bits.toArrayContainer() : bits;
+		}
+	}
+}
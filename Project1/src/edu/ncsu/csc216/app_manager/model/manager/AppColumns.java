@@ -0,0 +1,341 @@
+/**
+ *
+ */
+package edu.ncsu.csc216.app_manager.model.manager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+import edu.ncsu.csc216.app_manager.model.application.Application;
+import edu.ncsu.csc216.app_manager.model.command.Command;
+
+/**
+ * The AppColumns class is a columnar store of applications. Instead of one
+ * object per application, the id, state, type, processed flag and reviewer
+ * of every application live in parallel primitive arrays, with reviewers
+ * replaced by codes into a dictionary of distinct names. Counts and scans
+ * over these columns read a few bytes per application and never touch an
+ * Application object; an Application is only built again when materialize()
+ * is called for its row.
+ *
+ * Rows are kept in ascending id order, so applications must be added in
+ * that order, as they come out of an AppList or an AppSnapshot.
+ *
+ * @author Priyanshu Dongre
+ */
+public class AppColumns {
+
+	/** The state names, indexed by state code */
+	private static final String[] STATE_NAMES = {Application.REVIEW_NAME, Application.INTERVIEW_NAME,
+			Application.REFCHK_NAME, Application.OFFER_NAME, Application.WAITLIST_NAME, Application.CLOSED_NAME};
+
+	/** The type names, indexed by type code */
+	private static final String[] TYPE_NAMES = {Application.A_NEW, Application.A_OLD, Application.A_HIRED};
+
+	/** The resolution names, indexed by resolution code, with 0 meaning no resolution */
+	private static final String[] RESOLUTION_NAMES = {"", Command.R_REVCOMPLETED, Command.R_INTCOMPLETED,
+			Command.R_REFCHKCOMPLETED, Command.R_OFFERCOMPLETED};
+
+	/** The number of rows */
+	private int size;
+
+	/** The id of each row, in ascending order */
+	private int[] ids;
+
+	/** The state code of each row */
+	private byte[] states;
+
+	/** The type code of each row */
+	private byte[] types;
+
+	/** The resolution code of each row */
+	private byte[] resolutions;
+
+	/** The processed paperwork flag of each row, one bit per row */
+	private long[] processed;
+
+	/** The reviewer code of each row, with -1 meaning a null reviewer */
+	private int[] reviewers;
+
+	/** The summary of each row, only read when a row is materialized */
+	private String[] summaries;
+
+	/** The notes of each row, only read when a row is materialized */
+	private String[][] notes;
+
+	/** The distinct reviewer names, indexed by reviewer code */
+	private final ArrayList<String> reviewerNames;
+
+	/** The code of each reviewer name */
+	private final HashMap<String, Integer> reviewerCodes;
+
+	/**
+	 * Constructs an empty AppColumns.
+	 */
+	public AppColumns() {
+		size = 0;
+		ids = new int[16];
+		states = new byte[16];
+		types = new byte[16];
+		resolutions = new byte[16];
+		processed = new long[1];
+		reviewers = new int[16];
+		summaries = new String[16];
+		notes = new String[16][];
+		reviewerNames = new ArrayList<>();
+		reviewerCodes = new HashMap<>();
+	}
+
+	/**
+	 * Builds the columns of every application in a snapshot.
+	 *
+	 * @param snapshot the snapshot to store.
+	 * @return the columns of the snapshot.
+	 */
+	public static AppColumns of(AppSnapshot snapshot) {
+		AppColumns columns = new AppColumns();
+		columns.ensureCapacity(snapshot.size());
+		for(Application app: snapshot) {
+			columns.add(app);
+		}
+		return columns;
+	}
+
+	/**
+	 * Appends an application as a new row. The application itself is not kept.
+	 *
+	 * @param app the application to add, whose id must be larger than every id already added.
+	 */
+	public void add(Application app) {
+		if(size > 0 && app.getAppId() <= ids[size - 1]) {
+			throw new IllegalArgumentException("Applications must be added in id order.");
+		}
+		ensureCapacity(size + 1);
+		ids[size] = app.getAppId();
+		states[size] = (byte) code(STATE_NAMES, app.getStateName());
+		types[size] = (byte) code(TYPE_NAMES, app.getAppType());
+		resolutions[size] = (byte) code(RESOLUTION_NAMES, app.getResolution() == null ? "" : app.getResolution());
+		if(app.isProcessed()) {
+			processed[size >>> 6] |= 1L << size;
+		}
+		reviewers[size] = reviewerCode(app.getReviewer());
+		summaries[size] = app.getSummary();
+		notes[size] = app.getNotes().toArray(new String[0]);
+		size++;
+	}
+
+	/**
+	 * Returns the number of rows.
+	 *
+	 * @return the number of applications in the store.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Finds the row of an application by binary search on the id column.
+	 *
+	 * @param id the id of the application.
+	 * @return the row, or -1 if the id is not in the store.
+	 */
+	public int rowOf(int id) {
+		int row = Arrays.binarySearch(ids, 0, size, id);
+		return row < 0 ? -1 : row;
+	}
+
+	/**
+	 * Returns the id of a row.
+	 *
+	 * @param row the row.
+	 * @return the id of the application in the row.
+	 */
+	public int getAppId(int row) {
+		checkRow(row);
+		return ids[row];
+	}
+
+	/**
+	 * Returns the state name of a row.
+	 *
+	 * @param row the row.
+	 * @return the state of the application in the row.
+	 */
+	public String getStateName(int row) {
+		checkRow(row);
+		return STATE_NAMES[states[row]];
+	}
+
+	/**
+	 * Returns the type name of a row.
+	 *
+	 * @param row the row.
+	 * @return the type of the application in the row.
+	 */
+	public String getAppType(int row) {
+		checkRow(row);
+		return TYPE_NAMES[types[row]];
+	}
+
+	/**
+	 * Returns the processed paperwork flag of a row.
+	 *
+	 * @param row the row.
+	 * @return true if the paperwork of the application in the row is processed.
+	 */
+	public boolean isProcessed(int row) {
+		checkRow(row);
+		return (processed[row >>> 6] & (1L << row)) != 0;
+	}
+
+	/**
+	 * Returns the reviewer of a row.
+	 *
+	 * @param row the row.
+	 * @return the reviewer of the application in the row, or null if it has none.
+	 */
+	public String getReviewer(int row) {
+		checkRow(row);
+		return reviewers[row] < 0 ? null : reviewerNames.get(reviewers[row]);
+	}
+
+	/**
+	 * Counts the applications in each state with a single pass over the state column.
+	 *
+	 * @return a map from state name to the number of applications in that state.
+	 */
+	public HashMap<String, Integer> countByState() {
+		int[] counts = new int[STATE_NAMES.length];
+		for(int row = 0; row < size; row++) {
+			counts[states[row]]++;
+		}
+		HashMap<String, Integer> result = new HashMap<>();
+		for(int i = 0; i < counts.length; i++) {
+			result.put(STATE_NAMES[i], counts[i]);
+		}
+		return result;
+	}
+
+	/**
+	 * Counts the applications matching every given condition. A null
+	 * condition matches every application.
+	 *
+	 * @param state the state name to match, or null.
+	 * @param type the type name to match, or null.
+	 * @param isProcessed the processed flag to match, or null.
+	 * @param reviewer the reviewer to match, the empty string for applications
+	 *        without a reviewer, or null.
+	 * @return the number of matching applications.
+	 */
+	public int count(String state, String type, Boolean isProcessed, String reviewer) {
+		int stateCode = state == null ? -1 : code(STATE_NAMES, state);
+		int typeCode = type == null ? -1 : code(TYPE_NAMES, type);
+		int processedBit = isProcessed == null ? -1 : isProcessed ? 1 : 0;
+		// Applications without a reviewer may hold null (code -1) or the empty string.
+		int reviewerCode = -2;
+		int otherCode = -2;
+		if(reviewer != null) {
+			Integer code = reviewerCodes.get(reviewer);
+			reviewerCode = code == null ? Integer.MIN_VALUE : code;
+			otherCode = "".equals(reviewer) ? -1 : reviewerCode;
+		}
+		int count = 0;
+		for(int row = 0; row < size; row++) {
+			if((stateCode < 0 || states[row] == stateCode)
+					&& (typeCode < 0 || types[row] == typeCode)
+					&& (processedBit < 0 || (int) (processed[row >>> 6] >>> row & 1L) == processedBit)
+					&& (reviewer == null || reviewers[row] == reviewerCode || reviewers[row] == otherCode)) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Builds the Application stored in a row.
+	 *
+	 * @param row the row.
+	 * @return a new Application equal to the one that was added.
+	 */
+	public Application materialize(int row) {
+		checkRow(row);
+		ArrayList<String> noteList = new ArrayList<>(notes[row].length);
+		for(String note: notes[row]) {
+			// The constructor takes notes as read from a file: without the
+			// leading '-' and with one trailing character that it drops.
+			noteList.add(note.substring(1) + "\n");
+		}
+		String reviewer = getReviewer(row);
+		return new Application(ids[row], STATE_NAMES[states[row]], TYPE_NAMES[types[row]], summaries[row],
+				reviewer, isProcessed(row), RESOLUTION_NAMES[resolutions[row]], noteList);
+	}
+
+	/**
+	 * Looks up the code of a name.
+	 *
+	 * @param names the names, indexed by code.
+	 * @param name the name to look up.
+	 * @return the code of the name.
+	 */
+	private static int code(String[] names, String name) {
+		for(int i = 0; i < names.length; i++) {
+			if(names[i] == name || names[i].equals(name)) {
+				return i;
+			}
+		}
+		throw new IllegalArgumentException("Invalid name.");
+	}
+
+	/**
+	 * Returns the dictionary code of a reviewer, adding the reviewer to the
+	 * dictionary if it is new.
+	 *
+	 * @param reviewer the reviewer.
+	 * @return the code of the reviewer, or -1 for null.
+	 */
+	private int reviewerCode(String reviewer) {
+		if(reviewer == null) {
+			return -1;
+		}
+		Integer code = reviewerCodes.get(reviewer);
+		if(code == null) {
+			code = reviewerNames.size();
+			reviewerNames.add(reviewer);
+			reviewerCodes.put(reviewer, code);
+		}
+		return code;
+	}
+
+	/**
+	 * Grows the columns to hold at least the given number of rows.
+	 *
+	 * @param capacity the number of rows.
+	 */
+	private void ensureCapacity(int capacity) {
+		if(capacity > ids.length) {
+			int length = Math.max(capacity, ids.length * 2);
+			ids = Arrays.copyOf(ids, length);
+			states = Arrays.copyOf(states, length);
+			types = Arrays.copyOf(types, length);
+			resolutions = Arrays.copyOf(resolutions, length);
+			reviewers = Arrays.copyOf(reviewers, length);
+			summaries = Arrays.copyOf(summaries, length);
+			notes = Arrays.copyOf(notes, length);
+		}
+		if((capacity + 63) >>> 6 > processed.length) {
+			processed = Arrays.copyOf(processed, Math.max((capacity + 63) >>> 6, processed.length * 2));
+		}
+	}
+
+	/**
+	 * Checks that a row exists.
+	 *
+	 * @param row the row.
+	 */
+	private void checkRow(int row) {
+		if(row < 0 || row >= size) {
+			throw new IndexOutOfBoundsException("Invalid row.");
+		}
+	}
+}
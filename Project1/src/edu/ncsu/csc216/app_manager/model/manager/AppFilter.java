@@ -0,0 +1,184 @@
+/**
+ *
+ */
+package edu.ncsu.csc216.app_manager.model.manager;
+
+/**
+ * The AppFilter class describes a condition on applications that can be
+ * answered from the bitmap indexes of an AppList. Simple filters match a
+ * state, a type, a reviewer or the processed paperwork flag, and they can be
+ * combined with and(), or() and not() into compound filters such as
+ * "Old applications in Waitlist whose paperwork is not processed".
+ *
+ * AppFilter objects are immutable, so a filter can be built once and reused.
+ *
+ * @author Priyanshu Dongre
+ */
+public class AppFilter {
+
+	/**
+	 * Enumeration of the kinds of filter.
+	 */
+	private enum Kind { ALL, STATE, TYPE, REVIEWER, PROCESSED, AND, OR, NOT }
+
+	/** The kind of this filter */
+	private final Kind kind;
+
+	/** The state, type or reviewer matched by a simple filter */
+	private final String value;
+
+	/** The value of the processed flag matched by a PROCESSED filter */
+	private final boolean flag;
+
+	/** The first operand of a compound filter */
+	private final AppFilter left;
+
+	/** The second operand of an AND or OR filter */
+	private final AppFilter right;
+
+	/**
+	 * Constructs an AppFilter.
+	 *
+	 * @param kind the kind of filter.
+	 * @param value the state, type or reviewer to match.
+	 * @param flag the processed flag to match.
+	 * @param left the first operand.
+	 * @param right the second operand.
+	 */
+	private AppFilter(Kind kind, String value, boolean flag, AppFilter left, AppFilter right) {
+		this.kind = kind;
+		this.value = value;
+		this.flag = flag;
+		this.left = left;
+		this.right = right;
+	}
+
+	/**
+	 * Returns a filter that matches every application.
+	 *
+	 * @return the filter.
+	 */
+	public static AppFilter all() {
+		return new AppFilter(Kind.ALL, null, false, null, null);
+	}
+
+	/**
+	 * Returns a filter that matches applications in a state.
+	 *
+	 * @param state the name of the state (e.g., Review, Interview).
+	 * @return the filter.
+	 */
+	public static AppFilter state(String state) {
+		if(state == null || "".equals(state)) {
+			throw new IllegalArgumentException("Invalid state.");
+		}
+		return new AppFilter(Kind.STATE, state, false, null, null);
+	}
+
+	/**
+	 * Returns a filter that matches applications of a type.
+	 *
+	 * @param type the name of the type (e.g., New, Old).
+	 * @return the filter.
+	 */
+	public static AppFilter type(String type) {
+		if(type == null || "".equals(type)) {
+			throw new IllegalArgumentException("Invalid type.");
+		}
+		return new AppFilter(Kind.TYPE, type, false, null, null);
+	}
+
+	/**
+	 * Returns a filter that matches applications assigned to a reviewer.
+	 *
+	 * @param reviewer the reviewer, or null or empty for applications without one.
+	 * @return the filter.
+	 */
+	public static AppFilter reviewer(String reviewer) {
+		return new AppFilter(Kind.REVIEWER, reviewer, false, null, null);
+	}
+
+	/**
+	 * Returns a filter that matches applications by their processed paperwork flag.
+	 *
+	 * @param processed the value of the flag to match.
+	 * @return the filter.
+	 */
+	public static AppFilter processed(boolean processed) {
+		return new AppFilter(Kind.PROCESSED, null, processed, null, null);
+	}
+
+	/**
+	 * Returns a filter that matches applications matched by both this filter and another.
+	 *
+	 * @param other the other filter.
+	 * @return the combined filter.
+	 */
+	public AppFilter and(AppFilter other) {
+		return new AppFilter(Kind.AND, null, false, this, checkOperand(other));
+	}
+
+	/**
+	 * Returns a filter that matches applications matched by this filter or another.
+	 *
+	 * @param other the other filter.
+	 * @return the combined filter.
+	 */
+	public AppFilter or(AppFilter other) {
+		return new AppFilter(Kind.OR, null, false, this, checkOperand(other));
+	}
+
+	/**
+	 * Returns a filter that matches applications not matched by this filter.
+	 *
+	 * @return the negated filter.
+	 */
+	public AppFilter not() {
+		return new AppFilter(Kind.NOT, null, false, this, null);
+	}
+
+	/**
+	 * Evaluates the filter against the bitmaps of an index.
+	 *
+	 * @param index the index to evaluate against.
+	 * @return the ids of the matching applications, which must not be modified.
+	 */
+	AppBitmap evaluate(BitmapIndex index) {
+		switch(kind) {
+		case STATE:
+			return index.state(value);
+		case TYPE:
+			return index.type(value);
+		case REVIEWER:
+			return index.reviewer(value);
+		case PROCESSED:
+			return index.processed(flag);
+		case AND:
+			if(right.kind == Kind.NOT) {
+				return left.evaluate(index).andNot(right.left.evaluate(index));
+			} else if(left.kind == Kind.NOT) {
+				return right.evaluate(index).andNot(left.left.evaluate(index));
+			}
+			return left.evaluate(index).and(right.evaluate(index));
+		case OR:
+			return left.evaluate(index).or(right.evaluate(index));
+		case NOT:
+			return index.all().andNot(left.evaluate(index));
+		default:
+			return index.all();
+		}
+	}
+
+	/**
+	 * Checks the operand of a compound filter.
+	 *
+	 * @param other the operand.
+	 * @return the operand.
+	 */
+	private static AppFilter checkOperand(AppFilter other) {
+		if(other == null) {
+			throw new IllegalArgumentException("Invalid filter.");
+		}
+		return other;
+	}
+}
@@ -4,7 +4,10 @@
 package edu.ncsu.csc216.app_manager.model.manager;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
+import java.util.stream.IntStream;
 
 import edu.ncsu.csc216.app_manager.model.application.Application;
 import edu.ncsu.csc216.app_manager.model.application.Application.AppType;
@@ -15,32 +18,91 @@ import edu.ncsu.csc216.app_manager.model.command.Command;
  * retrieving, and deleting applications, as well as executing commands 
  * that update the state of the applications.
  * 
- * The class also provides methods for filtering applications by type or ID.
+ * The class also provides methods for filtering applications by type, state,
+ * ID or an AppFilter. Applications are indexed in compressed bitmaps by
+ * state, type, reviewer and processed flag, and the bitmaps are kept current
+ * through each application's update listener, so filters are answered by
+ * combining bitmaps rather than scanning the list.
+ * 
+ * The methods that read or change the table are synchronized, while new
+ * ids are allocated without locking. Readers that should not wait
+ * for commands take an AppSnapshot instead, which is created in constant
+ * time and is never changed by later commands.
+ * 
+ * The list also remembers which applications were added, changed or
+ * deleted since the changes were last taken with takeChanges(), so that a
+ * save can write only those applications.
  *
  * @author Priyanshu Dongre
  */
 public class AppList {
 
 	/**
-	 * A counter used to track the number of applications
+	 * Enumeration of the ways addApps can resolve an incoming application
+	 * whose id is already in the list.
+	 */
+	public enum MergePolicy { KEEP_EXISTING, REPLACE, MERGE_NOTES }
+
+	/**
+	 * The number of distinct applications a command batch must touch before
+	 * they are updated in parallel.
+	 */
+	private static final int PARALLEL_BATCH_THRESHOLD = 2048;
+
+	/**
+	 * The id-keyed table holding the applications in ascending id order.
 	 */
-	private int counter;
+	private AppTable appTable;
 	
 	/**
-	 * A reference to the current application being managed or processed.
+	 * The bitmap indexes over the applications in the table.
 	 */
-	private ArrayList<Application> appList;
+	private BitmapIndex bitmapIndex;
 	
+	/**
+	 * The listener that moves applications between index entries when they are updated.
+	 */
+	private final Application.UpdateListener indexUpdater = new IndexUpdater();
+	
+	/**
+	 * The allocator that hands out the ids of new applications.
+	 */
+	private final IdAllocator idAllocator;
+	
+	/**
+	 * The ids of the applications added or changed since the changes were last taken.
+	 */
+	private AppBitmap dirty;
+	
+	/**
+	 * The ids of the applications deleted since the changes were last taken.
+	 */
+	private AppBitmap deleted;
 	
 
 	/**
 	 * Constructs an instance of the AppList class.
-	 * Initializes the counter to 0 and creates an empty ArrayList to hold application objects.
+	 * Creates an empty table to hold application objects.
 	 */
 	
 	public AppList() {
-		counter = 0;
-		appList = new ArrayList<>();
+		appTable = new AppTable();
+		bitmapIndex = new BitmapIndex();
+		idAllocator = new IdAllocator();
+		dirty = new AppBitmap();
+		deleted = new AppBitmap();
+	}
+	
+	
+	/**
+	 * Returns the allocator that hands out application ids. Ingest workers can
+	 * reserve blocks of ids from it, create applications with those ids, and
+	 * add them with addApps.
+	 * 
+	 * @return the id allocator of the list.
+	 */
+	public IdAllocator getIdAllocator() {
+		return idAllocator;
 	}
 	
 	
@@ -50,93 +112,197 @@ public class AppList {
 	 * @param appType the type of the application (e.g., NEW, OLD, HIRED).
 	 * @param summary a brief summary of the application.
 	 * @param note any additional notes for the application.
-	 * @return the ID of the newly added application.
+	 * @return the ID after the one given to the new application, which is the
+	 *         next ID when no other thread allocates one in between; the new
+	 *         application's own ID is this value minus one.
 	 */
 	public int addApp(AppType appType, String summary, String note) {
-		if(appList.size() == 0) {
-			counter = counter + 1;
-		}
+		Application app = new Application(idAllocator.nextId(), appType, summary, note);
 		
-		Application app = new Application(counter, appType, summary, note);
-		
-		//Adds the above app to the list using list's method ({below} add() is not a custom method).
-		this.appList.add(app);
-		sortList();
-		return counter;
+		synchronized(this) {
+			store(app);
+		}
+		return app.getAppId() + 1;
 	}
 	
 	
 	/**
 	 * Adds a list of applications to the existing application list.
+	 * Applications whose id is already in the list are skipped.
 	 * 
 	 * @param list the list of applications to add.
 	 */
 	public void addApps(List<Application> list) {
-		
-		//This will remove the duplicate elements.
-		for(int i = 0; i < this.appList.size(); i++) {
-			for(int j = 0; j < list.size(); j++) {
-				if(this.appList.get(i).getAppId() == list.get(j).getAppId()) {
-					list.remove(j);
-				}
-			}
+		addApps(list, MergePolicy.KEEP_EXISTING);
+	}
+	
+	/**
+	 * Merges a list of applications into the application list. The incoming
+	 * applications are sorted by id once and then merged in id order; an
+	 * application whose id is already taken, either by the list or by an
+	 * earlier application in the batch, is resolved by the given policy.
+	 * The caller's list is not modified.
+	 * 
+	 * @param list the list of applications to merge.
+	 * @param policy how to resolve applications whose id is already taken.
+	 * @return a report of the ids that were added, replaced, merged and skipped.
+	 */
+	public synchronized MergeReport addApps(List<Application> list, MergePolicy policy) {
+		if(list == null || policy == null) {
+			throw new IllegalArgumentException("Invalid list");
 		}
+		Application[] batch = list.toArray(new Application[0]);
+		Arrays.sort(batch, Comparator.comparingInt(Application::getAppId));
 		
-		//This will add the clearedList to AppList
-		for(int i = 0; i < list.size(); i++) {
-			this.addApp(list.get(i));
+		MergeReport report = new MergeReport();
+		for(Application app: batch) {
+			Application existing = appTable.get(app.getAppId());
+			if(existing == null) {
+				store(app);
+				report.added(app.getAppId());
+			} else if(policy == MergePolicy.REPLACE) {
+				unindex(existing);
+				existing.setUpdateListener(null);
+				store(app);
+				report.replaced(app.getAppId());
+			} else if(policy == MergePolicy.MERGE_NOTES) {
+				writable(app.getAppId()).mergeNotes(app);
+				report.merged(app.getAppId());
+			} else {
+				report.skipped(app.getAppId());
+			}
 		}
-		//This will sort it afterwards.
-		sortList();
+		return report;
 	}
 	
-	private void sortList() {
-		for(int i = 0; i < appList.size(); i++) {
-			for(int j = 0; j < appList.size() && j != i; j++) {
-				Application temp = appList.get(i);
-				if(appList.get(j).getAppId() > appList.get(i).getAppId()) {
-					appList.set(i, appList.get(j));
-					appList.set(j, temp);
-				}
-			}
-		}
-		if(appList.size() > 0)
-		counter = appList.getLast().getAppId() + 1;
+	/**
+	 * Puts an application into the table and the indexes, and starts
+	 * listening to its updates.
+	 * 
+	 * @param app the application to store.
+	 */
+	private void store(Application app) {
+		appTable.put(app);
+		dirty.add(app.getAppId());
+		deleted.remove(app.getAppId());
+		idAllocator.observe(app.getAppId());
+		index(app);
+		app.setUpdateListener(indexUpdater);
 	}
 	
 	/**
-	 * Adds a single application to the list.
+	 * Returns the application with the given id, ready to be changed. If the
+	 * application may be visible through a snapshot, it is first replaced in
+	 * the table by a copy so that the snapshot keeps the unchanged original.
 	 * 
-	 * @param application the application to add.
+	 * @param id the id of the application.
+	 * @return the application to change, or null if the id is not in the list.
 	 */
-	private void addApp(Application application) {
-		if(this.appList.size() == 0) {
-			this.appList.add(application);
-			//counter = counter + 1;
-			return;
+	private Application writable(int id) {
+		Application app = appTable.get(id);
+		if(app != null) {
+			dirty.add(id);
 		}
-		
-		for(int i = 0; i < this.appList.size(); i++) {
-			
-			if(this.appList.get(i).getAppId() > application.getAppId()) {
-				this.appList.add(i, application);
-				//counter = counter + 1;
-				return;
-			}
+		if(app != null && appTable.isShared(id)) {
+			app.setUpdateListener(null);
+			app = new Application(app);
+			appTable.put(app);
+			app.setUpdateListener(indexUpdater);
 		}
-		appList.add(application);
-		//counter += 1;
+		return app;
 	}
 	
+	/**
+	 * Adds an application to the bitmap indexes.
+	 * 
+	 * @param app the application to index.
+	 */
+	private void index(Application app) {
+		bitmapIndex.add(app);
+	}
 	
 	/**
-	 * Returns a list of applications filtered by the specified type.
+	 * Removes an application from the bitmap indexes.
 	 * 
-	 * @return a list of Application objects of the given type.
+	 * @param app the application to remove from the indexes.
+	 */
+	private void unindex(Application app) {
+		bitmapIndex.remove(app);
+	}
+	
+	/**
+	 * Looks up the applications whose ids are in a bitmap.
+	 * 
+	 * @param ids the ids to look up.
+	 * @return the applications in id order.
 	 */
-	public List<Application> getApps() { 
-		sortList();
-		return this.appList;
+	private List<Application> lookup(AppBitmap ids) {
+		ArrayList<Application> list = new ArrayList<>(ids.cardinality());
+		ids.forEach(id -> list.add(appTable.get(id)));
+		return list;
+	}
+	
+	
+	/**
+	 * Returns the applications in the list ordered by id. The list returned
+	 * is a new copy owned by the caller and does not take a snapshot, so
+	 * the applications in it stay the ones in the list until the next
+	 * snapshot is taken. A command executed after a snapshot may replace an
+	 * application with a copy, so callers look applications up again by id
+	 * after each command rather than keep them.
+	 * 
+	 * @return a list of all Application objects.
+	 */
+	public synchronized List<Application> getApps() { 
+		ArrayList<Application> list = new ArrayList<>(appTable.size());
+		for(Application app: appTable) {
+			list.add(app);
+		}
+		return list;
+	}
+	
+	
+	/**
+	 * Takes an immutable snapshot of the list in constant time.
+	 * 
+	 * @return a snapshot of the applications currently in the list.
+	 */
+	public synchronized AppSnapshot snapshot() {
+		return new AppSnapshot(appTable.freeze());
+	}
+	
+	
+	/**
+	 * Takes a snapshot together with the ids of the applications added,
+	 * changed and deleted since the changes were last taken, and starts
+	 * tracking changes afresh from that snapshot.
+	 * 
+	 * @return the snapshot and the changes leading up to it.
+	 */
+	synchronized Changes takeChanges() {
+		Changes changes = new Changes(snapshot(), dirty.toArray(), deleted.toArray());
+		dirty = new AppBitmap();
+		deleted = new AppBitmap();
+		return changes;
+	}
+	
+	/**
+	 * Puts back changes that were taken but could not be saved, so that the
+	 * next save writes them. Changes made since they were taken stay as they are.
+	 * 
+	 * @param changes the changes returned by takeChanges().
+	 */
+	synchronized void restoreChanges(Changes changes) {
+		for(int id: changes.getDirtyIds()) {
+			if(appTable.contains(id)) {
+				dirty.add(id);
+			}
+		}
+		for(int id: changes.getDeletedIds()) {
+			if(!appTable.contains(id)) {
+				deleted.add(id);
+			}
+		}
 	}
 	
 	
@@ -146,35 +312,70 @@ public class AppList {
 	 * @param type the type of applications to return (e.g., NEW, OLD).
 	 * @return a list of Application objects of the given type.
 	 */
-	public List<Application> getAppsByType(String type) { 
+	public synchronized List<Application> getAppsByType(String type) { 
 		
 		if(type == null || "".equals(type)) {
 			throw new IllegalArgumentException("Invalid type");
 		}
-		ArrayList<Application> list = new ArrayList<>();
-		for(int i = 0; i < appList.size(); i++) {
-			Application temp = appList.get(i);
-			if(type.equals(temp.getAppType())) {
-				list.add(temp);
-			}
+		return lookup(bitmapIndex.type(type));
+	}
+	
+	
+	/**
+	 * Returns a list of applications in the specified state.
+	 * 
+	 * @param state the name of the state (e.g., Review, Interview).
+	 * @return a list of Application objects in the given state.
+	 */
+	public synchronized List<Application> getAppsByState(String state) { 
+		
+		if(state == null || "".equals(state)) {
+			throw new IllegalArgumentException("Invalid state");
 		}
-		return list;
+		return lookup(bitmapIndex.state(state));
+	}
+	
+	
+	/**
+	 * Returns the applications matched by a filter.
+	 * 
+	 * @param filter the filter to apply.
+	 * @return a list of the matching Application objects in id order.
+	 */
+	public synchronized List<Application> getApps(AppFilter filter) { 
+		
+		if(filter == null) {
+			throw new IllegalArgumentException("Invalid filter");
+		}
+		return lookup(filter.evaluate(bitmapIndex));
 	}
 	
 	
 	/**
-	 * Retrieves an application by its ID.
+	 * Counts the applications matched by a filter without looking them up.
+	 * 
+	 * @param filter the filter to apply.
+	 * @return the number of matching applications.
+	 */
+	public synchronized int countApps(AppFilter filter) { 
+		
+		if(filter == null) {
+			throw new IllegalArgumentException("Invalid filter");
+		}
+		return filter.evaluate(bitmapIndex).cardinality();
+	}
+	
+	
+	/**
+	 * Retrieves an application by its ID. The application may be shared with
+	 * a snapshot, so it is only read; it is changed through executeCommand(),
+	 * which may replace it with a copy in the list.
 	 * 
 	 * @param id the ID of the application to retrieve.
 	 * @return the Application object with the given ID, or null if not found.
 	 */
-	public Application getAppById(int id) { 
-		for(int i = 0; i < appList.size(); i++) {
-			if(appList.get(i).getAppId() == id) {
-				return this.appList.get(i);
-			}
-		}
-		return null;
+	public synchronized Application getAppById(int id) { 
+		return appTable.get(id);
 	}
 	
 	/**
@@ -184,26 +385,281 @@ public class AppList {
 	 * @param id the ID of the application to update.
 	 * @param command the command to execute on the application.
 	 */
-	public void executeCommand(int id, Command command) {
-		for(Application app: appList) {
-			if(id == app.getAppId()) {
-				app.update(command);
-			}
+	public synchronized void executeCommand(int id, Command command) {
+		Application app = writable(id);
+		if(app != null) {
+			app.update(command);
 		}
 	}
 	
+	/**
+	 * Executes a batch of commands. The targets of all commands are resolved
+	 * in one pass over the batch sorted by id, commands for the same
+	 * application are applied in batch order, and different applications are
+	 * updated in parallel when the batch is large enough. The indexes are
+	 * brought up to date once per application afterwards.
+	 *
+	 * A command that is not valid for its application is recorded as
+	 * rejected and does not stop the rest of the batch, including later
+	 * commands for the same application.
+	 *
+	 * @param batch the commands to execute.
+	 * @return the outcome of each command, by its position in the batch.
+	 */
+	public synchronized BatchResult executeCommands(CommandBatch batch) {
+		if(batch == null) {
+			throw new IllegalArgumentException("Invalid batch");
+		}
+		BatchResult result = new BatchResult(batch.size());
+		BatchPlan plan = new BatchPlan(batch);
+		for(int g = 0; g < plan.groups(); g++) {
+			Application app = writable(plan.id(g));
+			if(app != null) {
+				unindex(app);
+				app.setUpdateListener(null);
+			}
+			plan.target(g, app);
+		}
+		plan.apply(result);
+		for(int g = 0; g < plan.groups(); g++) {
+			Application app = plan.target(g);
+			if(app != null) {
+				index(app);
+				app.setUpdateListener(indexUpdater);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Executes a batch of commands as one transaction: either every command
+	 * is applied or the list is left exactly as it was. Each application the
+	 * batch touches is copied once, all commands are applied to the copies,
+	 * and only when every command succeeded are the copies put in place of
+	 * the originals. Applications the batch does not touch are never copied.
+	 *
+	 * Every command is checked even after one fails, so the result reports
+	 * each command that was rejected or whose id is not in the list.
+	 *
+	 * @param batch the commands to execute.
+	 * @return the outcome of each command; isCommitted() tells whether the batch was applied.
+	 */
+	public synchronized BatchResult executeTransaction(CommandBatch batch) {
+		if(batch == null) {
+			throw new IllegalArgumentException("Invalid batch");
+		}
+		BatchResult result = new BatchResult(batch.size());
+		BatchPlan plan = new BatchPlan(batch);
+		for(int g = 0; g < plan.groups(); g++) {
+			Application app = appTable.get(plan.id(g));
+			plan.target(g, app == null ? null : new Application(app));
+		}
+		plan.apply(result);
+		if(result.getFailedCount() > 0) {
+			result.rolledBack();
+		} else {
+			for(int g = 0; g < plan.groups(); g++) {
+				Application old = appTable.get(plan.id(g));
+				unindex(old);
+				old.setUpdateListener(null);
+				store(plan.target(g));
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * The commands of a batch grouped by the application they target. The
+	 * batch is sorted once by id and position, so that each group holds the
+	 * commands for one id in batch order.
+	 */
+	private static class BatchPlan {
+
+		/** The batch being executed */
+		private final CommandBatch batch;
+
+		/** The id of each command shifted into the high half, with its position in the low half */
+		private final long[] order;
+
+		/** The first entry in order of each group, followed by one past the last group */
+		private final int[] groupStarts;
+
+		/** The application each group is applied to, or null if its id is not in the list */
+		private final Application[] targets;
+
+		/** The number of groups */
+		private int groups;
+
+		/**
+		 * Groups the commands of a batch by id.
+		 * @param batch the batch to group.
+		 */
+		BatchPlan(CommandBatch batch) {
+			this.batch = batch;
+			int size = batch.size();
+			// Sorting id and position packed in one long keeps each id's commands in batch order.
+			order = new long[size];
+			for(int i = 0; i < size; i++) {
+				order[i] = (long) batch.getId(i) << 32 | i;
+			}
+			Arrays.sort(order);
+			groupStarts = new int[size + 1];
+			groups = 0;
+			for(int i = 0; i < size; i++) {
+				if(i == 0 || order[i] >> 32 != order[i - 1] >> 32) {
+					groupStarts[groups++] = i;
+				}
+			}
+			groupStarts[groups] = size;
+			targets = new Application[groups];
+		}
+
+		/**
+		 * Returns the number of groups.
+		 * @return the number of distinct ids in the batch.
+		 */
+		int groups() {
+			return groups;
+		}
+
+		/**
+		 * Returns the id targeted by a group.
+		 * @param g the group.
+		 * @return the id of the group.
+		 */
+		int id(int g) {
+			return (int) (order[groupStarts[g]] >> 32);
+		}
+
+		/**
+		 * Returns the application a group is applied to.
+		 * @param g the group.
+		 * @return the application, or null if the id is not in the list.
+		 */
+		Application target(int g) {
+			return targets[g];
+		}
+
+		/**
+		 * Sets the application a group is applied to.
+		 * @param g the group.
+		 * @param app the application, or null if the id is not in the list.
+		 */
+		void target(int g, Application app) {
+			targets[g] = app;
+		}
+
+		/**
+		 * Applies every group to its target, in parallel when there are
+		 * enough groups. Each group only touches its own application.
+		 * @param result the result to record the outcome of each command in.
+		 */
+		void apply(BatchResult result) {
+			IntStream range = IntStream.range(0, groups);
+			if(groups >= PARALLEL_BATCH_THRESHOLD) {
+				range = range.parallel();
+			}
+			range.forEach(g -> {
+				Application app = targets[g];
+				for(int i = groupStarts[g]; i < groupStarts[g + 1]; i++) {
+					int index = (int) order[i];
+					if(app == null) {
+						result.notFound(index);
+						continue;
+					}
+					try {
+						app.update(batch.getCommand(index));
+						result.applied(index);
+					} catch(UnsupportedOperationException e) {
+						result.rejected(index, e);
+					}
+				}
+			});
+		}
+	}
+
 	/**
 	 * Deletes an application by its ID.
 	 * 
 	 * @param id the ID of the application to delete.
 	 */
-	public void deleteAppById(int id) {
-		for(int i = 0; i < appList.size(); i++) {
-			if(appList.get(i).getAppId() == id) {
-				this.appList.remove(i);
-			}
+	public synchronized void deleteAppById(int id) {
+		Application app = appTable.remove(id);
+		if(app != null) {
+			dirty.remove(id);
+			deleted.add(id);
+			unindex(app);
+			app.setUpdateListener(null);
 		}
+	}
+	
+	/**
+	 * Keeps the bitmap indexes current while an application moves
+	 * between states.
+	 */
+	private class IndexUpdater implements Application.UpdateListener {
+
+		@Override
+		public void beforeUpdate(Application app) {
+			unindex(app);
+		}
+
+		@Override
+		public void afterUpdate(Application app) {
+			index(app);
+			dirty.add(app.getAppId());
+		}
+	}
+	
+	/**
+	 * A snapshot of the list together with the ids of the applications
+	 * added, changed and deleted before it was taken.
+	 */
+	static class Changes {
 		
+		/** The snapshot of the list */
+		private final AppSnapshot snapshot;
+		
+		/** The ids of the added and changed applications, in ascending order */
+		private final int[] dirtyIds;
+		
+		/** The ids of the deleted applications, in ascending order */
+		private final int[] deletedIds;
+		
+		/**
+		 * Constructs a Changes.
+		 * @param snapshot the snapshot of the list.
+		 * @param dirtyIds the ids of the added and changed applications.
+		 * @param deletedIds the ids of the deleted applications.
+		 */
+		Changes(AppSnapshot snapshot, int[] dirtyIds, int[] deletedIds) {
+			this.snapshot = snapshot;
+			this.dirtyIds = dirtyIds;
+			this.deletedIds = deletedIds;
+		}
+		
+		/**
+		 * Returns the snapshot of the list.
+		 * @return the snapshot.
+		 */
+		AppSnapshot getSnapshot() {
+			return snapshot;
+		}
+		
+		/**
+		 * Returns the ids of the added and changed applications.
+		 * @return the ids in ascending order.
+		 */
+		int[] getDirtyIds() {
+			return dirtyIds;
+		}
+		
+		/**
+		 * Returns the ids of the deleted applications.
+		 * @return the ids in ascending order.
+		 */
+		int[] getDeletedIds() {
+			return deletedIds;
+		}
 	}
 }
-
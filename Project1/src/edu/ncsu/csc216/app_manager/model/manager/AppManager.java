@@ -3,14 +3,29 @@
  */
 package edu.ncsu.csc216.app_manager.model.manager;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import edu.ncsu.csc216.app_manager.model.application.Application;
 import edu.ncsu.csc216.app_manager.model.application.Application.AppType;
 import edu.ncsu.csc216.app_manager.model.command.Command;
+import edu.ncsu.csc216.app_manager.model.io.AppCheckpoint;
+import edu.ncsu.csc216.app_manager.model.io.AppDelta;
+import edu.ncsu.csc216.app_manager.model.io.AppJournal;
 import edu.ncsu.csc216.app_manager.model.io.AppReader;
 import edu.ncsu.csc216.app_manager.model.io.AppWriter;
+import edu.ncsu.csc216.app_manager.model.io.WalWriter;
 
 /**
  * The AppManager class is responsible for managing the application's data and
@@ -21,6 +36,24 @@ import edu.ncsu.csc216.app_manager.model.io.AppWriter;
  * create new application lists, retrieve applications by their type or ID, and
  * execute commands on applications.
  * 
+ * When a journal is opened with recover(), every application added, command
+ * executed and application deleted through the AppManager is also appended
+ * to the journal, and checkpoint() saves a snapshot and empties the journal.
+ * Changes check for the journal and log to it under the same lock that
+ * recover() and closeJournal() hold, so a change is logged to the journal
+ * that was open when it was applied, and only waits for the commit after
+ * releasing the lock.
+ * 
+ * Saves can also be incremental: saveDeltaToFile() appends only the
+ * applications changed since the last delta save to a delta file, and the
+ * deltas are folded back into the base file by compactDeltas(), which can
+ * run periodically in the background. The changes are tracked against one
+ * base file: the first file saved in full, or the file given to
+ * loadAppsWithDeltas(). Full saves to other files and checkpoints to
+ * another snapshot leave the tracked changes alone. Full saves replace the
+ * file atomically, and can run on a background thread with
+ * saveAppsInBackground().
+ * 
  * @author Priyanshu Dongre
  */
 public class AppManager {
@@ -33,12 +66,39 @@ public class AppManager {
 	/** The AppList instance managed by the AppManager */
 	private AppList appList;
 	
+	/** The journal changes are recorded in, or null if there is none */
+	private volatile AppJournal journal;
+	
+	/** The snapshot file the journal continues from, or null if there is none */
+	private String snapshotFileName;
+	
+	/** Guards delta files, so that saves and compactions do not overlap */
+	private final Object deltaLock = new Object();
+	
+	/** The base file the tracked changes are relative to, or null if there is none yet */
+	private String deltaBaseFileName;
+	
+	/** The delta file of the base file, or null if there is none */
+	private String baseDeltaFileName;
+	
+	/** The executor running background compaction, or null if there is none */
+	private ScheduledExecutorService compactor;
+	
+	/** The executor running background saves one at a time; its thread ends when idle */
+	private final ThreadPoolExecutor saver;
+	
 	/**
 	 * Private constructor to prevent external instantiation.
 	 * Initializes the AppManager instance.
 	 */
 	private AppManager() {
 		appList = new AppList();
+		saver = new ThreadPoolExecutor(1, 1, 1, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+			Thread thread = new Thread(r, "app-saver");
+			thread.setDaemon(true);
+			return thread;
+		});
+		saver.allowCoreThreadTimeOut(true);
 	}
 	
 	
@@ -57,13 +117,398 @@ public class AppManager {
 	
 	
 	/**
-	 * Saves the current application list to the specified file.
+	 * Saves the current application list to the specified file. The file is
+	 * replaced atomically, so a crash during the save leaves the previous
+	 * file intact. If no base file is set, the saved file becomes the base
+	 * that later delta saves are relative to, and saving to it marks the
+	 * list as saved. Saving to any other file leaves the unsaved changes of
+	 * the base as they are. When the base has a delta file, the changes are
+	 * appended to it before the base is rewritten and it is removed after,
+	 * so a crash between the two still loads the saved list.
 	 * 
 	 * @param fileName the name of the file to save the applications to.
 	 */
 	public void saveAppsToFile(String fileName) { 	
-		AppWriter.writeAppsToFile(fileName, appList.getApps());
-		
+		synchronized(deltaLock) {
+			if(!bindDeltaBase(fileName)) {
+				AppWriter.writeAppsToFileAtomically(fileName, appList.snapshot().getApps());
+				return;
+			}
+			AppList.Changes changes = appList.takeChanges();
+			try {
+				saveBase(fileName, changes, -1);
+			} catch(IllegalArgumentException e) {
+				appList.restoreChanges(changes);
+				throw e;
+			}
+		}
+	}
+	
+	/**
+	 * Saves the current application list to the specified file on a
+	 * background thread and returns at once. The list is saved as it is
+	 * when this method is called, from a snapshot taken in constant time,
+	 * so commands can continue while a large list is written. The file is
+	 * replaced atomically as by saveAppsToFile(), and background saves run
+	 * one at a time in the order they were requested.
+	 * 
+	 * The base file of delta saves is handled as by saveAppsToFile(): if it
+	 * has a delta file, the list is saved as it is when the background
+	 * thread writes it rather than from the snapshot.
+	 * 
+	 * The listener is called on the background thread when the save
+	 * completes or fails. If it fails, the changes it would have saved
+	 * count as unsaved again. Errors other than IllegalArgumentException are
+	 * passed to the listener wrapped in one.
+	 * 
+	 * @param fileName the name of the file to save the applications to.
+	 * @param listener the listener to notify, or null.
+	 * @return a Future holding the number of applications saved.
+	 */
+	public Future<Integer> saveAppsInBackground(String fileName, SaveListener listener) {
+		AppList list;
+		AppList.Changes changes = null;
+		AppSnapshot snapshot;
+		synchronized(deltaLock) {
+			list = appList;
+			if(bindDeltaBase(fileName)) {
+				changes = list.takeChanges();
+				snapshot = changes.getSnapshot();
+			} else {
+				snapshot = list.snapshot();
+			}
+		}
+		AppList.Changes taken = changes;
+		return saver.submit(() -> {
+			int count;
+			try {
+				count = taken == null ? writeSnapshot(fileName, snapshot) : writeBase(fileName, list, taken);
+			} catch(RuntimeException e) {
+				if(taken != null) {
+					list.restoreChanges(taken);
+				}
+				if(listener != null) {
+					IllegalArgumentException error;
+					if(e instanceof IllegalArgumentException) {
+						error = (IllegalArgumentException) e;
+					} else {
+						error = new IllegalArgumentException("Unable to save file.", e);
+					}
+					listener.saveFailed(fileName, error);
+				}
+				throw e;
+			}
+			if(listener != null) {
+				listener.saveCompleted(fileName, count);
+			}
+			return count;
+		});
+	}
+	
+	/**
+	 * Writes a snapshot of the list to a file that is not the base file of
+	 * delta saves.
+	 * 
+	 * @param fileName the name of the file.
+	 * @param snapshot the snapshot to write.
+	 * @return the number of applications saved.
+	 */
+	private static int writeSnapshot(String fileName, AppSnapshot snapshot) {
+		List<Application> apps = snapshot.getApps();
+		AppWriter.writeAppsToFileAtomically(fileName, apps);
+		return apps.size();
+	}
+	
+	/**
+	 * Writes the base file of delta saves on the background thread. If the
+	 * base has a delta file, the taken changes are handed back to the list
+	 * and the list is saved as it is now; writing the snapshot instead
+	 * could make the base older than deltas saved after the changes were
+	 * taken.
+	 * 
+	 * @param fileName the name of the base file.
+	 * @param list the list the changes were taken from.
+	 * @param changes the changes taken when the save was requested.
+	 * @return the number of applications saved.
+	 */
+	private int writeBase(String fileName, AppList list, AppList.Changes changes) {
+		synchronized(deltaLock) {
+			if(list == appList && hasDeltas()) {
+				list.restoreChanges(changes);
+				AppList.Changes current = list.takeChanges();
+				try {
+					return saveBase(fileName, current, -1);
+				} catch(IllegalArgumentException e) {
+					list.restoreChanges(current);
+					throw e;
+				}
+			}
+		}
+		return writeSnapshot(fileName, changes.getSnapshot());
+	}
+	
+	/**
+	 * Appends only the applications added, changed and deleted since the
+	 * last save to a delta file, instead of rewriting every application.
+	 * The base file and its delta file together hold the current list, and
+	 * can be read back with loadAppsWithDeltas() or folded into one file
+	 * with compactDeltas().
+	 * 
+	 * @param deltaFileName the name of the delta file to append to.
+	 * @return the number of applications written or deleted.
+	 */
+	public int saveDeltaToFile(String deltaFileName) {
+		synchronized(deltaLock) {
+			baseDeltaFileName = deltaFileName;
+			AppList.Changes changes = appList.takeChanges();
+			try {
+				return appendDelta(deltaFileName, changes);
+			} catch(IllegalArgumentException e) {
+				appList.restoreChanges(changes);
+				throw e;
+			}
+		}
+	}
+	
+	/**
+	 * Appends the applications added, changed and deleted in a set of taken
+	 * changes to a delta file, as they are in the snapshot of the changes.
+	 * 
+	 * @param deltaFileName the name of the delta file to append to.
+	 * @param changes the changes to save.
+	 * @return the number of applications written or deleted.
+	 */
+	private static int appendDelta(String deltaFileName, AppList.Changes changes) {
+		int[] dirtyIds = changes.getDirtyIds();
+		int[] deletedIds = changes.getDeletedIds();
+		if(dirtyIds.length == 0 && deletedIds.length == 0) {
+			return 0;
+		}
+		ArrayList<Application> apps = new ArrayList<>(dirtyIds.length);
+		for(int id: dirtyIds) {
+			apps.add(changes.getSnapshot().getAppById(id));
+		}
+		AppWriter.appendDeltaToFile(deltaFileName, new AppDelta(deletedIds, apps));
+		return dirtyIds.length + deletedIds.length;
+	}
+	
+	/**
+	 * Saves the snapshot of a set of taken changes to the base file. If the
+	 * base has a delta file, the changes are first appended as one more
+	 * delta, so the deltas end at the list being saved, and the delta file
+	 * is removed once the base is written. Applying every delta to any
+	 * version of the base gives that list, so a crash at any point leaves
+	 * files that load correctly. Must be called holding deltaLock; the
+	 * caller restores the changes if this fails.
+	 * 
+	 * @param fileName the name of the base file.
+	 * @param changes the changes taken from the current list.
+	 * @param journalLength the journal length to checkpoint with, or -1 for a plain save.
+	 * @return the number of applications saved.
+	 */
+	private int saveBase(String fileName, AppList.Changes changes, long journalLength) {
+		boolean deltas = hasDeltas();
+		if(deltas) {
+			appendDelta(baseDeltaFileName, changes);
+		}
+		List<Application> apps = changes.getSnapshot().getApps();
+		if(journalLength < 0) {
+			AppWriter.writeAppsToFileAtomically(fileName, apps);
+		} else {
+			AppCheckpoint.save(fileName, apps, journalLength);
+		}
+		if(deltas) {
+			try {
+				Files.delete(Paths.get(baseDeltaFileName));
+			} catch(IOException e) {
+				throw new IllegalArgumentException("Unable to save file.");
+			}
+		}
+		return apps.size();
+	}
+	
+	/**
+	 * Loads a base file and applies the deltas saved after it, in order,
+	 * to the current application list. The loaded list counts as saved, so
+	 * the next delta save only holds changes made after loading, and the
+	 * files become the base and delta file that changes are tracked against.
+	 * 
+	 * @param fileName the name of the base file.
+	 * @param deltaFileName the name of the delta file, which may not exist.
+	 */
+	public void loadAppsWithDeltas(String fileName, String deltaFileName) {
+		synchronized(deltaLock) {
+			applyDeltas(appList, fileName, deltaFileName);
+			appList.takeChanges();
+			deltaBaseFileName = fileName;
+			baseDeltaFileName = deltaFileName;
+		}
+	}
+	
+	/**
+	 * Folds the deltas of a delta file into its base file: the base file is
+	 * rewritten with every delta applied and the delta file is removed. The
+	 * current application list is not touched, so this can run in the
+	 * background while commands continue, and changes not yet saved in a
+	 * delta stay unsaved.
+	 * 
+	 * @param fileName the name of the base file.
+	 * @param deltaFileName the name of the delta file.
+	 */
+	public void compactDeltas(String fileName, String deltaFileName) {
+		synchronized(deltaLock) {
+			if(new File(deltaFileName).exists()) {
+				compact(fileName, deltaFileName);
+			}
+		}
+	}
+	
+	/**
+	 * Rewrites a base file with the deltas of its delta file applied and
+	 * removes the delta file. Must be called holding deltaLock.
+	 * 
+	 * @param fileName the name of the base file.
+	 * @param deltaFileName the name of the delta file.
+	 * @return the number of applications in the rewritten base file.
+	 */
+	private int compact(String fileName, String deltaFileName) {
+		AppList merged = new AppList();
+		applyDeltas(merged, fileName, deltaFileName);
+		List<Application> apps = merged.getApps();
+		AppWriter.writeAppsToFileAtomically(fileName, apps);
+		try {
+			Files.delete(Paths.get(deltaFileName));
+		} catch(IOException e) {
+			throw new IllegalArgumentException("Unable to save file.");
+		}
+		return apps.size();
+	}
+	
+	/**
+	 * Checks whether a file is the base file that changes are tracked
+	 * against, making it the base if there is none yet. Must be called
+	 * holding deltaLock.
+	 * 
+	 * @param fileName the name of the file.
+	 * @return true if the file is the base file.
+	 */
+	private boolean bindDeltaBase(String fileName) {
+		if(deltaBaseFileName == null && fileName != null) {
+			deltaBaseFileName = fileName;
+		}
+		return isDeltaBase(fileName);
+	}
+	
+	/**
+	 * Checks whether a file is the base file that changes are tracked
+	 * against. Must be called holding deltaLock.
+	 * 
+	 * @param fileName the name of the file.
+	 * @return true if the file is the base file.
+	 */
+	private boolean isDeltaBase(String fileName) {
+		if(fileName == null || deltaBaseFileName == null) {
+			return false;
+		}
+		try {
+			return Paths.get(fileName).toAbsolutePath().normalize()
+					.equals(Paths.get(deltaBaseFileName).toAbsolutePath().normalize());
+		} catch(InvalidPathException e) {
+			return false;
+		}
+	}
+	
+	/**
+	 * Checks whether the base file has deltas saved after it. Must be called
+	 * holding deltaLock.
+	 * 
+	 * @return true if the delta file of the base exists.
+	 */
+	private boolean hasDeltas() {
+		return baseDeltaFileName != null && new File(baseDeltaFileName).exists();
+	}
+	
+	/**
+	 * Starts folding the delta file into the base file periodically on a
+	 * background thread, replacing any compaction already running.
+	 * 
+	 * @param fileName the name of the base file.
+	 * @param deltaFileName the name of the delta file.
+	 * @param periodMillis the time between compactions, in milliseconds.
+	 */
+	public synchronized void startCompaction(String fileName, String deltaFileName, long periodMillis) {
+		if(periodMillis < 1) {
+			throw new IllegalArgumentException("Invalid period.");
+		}
+		stopCompaction();
+		compactor = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread thread = new Thread(r, "delta-compactor");
+			thread.setDaemon(true);
+			return thread;
+		});
+		compactor.scheduleWithFixedDelay(() -> {
+			try {
+				compactDeltas(fileName, deltaFileName);
+			} catch(IllegalArgumentException e) {
+				// The deltas stay in place and the next run tries again.
+			}
+		}, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+	}
+	
+	/**
+	 * Stops background compaction, waiting for a compaction in progress.
+	 */
+	public synchronized void stopCompaction() {
+		if(compactor != null) {
+			compactor.shutdown();
+			try {
+				compactor.awaitTermination(1, TimeUnit.MINUTES);
+			} catch(InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			compactor = null;
+		}
+	}
+	
+	/**
+	 * Loads a base file into a list and applies the deltas of a delta file
+	 * to it in the order they were saved.
+	 * 
+	 * @param list the list to load into.
+	 * @param fileName the name of the base file, which may not exist.
+	 * @param deltaFileName the name of the delta file, which may not exist.
+	 */
+	private static void applyDeltas(AppList list, String fileName, String deltaFileName) {
+		if(new File(fileName).exists()) {
+			list.addApps(AppReader.readAppsFromFile(fileName));
+		}
+		for(AppDelta delta: AppReader.readDeltasFromFile(deltaFileName)) {
+			for(int id: delta.getDeletedIds()) {
+				list.deleteAppById(id);
+			}
+			list.addApps(delta.getApps(), AppList.MergePolicy.REPLACE);
+		}
+	}
+	
+	/**
+	 * Takes an immutable snapshot of the current application list. Taking the
+	 * snapshot costs constant time, and commands executed afterwards do not
+	 * change it, so it can be read from any thread while commands continue.
+	 * 
+	 * @return a snapshot of the application list.
+	 */
+	public AppSnapshot getSnapshot() {
+		return appList.snapshot();
+	}
+	
+	/**
+	 * Builds a columnar copy of the current application list for large scans
+	 * and aggregations, such as counting applications by state.
+	 * 
+	 * @return the columns of a snapshot of the application list.
+	 */
+	public AppColumns getColumns() {
+		return AppColumns.of(getSnapshot());
 	}
 	
 	/**
@@ -82,10 +527,29 @@ public class AppManager {
 	}
 	
 	/**
-	 * Creates a new application list, resetting any existing data.
+	 * Loads applications from a specified file and merges them into the
+	 * current application list, resolving applications whose id is already
+	 * in the list with the given policy.
+	 * 
+	 * @param fileName the name of the file to load applications from.
+	 * @param policy how to resolve applications whose id is already in the list.
+	 * @return a report of the ids that were added, replaced, merged and skipped.
+	 */
+	public MergeReport loadAppsFromFile(String fileName, AppList.MergePolicy policy) {
+		return appList.addApps(AppReader.readAppsFromFile(fileName), policy);
+	}
+	
+	/**
+	 * Creates a new application list, resetting any existing data. An open
+	 * journal is closed, since it no longer describes the list.
 	 */
 	public void createNewAppList() {
-		this.appList = new AppList();
+		closeJournal();
+		synchronized(deltaLock) {
+			this.appList = new AppList();
+			deltaBaseFileName = null;
+			baseDeltaFileName = null;
+		}
 	}
 	
 	/**
@@ -94,17 +558,7 @@ public class AppManager {
 	 * @return a 2D array of application data.
 	 */
 	public Object[][] getAppListAsArray() {
-		List<Application> list = appList.getApps();
-		Object[][] arr = new Object[list.size()][4];
-		
-		for(int i = 0; i < list.size(); i++) {
-			arr[i][0] = list.get(i).getAppId();
-			arr[i][1] = list.get(i).getStateName();
-			arr[i][2] = list.get(i).getAppType();
-			arr[i][3] = list.get(i).getSummary();
-		}
-		
-		return arr;
+		return toArray(appList.getApps());
 	}
 	
 	/**
@@ -118,45 +572,77 @@ public class AppManager {
 		if(type == null || "".equals(type)) {
 			throw new IllegalArgumentException("Invalid type.");
 		}
-		List<Application> list = appList.getApps();
-		
-		List<Application> spcList = new ArrayList<>();
+		return toArray(appList.getAppsByType(type));
+	}
+	
+	/**
+	 * Retrieves applications in the specified state as a 2D array.
+	 * 
+	 * @param state the state of applications to filter by (e.g., Review, Interview).
+	 * @return a 2D array of application data filtered by state.
+	 */
+	public Object[][] getAppListAsArrayByState(String state) {
 		
-		for(Application app: list) {
-			if(type.equals(app.getAppType())) {
-				spcList.add(app);
-			}
+		if(state == null || "".equals(state)) {
+			throw new IllegalArgumentException("Invalid state.");
 		}
+		return toArray(appList.getAppsByState(state));
+	}
+	
+	/**
+	 * Retrieves the applications matched by a filter as a 2D array.
+	 * 
+	 * @param filter the filter to apply, for example
+	 *        {@code AppFilter.type("Old").and(AppFilter.state("Waitlist"))}.
+	 * @return a 2D array of the matching application data.
+	 */
+	public Object[][] getAppListAsArray(AppFilter filter) {
+		return toArray(appList.getApps(filter));
+	}
+	
+	/**
+	 * Counts the applications matched by a filter.
+	 * 
+	 * @param filter the filter to apply.
+	 * @return the number of matching applications.
+	 */
+	public int countApps(AppFilter filter) {
+		return appList.countApps(filter);
+	}
+	
+	/**
+	 * Converts a list of applications into the 2D array used by the tables,
+	 * holding the id, state, type and summary of each application.
+	 * 
+	 * @param list the applications to convert.
+	 * @return a 2D array of application data.
+	 */
+	private Object[][] toArray(List<Application> list) {
+		Object[][] arr = new Object[list.size()][4];
 		
-		Object[][] arr = new Object[spcList.size()][4];
-		
-		for(int i = 0; i < spcList.size(); i++) {
-			arr[i][0] = spcList.get(i).getAppId();
-			arr[i][1] = spcList.get(i).getStateName();
-			arr[i][2] = spcList.get(i).getAppType();
-			arr[i][3] = spcList.get(i).getSummary();
+		for(int i = 0; i < list.size(); i++) {
+			Application app = list.get(i);
+			arr[i][0] = app.getAppId();
+			arr[i][1] = app.getStateName();
+			arr[i][2] = app.getAppType();
+			arr[i][3] = app.getSummary();
 		}
 		
-		
 		return arr;
 	}
 	
 	
 	/**
-	 * Retrieves an application by its ID.
+	 * Retrieves an application by its ID. The application is only read:
+	 * commands go through executeCommand(), which may replace it with a copy
+	 * when it is shared with a snapshot, so callers look it up again after
+	 * each command.
 	 * 
 	 * @param id the ID of the application to retrieve.
 	 * @return the application with the specified ID, or null if not found.
 	 */
 	public Application getAppById(int id) {
-		
-		List<Application> apps = appList.getApps();
-		for(Application app: apps) {
-			if(id == app.getAppId()) {
-				return app;
-			}
-		}
-		return null;
+		return appList.getAppById(id);
 	}
 	
 	/**
@@ -166,15 +652,92 @@ public class AppManager {
 	 * @param command the command to execute on the application.
 	 */
 	public void executeCommand(int id, Command command) {
-		List<Application> apps = appList.getApps();
-		
-		for(Application app: apps) {
-			if(id == app.getAppId()) {
-				app.update(command);
-				break;
+		AppJournal current;
+		long sequence = 0;
+		synchronized(this) {
+			current = journal;
+			boolean found = current != null && appList.getAppById(id) != null;
+			appList.executeCommand(id, command);
+			if(found) {
+				sequence = current.logCommand(id, command);
 			}
 		}
-		
+		awaitCommit(current, sequence);
+	}
+	
+	/**
+	 * Executes a batch of commands, resolving every target in one pass and
+	 * reporting the outcome of each command instead of stopping at the first
+	 * command that is not valid.
+	 * 
+	 * @param batch the commands to execute.
+	 * @return the outcome of each command, by its position in the batch.
+	 */
+	public BatchResult executeCommands(CommandBatch batch) {
+		AppJournal current;
+		long sequence;
+		BatchResult result;
+		synchronized(this) {
+			current = journal;
+			result = appList.executeCommands(batch);
+			sequence = logApplied(current, batch, result);
+		}
+		awaitCommit(current, sequence);
+		return result;
+	}
+	
+	/**
+	 * Executes a batch of commands all-or-nothing: if any command is not
+	 * valid or targets an unknown id, no application is changed.
+	 * 
+	 * @param batch the commands to execute.
+	 * @return the outcome of each command and whether the batch was committed.
+	 */
+	public BatchResult executeTransaction(CommandBatch batch) {
+		AppJournal current;
+		long sequence = 0;
+		BatchResult result;
+		synchronized(this) {
+			current = journal;
+			result = appList.executeTransaction(batch);
+			if(result.isCommitted()) {
+				sequence = logApplied(current, batch, result);
+			}
+		}
+		awaitCommit(current, sequence);
+		return result;
+	}
+	
+	/**
+	 * Records the applied commands of a batch in the journal, in batch order.
+	 * 
+	 * @param current the journal, or null if there is none.
+	 * @param batch the batch that was executed.
+	 * @param result the outcome of each command.
+	 * @return the sequence number of the last event logged, or 0 if there was none.
+	 */
+	private long logApplied(AppJournal current, CommandBatch batch, BatchResult result) {
+		long sequence = 0;
+		for(int i = 0; current != null && i < batch.size(); i++) {
+			if(result.isApplied(i)) {
+				sequence = current.logCommand(batch.getId(i), batch.getCommand(i));
+			}
+		}
+		return sequence;
+	}
+	
+	/**
+	 * Waits until a journal event is committed. This is called after the
+	 * AppManager's lock is released, so that the events of concurrent
+	 * callers are committed together as one group.
+	 * 
+	 * @param current the journal the event was logged in, or null if there is none.
+	 * @param sequence the sequence number of the event, or 0 if nothing was logged.
+	 */
+	private void awaitCommit(AppJournal current, long sequence) {
+		if(current != null && sequence > 0) {
+			current.awaitCommit(sequence);
+		}
 	}
 	
 	/**
@@ -183,14 +746,18 @@ public class AppManager {
 	 * @param id the ID of the application to delete.
 	 */
 	public void deleteAppById(int id) {
-		List<Application> list = appList.getApps();
-		
-		for(int i = 0; i < list.size(); i++) {
-			if(list.get(i).getAppId() == id) {
-				list.remove(i);
-				break;
+		AppJournal current;
+		long sequence = 0;
+		synchronized(this) {
+			current = journal;
+			if(current == null) {
+				appList.deleteAppById(id);
+			} else if(appList.getAppById(id) != null) {
+				appList.deleteAppById(id);
+				sequence = current.logDelete(id);
 			}
 		}
+		awaitCommit(current, sequence);
 	}
 	
 	
@@ -202,6 +769,169 @@ public class AppManager {
 	 * @param note additional notes related to the application.
 	 */
 	public void addAppToList(AppType appType, String summary, String note) {
-		appList.addApp(appType, summary, note);
+		AppJournal current;
+		long sequence = 0;
+		synchronized(this) {
+			current = journal;
+			if(current == null) {
+				appList.addApp(appType, summary, note);
+			} else {
+				// The id is allocated here so that the journal records the id the application was given.
+				Application app = new Application(appList.getIdAllocator().nextId(), appType, summary, note);
+				appList.addApps(List.of(app));
+				sequence = current.logAdd(app.getAppId(), appType, summary, note);
+			}
+		}
+		awaitCommit(current, sequence);
+	}
+	
+	/**
+	 * Reserves a block of contiguous application ids, for example for an
+	 * ingest worker that creates applications itself before adding them.
+	 * 
+	 * @param size the number of ids to reserve.
+	 * @return the reserved block of ids.
+	 */
+	public IdAllocator.IdBlock reserveAppIds(int size) {
+		return appList.getIdAllocator().reserveBlock(size);
+	}
+	
+	/**
+	 * Rebuilds the application list after a restart: the last saved snapshot
+	 * is loaded, the changes recorded in the journal since then are replayed
+	 * on top of it, and the journal is opened so that later changes are
+	 * recorded too. Missing files are treated as empty. A checkpoint that
+	 * was interrupted by a crash is finished, and the journal events its
+	 * snapshot already holds are skipped. Applications loaded from other
+	 * files afterwards are not recorded, so checkpoint() should follow such
+	 * a load.
+	 * 
+	 * @param snapshotFileName the name of the snapshot file.
+	 * @param journalFileName the name of the journal file.
+	 * @return the number of journal events replayed.
+	 */
+	public int recover(String snapshotFileName, String journalFileName) {
+		return recover(snapshotFileName, journalFileName, WalWriter.SyncMode.OS, 0);
+	}
+	
+	/**
+	 * Rebuilds the application list from a snapshot and a journal, as
+	 * recover(String, String) does, and keeps recording changes in the
+	 * journal with the given sync policy. Each change waits until its event
+	 * is committed under that policy; concurrent changes share one commit.
+	 * 
+	 * @param snapshotFileName the name of the snapshot file.
+	 * @param journalFileName the name of the journal file.
+	 * @param mode when the journal is forced to disk.
+	 * @param intervalMillis the time between syncs in INTERVAL mode, in milliseconds.
+	 * @return the number of journal events replayed.
+	 */
+	public synchronized int recover(String snapshotFileName, String journalFileName, WalWriter.SyncMode mode,
+			long intervalMillis) {
+		closeJournal();
+		createNewAppList();
+		long checkpointed = AppCheckpoint.complete(snapshotFileName);
+		if(new File(snapshotFileName).exists()) {
+			appList.addApps(AppReader.readAppsFromFile(snapshotFileName));
+		}
+		int events = AppJournal.replay(journalFileName, Math.max(checkpointed, 0), new AppJournal.Handler() {
+
+			@Override
+			public void added(int id, AppType appType, String summary, String note) {
+				appList.addApps(List.of(new Application(id, appType, summary, note)));
+			}
+
+			@Override
+			public void executed(int id, Command command) {
+				appList.executeCommand(id, command);
+			}
+
+			@Override
+			public void deleted(int id) {
+				appList.deleteAppById(id);
+			}
+		});
+		this.journal = new AppJournal(journalFileName, mode, intervalMillis);
+		this.snapshotFileName = snapshotFileName;
+		if(checkpointed >= 0) {
+			// A checkpoint stopped before emptying the journal, so it is finished now.
+			checkpoint();
+		}
+		return events;
+	}
+	
+	/**
+	 * Saves the application list to the snapshot file given to recover() and
+	 * empties the journal, whose changes are now part of the snapshot. The
+	 * snapshot records how much of the journal it holds, so a crash before
+	 * the journal is emptied does not replay those changes a second time.
+	 */
+	public synchronized void checkpoint() {
+		AppJournal current = journal;
+		if(current == null) {
+			throw new IllegalStateException("No journal is open.");
+		}
+		synchronized(deltaLock) {
+			if(!isDeltaBase(snapshotFileName)) {
+				AppCheckpoint.save(snapshotFileName, appList.snapshot().getApps(), current.size());
+			} else {
+				// The snapshot is also the base of delta saves, which must not be older than its deltas.
+				AppList.Changes changes = appList.takeChanges();
+				try {
+					saveBase(snapshotFileName, changes, current.size());
+				} catch(IllegalArgumentException e) {
+					appList.restoreChanges(changes);
+					throw e;
+				}
+			}
+		}
+		current.truncate();
+		AppCheckpoint.clear(snapshotFileName);
+	}
+	
+	/**
+	 * Returns the commit statistics of the open journal, such as the average
+	 * commit latency and the average number of changes committed together.
+	 * 
+	 * @return the statistics, or null if no journal is open.
+	 */
+	public WalWriter.Stats getJournalStats() {
+		AppJournal current = journal;
+		return current == null ? null : current.getStats();
+	}
+	
+	/**
+	 * Closes the journal, if one is open. Changes are no longer recorded.
+	 */
+	public synchronized void closeJournal() {
+		if(journal != null) {
+			journal.close();
+			journal = null;
+			snapshotFileName = null;
+		}
+	}
+	
+	/**
+	 * Interface for objects notified when a background save completes or
+	 * fails. Both methods are called on the background thread, so a user
+	 * interface should hand the result to its own thread.
+	 * 
+	 * @author Priyanshu Dongre
+	 */
+	public interface SaveListener {
+		
+		/**
+		 * Called when a background save has replaced the file.
+		 * @param fileName the name of the file saved.
+		 * @param count the number of applications saved.
+		 */
+		void saveCompleted(String fileName, int count);
+		
+		/**
+		 * Called when a background save failed and the file was left as it was.
+		 * @param fileName the name of the file that was not saved.
+		 * @param error the reason the save failed.
+		 */
+		void saveFailed(String fileName, IllegalArgumentException error);
 	}
 }
@@ -0,0 +1,88 @@
+/**
+ *
+ */
+package edu.ncsu.csc216.app_manager.model.manager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import edu.ncsu.csc216.app_manager.model.application.Application;
+
+/**
+ * The AppSnapshot class is an immutable view of an AppList at one point in
+ * time. Taking a snapshot costs constant time: it shares its storage with
+ * the list, and the list copies what it changes afterwards, including any
+ * application that is updated by a later command. Saves, table refreshes and
+ * reports can therefore read a consistent view from any thread without
+ * blocking commands that run on the list at the same time.
+ *
+ * The applications in a snapshot must only be read, never updated.
+ *
+ * @author Priyanshu Dongre
+ */
+public class AppSnapshot implements Iterable<Application> {
+
+	/** The frozen table holding the applications of the snapshot */
+	private final AppTable table;
+
+	/** The applications in id order, built the first time they are asked for */
+	private volatile List<Application> apps;
+
+	/**
+	 * Constructs an AppSnapshot over a frozen table.
+	 *
+	 * @param table the frozen table.
+	 */
+	AppSnapshot(AppTable table) {
+		this.table = table;
+	}
+
+	/**
+	 * Returns the number of applications in the snapshot.
+	 *
+	 * @return the number of applications.
+	 */
+	public int size() {
+		return table.size();
+	}
+
+	/**
+	 * Retrieves an application by its ID.
+	 *
+	 * @param id the ID of the application to retrieve.
+	 * @return the application with the given ID, or null if not found.
+	 */
+	public Application getAppById(int id) {
+		return table.get(id);
+	}
+
+	/**
+	 * Returns the applications in the snapshot ordered by id.
+	 *
+	 * @return an unmodifiable list of the applications.
+	 */
+	public List<Application> getApps() {
+		List<Application> list = apps;
+		if(list == null) {
+			ArrayList<Application> built = new ArrayList<>(table.size());
+			for(Application app: table) {
+				built.add(app);
+			}
+			list = Collections.unmodifiableList(built);
+			apps = list;
+		}
+		return list;
+	}
+
+	/**
+	 * Returns an iterator over the applications in ascending id order.
+	 *
+	 * @return an iterator over the snapshot.
+	 */
+	@Override
+	public Iterator<Application> iterator() {
+		return table.iterator();
+	}
+}
@@ -0,0 +1,359 @@
+/**
+ *
+ */
+package edu.ncsu.csc216.app_manager.model.manager;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import edu.ncsu.csc216.app_manager.model.application.Application;
+
+/**
+ * The AppTable class is the id-keyed storage behind AppList. Applications are
+ * kept in fixed-size chunks addressed directly by their primitive int id, so
+ * lookup, insertion, replacement and deletion never search the table and
+ * iteration always visits the applications in ascending id order without
+ * any sorting.
+ *
+ * Chunks that hold no applications are released, so a handful of large ids
+ * only costs one chunk each rather than an array as long as the largest id.
+ *
+ * A table can hand out frozen copies of itself in constant time. The copy
+ * shares every chunk with the table, and the table copies a chunk before
+ * its first change after the copy was made, so the frozen copy never sees
+ * later changes. The table also remembers which applications were stored
+ * before the latest frozen copy, so that callers can replace a shared
+ * application with a private copy before changing it.
+ *
+ * @author Priyanshu Dongre
+ */
+class AppTable implements Iterable<Application> {
+
+	/** Number of bits of an id used to address a slot inside a chunk */
+	private static final int CHUNK_BITS = 10;
+
+	/** Number of slots in a single chunk */
+	private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+
+	/** Mask selecting the slot part of an id */
+	private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+	/** The chunks of the table, indexed by the high bits of the id */
+	private Application[][] chunks;
+
+	/** The number of applications stored in each chunk */
+	private int[] chunkCounts;
+
+	/** The epoch in which each chunk was last copied or created */
+	private int[] chunkEpochs;
+
+	/** The epoch in which each slot of each chunk was last written */
+	private int[][] slotEpochs;
+
+	/** The current epoch, advanced every time a frozen copy is made */
+	private int epoch;
+
+	/** Whether the arrays of chunks are shared with a frozen copy */
+	private boolean shared;
+
+	/** Whether this table is a frozen copy that can no longer change */
+	private final boolean frozen;
+
+	/** The number of applications in the table */
+	private int size;
+
+	/** The largest id in the table, or -1 if the table is empty */
+	private int maxId;
+
+	/**
+	 * Constructs an empty AppTable.
+	 */
+	AppTable() {
+		frozen = false;
+		clear();
+	}
+
+	/**
+	 * Constructs a frozen copy of a table that shares its chunks.
+	 *
+	 * @param table the table to copy.
+	 */
+	private AppTable(AppTable table) {
+		frozen = true;
+		chunks = table.chunks;
+		chunkCounts = table.chunkCounts;
+		size = table.size;
+		maxId = table.maxId;
+	}
+
+	/**
+	 * Returns a frozen copy of the table in constant time. The copy shares
+	 * the chunks of the table and is not affected by later changes to it.
+	 *
+	 * @return a frozen copy of the table.
+	 */
+	AppTable freeze() {
+		if(frozen) {
+			return this;
+		}
+		shared = true;
+		epoch++;
+		return new AppTable(this);
+	}
+
+	/**
+	 * Checks whether the application with the given id was stored before the
+	 * latest frozen copy was made, and so may be visible through it.
+	 *
+	 * @param id the id of the application.
+	 * @return true if the application may be shared with a frozen copy.
+	 */
+	boolean isShared(int id) {
+		if(get(id) == null) {
+			return false;
+		}
+		return frozen || slotEpochs[id >>> CHUNK_BITS][id & CHUNK_MASK] != epoch;
+	}
+
+	/**
+	 * Returns the number of applications in the table.
+	 *
+	 * @return the number of applications.
+	 */
+	int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the largest id in the table.
+	 *
+	 * @return the largest id, or -1 if the table is empty.
+	 */
+	int maxId() {
+		return maxId;
+	}
+
+	/**
+	 * Retrieves the application with the given id.
+	 *
+	 * @param id the id of the application.
+	 * @return the application, or null if no application has the id.
+	 */
+	Application get(int id) {
+		if(id < 0) {
+			return null;
+		}
+		int c = id >>> CHUNK_BITS;
+		if(c >= chunks.length || chunks[c] == null) {
+			return null;
+		}
+		return chunks[c][id & CHUNK_MASK];
+	}
+
+	/**
+	 * Checks whether an application with the given id is in the table.
+	 *
+	 * @param id the id to look for.
+	 * @return true if the id is present, false otherwise.
+	 */
+	boolean contains(int id) {
+		return get(id) != null;
+	}
+
+	/**
+	 * Stores an application under its id, replacing any application that
+	 * already has that id.
+	 *
+	 * @param app the application to store.
+	 * @return the application previously stored under the id, or null.
+	 */
+	Application put(Application app) {
+		int id = app.getAppId();
+		if(id < 0) {
+			throw new IllegalArgumentException("Invalid id.");
+		}
+		int c = id >>> CHUNK_BITS;
+		if(c >= chunks.length) {
+			int length = Math.max(c + 1, chunks.length * 2);
+			unshare(length);
+		}
+		if(chunks[c] == null) {
+			unshare(chunks.length);
+			chunks[c] = new Application[CHUNK_SIZE];
+			slotEpochs[c] = new int[CHUNK_SIZE];
+			chunkEpochs[c] = epoch;
+		} else {
+			writableChunk(c);
+		}
+
+		Application old = chunks[c][id & CHUNK_MASK];
+		chunks[c][id & CHUNK_MASK] = app;
+		slotEpochs[c][id & CHUNK_MASK] = epoch;
+		if(old == null) {
+			chunkCounts[c]++;
+			size++;
+			if(id > maxId) {
+				maxId = id;
+			}
+		}
+		return old;
+	}
+
+	/**
+	 * Removes the application with the given id.
+	 *
+	 * @param id the id of the application to remove.
+	 * @return the removed application, or null if no application has the id.
+	 */
+	Application remove(int id) {
+		Application old = get(id);
+		if(old == null) {
+			return null;
+		}
+		int c = id >>> CHUNK_BITS;
+		writableChunk(c);
+		chunks[c][id & CHUNK_MASK] = null;
+		size--;
+		if(--chunkCounts[c] == 0) {
+			chunks[c] = null;
+			slotEpochs[c] = null;
+		}
+		if(id == maxId) {
+			maxId = findMaxBelow(id);
+		}
+		return old;
+	}
+
+	/**
+	 * Removes every application from the table.
+	 */
+	void clear() {
+		checkNotFrozen();
+		chunks = new Application[1][];
+		chunkCounts = new int[1];
+		chunkEpochs = new int[1];
+		slotEpochs = new int[1][];
+		shared = false;
+		size = 0;
+		maxId = -1;
+	}
+
+	/**
+	 * Makes the arrays of chunks private to this table, copying them if they
+	 * are shared with a frozen copy or shorter than the given length.
+	 *
+	 * @param length the minimum length of the arrays.
+	 */
+	private void unshare(int length) {
+		checkNotFrozen();
+		if(!shared && length <= chunks.length) {
+			return;
+		}
+		length = Math.max(length, chunks.length);
+		chunks = Arrays.copyOf(chunks, length);
+		chunkCounts = Arrays.copyOf(chunkCounts, length);
+		chunkEpochs = Arrays.copyOf(chunkEpochs, length);
+		slotEpochs = Arrays.copyOf(slotEpochs, length);
+		shared = false;
+	}
+
+	/**
+	 * Makes a chunk private to this table, copying it if it was created
+	 * before the latest frozen copy.
+	 *
+	 * @param c the index of the chunk.
+	 */
+	private void writableChunk(int c) {
+		unshare(chunks.length);
+		if(chunkEpochs[c] != epoch) {
+			chunks[c] = chunks[c].clone();
+			slotEpochs[c] = slotEpochs[c].clone();
+			chunkEpochs[c] = epoch;
+		}
+	}
+
+	/**
+	 * Checks that the table is not a frozen copy.
+	 */
+	private void checkNotFrozen() {
+		if(frozen) {
+			throw new UnsupportedOperationException("Table is frozen.");
+		}
+	}
+
+	/**
+	 * Finds the largest id in the table that is smaller than the given id.
+	 * Empty chunks are skipped without visiting their slots.
+	 *
+	 * @param id the exclusive upper bound.
+	 * @return the largest id below the bound, or -1 if there is none.
+	 */
+	private int findMaxBelow(int id) {
+		for(int c = (id - 1) >> CHUNK_BITS; c >= 0; c--) {
+			if(chunks[c] == null) {
+				continue;
+			}
+			int start = Math.min(CHUNK_MASK, id - 1 - (c << CHUNK_BITS));
+			for(int i = start; i >= 0; i--) {
+				if(chunks[c][i] != null) {
+					return (c << CHUNK_BITS) | i;
+				}
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Returns an iterator over the applications in ascending id order.
+	 *
+	 * @return an iterator over the table.
+	 */
+	@Override
+	public Iterator<Application> iterator() {
+		return new Iterator<Application>() {
+
+			/** The id the next search starts from */
+			private int cursor = nextFrom(0);
+
+			@Override
+			public boolean hasNext() {
+				return cursor >= 0;
+			}
+
+			@Override
+			public Application next() {
+				if(cursor < 0) {
+					throw new NoSuchElementException();
+				}
+				Application app = get(cursor);
+				cursor = cursor == maxId ? -1 : nextFrom(cursor + 1);
+				return app;
+			}
+		};
+	}
+
+	/**
+	 * Finds the smallest id in the table that is at least the given id.
+	 *
+	 * @param id the inclusive lower bound.
+	 * @return the smallest id at or above the bound, or -1 if there is none.
+	 */
+	private int nextFrom(int id) {
+		if(id > maxId) {
+			return -1;
+		}
+		for(int c = id >>> CHUNK_BITS; c <= maxId >>> CHUNK_BITS; c++) {
+			if(chunks[c] == null) {
+				continue;
+			}
+			int start = c == id >>> CHUNK_BITS ? id & CHUNK_MASK : 0;
+			for(int i = start; i < CHUNK_SIZE; i++) {
+				if(chunks[c][i] != null) {
+					return (c << CHUNK_BITS) | i;
+				}
+			}
+		}
+		return -1;
+	}
+}
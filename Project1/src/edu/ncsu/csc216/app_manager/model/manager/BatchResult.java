@@ -0,0 +1,154 @@
+/**
+ *
+ */
+package edu.ncsu.csc216.app_manager.model.manager;
+
+/**
+ * The BatchResult class records the outcome of every command in a
+ * CommandBatch, by the command's position in the batch: whether it was
+ * applied, rejected by the application's state with an
+ * UnsupportedOperationException, or not applied because no application has
+ * its id. It also records whether the batch was committed; a batch
+ * executed as a transaction is only committed when every command was
+ * applied, and is otherwise rolled back as a whole.
+ *
+ * @author Priyanshu Dongre
+ */
+public class BatchResult {
+
+	/**
+	 * Enumeration of the outcomes of a single command.
+	 */
+	public enum Status { APPLIED, REJECTED, NOT_FOUND }
+
+	/** The outcome of each command */
+	private final Status[] statuses;
+
+	/** The exception of each rejected command, or null */
+	private final UnsupportedOperationException[] errors;
+
+	/** Whether the changes made by the batch were kept */
+	private boolean committed;
+
+	/**
+	 * Constructs a BatchResult for a batch of the given size.
+	 *
+	 * @param size the number of commands in the batch.
+	 */
+	BatchResult(int size) {
+		statuses = new Status[size];
+		errors = new UnsupportedOperationException[size];
+		committed = true;
+	}
+
+	/**
+	 * Records an applied command.
+	 *
+	 * @param index the position of the command.
+	 */
+	void applied(int index) {
+		statuses[index] = Status.APPLIED;
+	}
+
+	/**
+	 * Records a rejected command.
+	 *
+	 * @param index the position of the command.
+	 * @param error the exception thrown by the application.
+	 */
+	void rejected(int index, UnsupportedOperationException error) {
+		statuses[index] = Status.REJECTED;
+		errors[index] = error;
+	}
+
+	/**
+	 * Records a command whose id is not in the list.
+	 *
+	 * @param index the position of the command.
+	 */
+	void notFound(int index) {
+		statuses[index] = Status.NOT_FOUND;
+	}
+
+	/**
+	 * Records that the changes made by the batch were discarded.
+	 */
+	void rolledBack() {
+		committed = false;
+	}
+
+	/**
+	 * Checks whether the changes made by the batch were kept. A batch
+	 * executed as a transaction is rolled back, and nothing in the list
+	 * changes, when any of its commands was not applied.
+	 *
+	 * @return true if the batch was committed.
+	 */
+	public boolean isCommitted() {
+		return committed;
+	}
+
+	/**
+	 * Returns the number of commands in the batch.
+	 *
+	 * @return the number of commands.
+	 */
+	public int size() {
+		return statuses.length;
+	}
+
+	/**
+	 * Returns the outcome of a command.
+	 *
+	 * @param index the position of the command in the batch.
+	 * @return the outcome of the command.
+	 */
+	public Status getStatus(int index) {
+		return statuses[index];
+	}
+
+	/**
+	 * Checks whether a command was applied. In a transaction that was
+	 * rolled back, this tells whether the command would have been valid.
+	 *
+	 * @param index the position of the command in the batch.
+	 * @return true if the command was applied.
+	 */
+	public boolean isApplied(int index) {
+		return statuses[index] == Status.APPLIED;
+	}
+
+	/**
+	 * Returns the exception that rejected a command.
+	 *
+	 * @param index the position of the command in the batch.
+	 * @return the exception, or null if the command was not rejected.
+	 */
+	public UnsupportedOperationException getError(int index) {
+		return errors[index];
+	}
+
+	/**
+	 * Returns the number of commands that were applied.
+	 *
+	 * @return the number of applied commands.
+	 */
+	public int getAppliedCount() {
+		int count = 0;
+		for(Status status: statuses) {
+			if(status == Status.APPLIED) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Returns the number of commands that were not applied.
+	 *
+	 * @return the number of rejected and not found commands.
+	 */
+	public int getFailedCount() {
+		return statuses.length - getAppliedCount();
+	}
+}
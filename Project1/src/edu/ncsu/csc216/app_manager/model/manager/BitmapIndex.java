@@ -0,0 +1,165 @@
+/**
+ *
+ */
+package edu.ncsu.csc216.app_manager.model.manager;
+
+import java.util.HashMap;
+
+import edu.ncsu.csc216.app_manager.model.application.Application;
+
+/**
+ * The BitmapIndex class keeps one compressed bitmap of application ids for
+ * each state, each type, each reviewer and the processed paperwork flag, plus
+ * a bitmap of every id in the list. AppList keeps it current as applications
+ * are added, updated and deleted, and AppFilter expressions are answered by
+ * combining these bitmaps without looking at the applications themselves.
+ *
+ * Applications without a reviewer are indexed under the empty reviewer name.
+ *
+ * @author Priyanshu Dongre
+ */
+class BitmapIndex {
+
+	/** Every id in the list */
+	private final AppBitmap all;
+
+	/** The ids of the applications in each state, keyed by state name */
+	private final HashMap<String, AppBitmap> states;
+
+	/** The ids of the applications of each type, keyed by type name */
+	private final HashMap<String, AppBitmap> types;
+
+	/** The ids of the applications assigned to each reviewer, keyed by reviewer */
+	private final HashMap<String, AppBitmap> reviewers;
+
+	/** The ids of the applications whose paperwork has been processed */
+	private final AppBitmap processed;
+
+	/**
+	 * Constructs an empty BitmapIndex.
+	 */
+	BitmapIndex() {
+		all = new AppBitmap();
+		states = new HashMap<>();
+		types = new HashMap<>();
+		reviewers = new HashMap<>();
+		processed = new AppBitmap();
+	}
+
+	/**
+	 * Adds an application to the bitmaps for its current state, type,
+	 * reviewer and processed flag.
+	 *
+	 * @param app the application to index.
+	 */
+	void add(Application app) {
+		int id = app.getAppId();
+		all.add(id);
+		states.computeIfAbsent(app.getStateName(), k -> new AppBitmap()).add(id);
+		types.computeIfAbsent(app.getAppType(), k -> new AppBitmap()).add(id);
+		reviewers.computeIfAbsent(reviewerKey(app.getReviewer()), k -> new AppBitmap()).add(id);
+		if(app.isProcessed()) {
+			processed.add(id);
+		}
+	}
+
+	/**
+	 * Removes an application from the bitmaps for its current state, type,
+	 * reviewer and processed flag.
+	 *
+	 * @param app the application to remove.
+	 */
+	void remove(Application app) {
+		int id = app.getAppId();
+		all.remove(id);
+		removeFrom(states, app.getStateName(), id);
+		removeFrom(types, app.getAppType(), id);
+		removeFrom(reviewers, reviewerKey(app.getReviewer()), id);
+		processed.remove(id);
+	}
+
+	/**
+	 * Returns every id in the list.
+	 *
+	 * @return the bitmap of all ids, which must not be modified.
+	 */
+	AppBitmap all() {
+		return all;
+	}
+
+	/**
+	 * Returns the ids of the applications in a state.
+	 *
+	 * @param state the name of the state.
+	 * @return the bitmap for the state, which must not be modified.
+	 */
+	AppBitmap state(String state) {
+		return lookup(states, state);
+	}
+
+	/**
+	 * Returns the ids of the applications of a type.
+	 *
+	 * @param type the name of the type.
+	 * @return the bitmap for the type, which must not be modified.
+	 */
+	AppBitmap type(String type) {
+		return lookup(types, type);
+	}
+
+	/**
+	 * Returns the ids of the applications assigned to a reviewer.
+	 *
+	 * @param reviewer the reviewer, or null or empty for unassigned applications.
+	 * @return the bitmap for the reviewer, which must not be modified.
+	 */
+	AppBitmap reviewer(String reviewer) {
+		return lookup(reviewers, reviewerKey(reviewer));
+	}
+
+	/**
+	 * Returns the ids of the applications whose processed flag has the given value.
+	 *
+	 * @param value the value of the processed paperwork flag.
+	 * @return the matching ids.
+	 */
+	AppBitmap processed(boolean value) {
+		return value ? processed : all.andNot(processed);
+	}
+
+	/**
+	 * Looks up a bitmap by key.
+	 *
+	 * @param map the bitmaps to search.
+	 * @param key the key to look up.
+	 * @return the bitmap, or an empty bitmap if the key has none.
+	 */
+	private static AppBitmap lookup(HashMap<String, AppBitmap> map, String key) {
+		AppBitmap bitmap = map.get(key);
+		return bitmap == null ? new AppBitmap() : bitmap;
+	}
+
+	/**
+	 * Removes an id from the bitmap stored under a key.
+	 *
+	 * @param map the bitmaps to update.
+	 * @param key the key of the bitmap.
+	 * @param id the id to remove.
+	 */
+	private static void removeFrom(HashMap<String, AppBitmap> map, String key, int id) {
+		AppBitmap bitmap = map.get(key);
+		if(bitmap != null) {
+			bitmap.remove(id);
+		}
+	}
+
+	/**
+	 * Returns the key a reviewer is indexed under.
+	 *
+	 * @param reviewer the reviewer.
+	 * @return the reviewer, or the empty string if it is null.
+	 */
+	private static String reviewerKey(String reviewer) {
+		return reviewer == null ? "" : reviewer;
+	}
+}
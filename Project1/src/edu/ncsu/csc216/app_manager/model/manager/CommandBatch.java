@@ -0,0 +1,112 @@
+/**
+ *
+ */
+package edu.ncsu.csc216.app_manager.model.manager;
+
+import java.util.Arrays;
+
+import edu.ncsu.csc216.app_manager.model.command.Command;
+
+/**
+ * The CommandBatch class collects many (id, Command) pairs so that they can
+ * be applied to an AppList together. The pairs are kept in parallel arrays
+ * in the order they were added, and commands for the same id are applied in
+ * that order.
+ *
+ * @author Priyanshu Dongre
+ */
+public class CommandBatch {
+
+	/** The id of the application each command targets */
+	private int[] ids;
+
+	/** The commands, in the order they were added */
+	private Command[] commands;
+
+	/** The number of commands in the batch */
+	private int size;
+
+	/**
+	 * Constructs an empty CommandBatch.
+	 */
+	public CommandBatch() {
+		this(16);
+	}
+
+	/**
+	 * Constructs an empty CommandBatch with room for the given number of commands.
+	 *
+	 * @param capacity the expected number of commands.
+	 */
+	public CommandBatch(int capacity) {
+		if(capacity < 0) {
+			throw new IllegalArgumentException("Invalid capacity.");
+		}
+		ids = new int[Math.max(capacity, 1)];
+		commands = new Command[Math.max(capacity, 1)];
+		size = 0;
+	}
+
+	/**
+	 * Adds a command for the application with the given id.
+	 *
+	 * @param id the id of the application to update.
+	 * @param command the command to execute on the application.
+	 * @return this batch.
+	 */
+	public CommandBatch add(int id, Command command) {
+		if(command == null) {
+			throw new IllegalArgumentException("Invalid command.");
+		}
+		if(size == ids.length) {
+			ids = Arrays.copyOf(ids, size * 2);
+			commands = Arrays.copyOf(commands, size * 2);
+		}
+		ids[size] = id;
+		commands[size] = command;
+		size++;
+		return this;
+	}
+
+	/**
+	 * Returns the number of commands in the batch.
+	 *
+	 * @return the number of commands.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the id targeted by a command.
+	 *
+	 * @param index the position of the command in the batch.
+	 * @return the id of the application the command targets.
+	 */
+	public int getId(int index) {
+		checkIndex(index);
+		return ids[index];
+	}
+
+	/**
+	 * Returns a command in the batch.
+	 *
+	 * @param index the position of the command in the batch.
+	 * @return the command.
+	 */
+	public Command getCommand(int index) {
+		checkIndex(index);
+		return commands[index];
+	}
+
+	/**
+	 * Checks that a position is in the batch.
+	 *
+	 * @param index the position.
+	 */
+	private void checkIndex(int index) {
+		if(index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Invalid index.");
+		}
+	}
+}
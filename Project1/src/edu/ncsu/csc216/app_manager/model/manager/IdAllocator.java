@@ -0,0 +1,182 @@
+/**
+ *
+ */
+package edu.ncsu.csc216.app_manager.model.manager;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The IdAllocator class hands out application ids. Single ids come from an
+ * atomic counter without locking, and contiguous blocks of ids can be
+ * reserved with one atomic step so that a thread or an ingest worker can
+ * then assign ids from its block without touching shared state at all.
+ *
+ * Ids are never handed out twice, even after the application that had an
+ * id is deleted. Ids that enter the list from elsewhere, such as a loaded
+ * file, are reported through observe() so the allocator moves past them.
+ *
+ * @author Priyanshu Dongre
+ */
+public class IdAllocator {
+
+	/** The default number of ids in a block reserved for a single thread */
+	private static final int DEFAULT_THREAD_BLOCK = 64;
+
+	/** The next id that has not been handed out */
+	private final AtomicInteger next;
+
+	/** The number of ids reserved at a time for a single thread */
+	private final int threadBlockSize;
+
+	/** The block each thread is currently assigning ids from */
+	private final ThreadLocal<IdBlock> threadBlocks;
+
+	/**
+	 * Constructs an IdAllocator whose first id is 1.
+	 */
+	public IdAllocator() {
+		this(1, DEFAULT_THREAD_BLOCK);
+	}
+
+	/**
+	 * Constructs an IdAllocator.
+	 *
+	 * @param firstId the first id to hand out.
+	 * @param threadBlockSize the number of ids reserved at a time by nextThreadId().
+	 */
+	public IdAllocator(int firstId, int threadBlockSize) {
+		if(firstId < 0 || threadBlockSize < 1) {
+			throw new IllegalArgumentException("Invalid allocator.");
+		}
+		this.next = new AtomicInteger(firstId);
+		this.threadBlockSize = threadBlockSize;
+		this.threadBlocks = new ThreadLocal<>();
+	}
+
+	/**
+	 * Hands out the next id.
+	 *
+	 * @return an id that has not been handed out before.
+	 */
+	public int nextId() {
+		return reserve(1);
+	}
+
+	/**
+	 * Hands out an id from a block reserved for the calling thread, reserving
+	 * a new block when the current one is used up. Threads calling this
+	 * method only contend once per block.
+	 *
+	 * @return an id that has not been handed out before.
+	 */
+	public int nextThreadId() {
+		IdBlock block = threadBlocks.get();
+		if(block == null || !block.hasNext()) {
+			block = reserveBlock(threadBlockSize);
+			threadBlocks.set(block);
+		}
+		return block.next();
+	}
+
+	/**
+	 * Reserves a block of contiguous ids.
+	 *
+	 * @param size the number of ids in the block.
+	 * @return the reserved block.
+	 */
+	public IdBlock reserveBlock(int size) {
+		if(size < 1) {
+			throw new IllegalArgumentException("Invalid block size.");
+		}
+		int start = reserve(size);
+		return new IdBlock(start, start + size);
+	}
+
+	/**
+	 * Moves the allocator past an id that is already in use, so that the
+	 * id is never handed out.
+	 *
+	 * @param id the id in use.
+	 */
+	public void observe(int id) {
+		int current = next.get();
+		while(id >= current && !next.compareAndSet(current, id + 1)) {
+			current = next.get();
+		}
+	}
+
+	/**
+	 * Returns the id that will be handed out next if no other thread
+	 * allocates first.
+	 *
+	 * @return the next id.
+	 */
+	public int peek() {
+		return next.get();
+	}
+
+	/**
+	 * Atomically reserves a range of ids.
+	 *
+	 * @param size the number of ids.
+	 * @return the first id of the range.
+	 */
+	private int reserve(int size) {
+		int start = next.getAndAdd(size);
+		if(start < 0 || start + size < 0) {
+			throw new IllegalStateException("No ids left.");
+		}
+		return start;
+	}
+
+	/**
+	 * A block of contiguous ids reserved from an IdAllocator.  A block is
+	 * meant to be used by one thread or worker at a time and is not
+	 * thread-safe itself.
+	 */
+	public static class IdBlock {
+
+		/** The next id in the block */
+		private int cursor;
+
+		/** One past the last id in the block */
+		private final int end;
+
+		/**
+		 * Constructs an IdBlock.
+		 * @param start the first id in the block.
+		 * @param end one past the last id in the block.
+		 */
+		IdBlock(int start, int end) {
+			this.cursor = start;
+			this.end = end;
+		}
+
+		/**
+		 * Checks whether the block has ids left.
+		 * @return true if there are ids left.
+		 */
+		public boolean hasNext() {
+			return cursor < end;
+		}
+
+		/**
+		 * Hands out the next id in the block.
+		 * @return the next id.
+		 */
+		public int next() {
+			if(cursor >= end) {
+				throw new IllegalStateException("No ids left in block.");
+			}
+			return cursor++;
+		}
+
+		/**
+		 * Returns the number of ids left in the block.
+		 * @return the number of ids left.
+		 */
+		public int remaining() {
+			return end - cursor;
+		}
+	}
+}
@@ -0,0 +1,134 @@
+/**
+ *
+ */
+package edu.ncsu.csc216.app_manager.model.manager;
+
+/**
+ * The MergeReport class records the outcome of merging a batch of
+ * applications into an AppList: which ids were added, which replaced an
+ * existing application, which had their notes merged into an existing
+ * application, and which were skipped because their id was already taken.
+ *
+ * @author Priyanshu Dongre
+ */
+public class MergeReport {
+
+	/** The ids of the applications that were added */
+	private final AppBitmap added;
+
+	/** The ids of the applications that replaced an existing application */
+	private final AppBitmap replaced;
+
+	/** The ids of the applications whose notes were merged into an existing application */
+	private final AppBitmap merged;
+
+	/** The ids of the applications that were skipped */
+	private final AppBitmap skipped;
+
+	/** The number of incoming applications that were skipped, counting repeated ids */
+	private int skippedCount;
+
+	/**
+	 * Constructs an empty MergeReport.
+	 */
+	MergeReport() {
+		added = new AppBitmap();
+		replaced = new AppBitmap();
+		merged = new AppBitmap();
+		skipped = new AppBitmap();
+		skippedCount = 0;
+	}
+
+	/**
+	 * Records an added application.
+	 *
+	 * @param id the id of the application.
+	 */
+	void added(int id) {
+		added.add(id);
+	}
+
+	/**
+	 * Records an application that replaced an existing one.
+	 *
+	 * @param id the id of the application.
+	 */
+	void replaced(int id) {
+		replaced.add(id);
+	}
+
+	/**
+	 * Records an application whose notes were merged into an existing one.
+	 *
+	 * @param id the id of the application.
+	 */
+	void merged(int id) {
+		merged.add(id);
+	}
+
+	/**
+	 * Records a skipped application.
+	 *
+	 * @param id the id of the application.
+	 */
+	void skipped(int id) {
+		skipped.add(id);
+		skippedCount++;
+	}
+
+	/**
+	 * Returns the ids of the applications that were added.
+	 *
+	 * @return the added ids in ascending order.
+	 */
+	public int[] getAddedIds() {
+		return added.toArray();
+	}
+
+	/**
+	 * Returns the ids of the applications that replaced an existing application.
+	 *
+	 * @return the replaced ids in ascending order.
+	 */
+	public int[] getReplacedIds() {
+		return replaced.toArray();
+	}
+
+	/**
+	 * Returns the ids of the applications whose notes were merged into an
+	 * existing application.
+	 *
+	 * @return the merged ids in ascending order.
+	 */
+	public int[] getMergedIds() {
+		return merged.toArray();
+	}
+
+	/**
+	 * Returns the ids of the applications that were skipped.
+	 *
+	 * @return the skipped ids in ascending order.
+	 */
+	public int[] getSkippedIds() {
+		return skipped.toArray();
+	}
+
+	/**
+	 * Returns the number of applications that were added.
+	 *
+	 * @return the number of added applications.
+	 */
+	public int getAddedCount() {
+		return added.cardinality();
+	}
+
+	/**
+	 * Returns the number of incoming applications that were skipped,
+	 * counting an id once for every time it was skipped.
+	 *
+	 * @return the number of skipped applications.
+	 */
+	public int getSkippedCount() {
+		return skippedCount;
+	}
+}
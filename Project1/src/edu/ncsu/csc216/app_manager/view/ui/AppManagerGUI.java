@@ -27,6 +27,7 @@ import javax.swing.JTable;
 import javax.swing.JTextArea;
 import javax.swing.JTextField;
 import javax.swing.ListSelectionModel;
+import javax.swing.SwingUtilities;
 import javax.swing.border.Border;
 import javax.swing.border.EtchedBorder;
 import javax.swing.border.TitledBorder;
@@ -211,27 +212,57 @@ public class AppManagerGUI extends JFrame implements ActionListener {
 				//Don't do anything - user canceled (or error)
 			}
 		} else if (e.getSource() == itemSaveAppList) {
-			//Save current application list
+			//Save current application list in the background
 			try {
-				model.saveAppsToFile(getFileName(false));
-			} catch (IllegalArgumentException exp) {
-				JOptionPane.showMessageDialog(this, exp.getMessage());
+				saveInBackground(model, getFileName(false), false);
 			} catch (IllegalStateException exp) {
 				//Don't do anything - user canceled (or error)
 			}
 		} else if (e.getSource() == itemQuit) {
-			//Quit the program
+			//Quit the program once the save completes
 			try {
-				model.saveAppsToFile(getFileName(false));
-				System.exit(0);  //Ignore SpotBugs warning here - this is the only place to quit the program!
-			} catch (IllegalArgumentException exp) {
-				JOptionPane.showMessageDialog(this, exp.getMessage());
+				saveInBackground(model, getFileName(false), true);
 			} catch (IllegalStateException exp) {
 				//Don't do anything - user canceled (or error)
 			}
 		}
 	}
 	
+	/**
+	 * Saves the application list on a background thread, so the GUI stays
+	 * responsive while a large list is written. Saving is disabled until the
+	 * save completes, and its result is handled on the event dispatch thread.
+	 * @param model the AppManager to save.
+	 * @param fileName the name of the file to save to.
+	 * @param quit true to quit the program once the save completes.
+	 */
+	private void saveInBackground(AppManager model, String fileName, boolean quit) {
+		itemSaveAppList.setEnabled(false);
+		itemQuit.setEnabled(false);
+		model.saveAppsInBackground(fileName, new AppManager.SaveListener() {
+
+			@Override
+			public void saveCompleted(String name, int count) {
+				SwingUtilities.invokeLater(() -> {
+					if (quit) {
+						System.exit(0);  //Ignore SpotBugs warning here - this is the only place to quit the program!
+					}
+					itemSaveAppList.setEnabled(true);
+					itemQuit.setEnabled(true);
+				});
+			}
+
+			@Override
+			public void saveFailed(String name, IllegalArgumentException error) {
+				SwingUtilities.invokeLater(() -> {
+					itemSaveAppList.setEnabled(true);
+					itemQuit.setEnabled(true);
+					JOptionPane.showMessageDialog(AppManagerGUI.this, error.getMessage());
+				});
+			}
+		});
+	}
+	
 	/**
 	 * Returns a file name generated through interactions with a JFileChooser
 	 * object.
@@ -0,0 +1,70 @@
+/**
+ * 
+ */
+package edu.ncsu.csc216.app_manager.model.io;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the AppBinaryReader class on valid, damaged and non-binary files.
+ * 
+ * @author Priyanshu Dongre
+ */
+class AppBinaryReaderTest {
+
+	/** The binary file written by the tests */
+	private final String binaryFile = "test-files/act_read.bin";
+
+	/**
+	 * Tests that text files and missing files are not binary files and
+	 * cannot be read as one.
+	 */
+	@Test
+	public void testReadNonBinaryFile() {
+		assertFalse(AppBinaryReader.isBinaryFile("test-files/app1.txt"));
+		assertFalse(AppBinaryReader.isBinaryFile("test-files/no-such-file.bin"));
+		assertThrows(IllegalArgumentException.class, () -> AppBinaryReader.readAppsFromFile("test-files/app1.txt"));
+		assertThrows(IllegalArgumentException.class, () -> AppBinaryReader.readAppsFromFile("test-files/no-such-file.bin"));
+	}
+
+	/**
+	 * Tests that a file with an unknown version, a truncated file and a file
+	 * with trailing bytes are rejected.
+	 */
+	@Test
+	public void testReadDamagedFile() {
+		try {
+			AppBinaryWriter.convertToBinary("test-files/app1.txt", binaryFile);
+			byte[] bytes = Files.readAllBytes(Paths.get(binaryFile));
+			assertEquals(6, AppBinaryReader.readAppsFromFile(binaryFile).size());
+
+			byte[] version = bytes.clone();
+			version[4] = 2;
+			Files.write(Paths.get(binaryFile), version);
+			assertTrue(AppBinaryReader.isBinaryFile(binaryFile));
+			assertThrows(IllegalArgumentException.class, () -> AppBinaryReader.readAppsFromFile(binaryFile));
+
+			Files.write(Paths.get(binaryFile), Arrays.copyOf(bytes, bytes.length - 3));
+			assertThrows(IllegalArgumentException.class, () -> AppBinaryReader.readAppsFromFile(binaryFile));
+
+			Files.write(Paths.get(binaryFile), Arrays.copyOf(bytes, bytes.length + 1));
+			assertThrows(IllegalArgumentException.class, () -> AppBinaryReader.readAppsFromFile(binaryFile));
+		} catch (IOException e) {
+			fail("Unable to write " + binaryFile);
+		} finally {
+			new File(binaryFile).delete();
+		}
+	}
+}
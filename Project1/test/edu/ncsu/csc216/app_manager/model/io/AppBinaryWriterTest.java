@@ -0,0 +1,116 @@
+/**
+ * 
+ */
+package edu.ncsu.csc216.app_manager.model.io;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.Deflater;
+
+import org.junit.jupiter.api.Test;
+
+import edu.ncsu.csc216.app_manager.model.application.Application;
+import edu.ncsu.csc216.app_manager.model.application.Application.AppType;
+
+/**
+ * Tests the AppBinaryWriter class by writing applications in the binary
+ * format and reading them back, and by converting text files to binary.
+ * 
+ * @author Priyanshu Dongre
+ */
+class AppBinaryWriterTest {
+
+	/** The binary file written by the tests */
+	private final String binaryFile = "test-files/act_apps.bin";
+
+	/** The text file written by the tests */
+	private final String textFile = "test-files/act_apps.txt";
+
+	/**
+	 * Tests that every application of the test files reads back from the
+	 * binary format exactly as it was written.
+	 */
+	@Test
+	public void testWriteAppsToFile() {
+		try {
+			for (String fileName : new String[] {"test-files/app1.txt", "test-files/app_closed.txt"}) {
+				List<Application> apps = AppReader.readAppsFromFile(fileName);
+				AppBinaryWriter.writeAppsToFile(binaryFile, apps);
+				List<Application> read = AppBinaryReader.readAppsFromFile(binaryFile);
+				assertEquals(apps.size(), read.size());
+				for (int i = 0; i < apps.size(); i++) {
+					assertEquals(apps.get(i).toString(), read.get(i).toString());
+				}
+			}
+
+			List<Application> apps = new ArrayList<>();
+			apps.add(new Application(1, AppType.NEW, "Summary é", "Note ü"));
+			AppBinaryWriter.writeAppsToFile(binaryFile, apps);
+			assertEquals(apps.get(0).toString(), AppBinaryReader.readAppsFromFile(binaryFile).get(0).toString());
+
+			AppBinaryWriter.writeAppsToFile(binaryFile, new ArrayList<>());
+			assertEquals(0, AppBinaryReader.readAppsFromFile(binaryFile).size());
+		} finally {
+			new File(binaryFile).delete();
+		}
+		assertThrows(IllegalArgumentException.class, () -> AppBinaryWriter.writeAppsToFile("no-such-dir/apps.bin", new ArrayList<>()));
+	}
+
+	/**
+	 * Tests converting a text file to binary and back, which gives the same
+	 * text as writing the applications with AppWriter.
+	 */
+	@Test
+	public void testConvert() {
+		try {
+			assertEquals(6, AppBinaryWriter.convertToBinary("test-files/app1.txt", binaryFile));
+			assertTrue(AppBinaryReader.isBinaryFile(binaryFile));
+			assertTrue(new File(binaryFile).length() < new File("test-files/app1.txt").length());
+			assertEquals(6, AppBinaryReader.convertToText(binaryFile, textFile));
+			AppWriter.writeAppsToFile(binaryFile, AppReader.readAppsFromFile("test-files/app1.txt"));
+			assertEquals(Files.readString(Paths.get(binaryFile)), Files.readString(Paths.get(textFile)));
+		} catch (IOException e) {
+			fail("Unable to read " + textFile);
+		} finally {
+			new File(binaryFile).delete();
+			new File(textFile).delete();
+		}
+	}
+
+	/**
+	 * Tests writing compressed binary files, which are read back by both
+	 * AppBinaryReader and AppReader, whole and one application at a time.
+	 */
+	@Test
+	public void testWriteCompressed() {
+		try {
+			List<Application> apps = AppReader.readAppsFromFile("test-files/app1.txt");
+			AppBinaryWriter.writeAppsToFile(binaryFile, apps, Deflater.BEST_COMPRESSION);
+			assertTrue(AppBinaryReader.isBinaryFile(binaryFile));
+			List<Application> read = AppBinaryReader.readAppsFromFile(binaryFile);
+			List<Application> text = AppReader.readAppsFromFile(binaryFile);
+			assertEquals(apps.size(), read.size());
+			assertEquals(apps.size(), text.size());
+			try (AppFileIterator iterator = AppReader.iterateAppsFromFile(binaryFile)) {
+				for (int i = 0; i < apps.size(); i++) {
+					assertEquals(apps.get(i).toString(), read.get(i).toString());
+					assertEquals(apps.get(i).toString(), text.get(i).toString());
+					assertEquals(apps.get(i).toString(), iterator.next().toString());
+				}
+				assertFalse(iterator.hasNext());
+			}
+		} finally {
+			new File(binaryFile).delete();
+		}
+	}
+}
@@ -0,0 +1,116 @@
+/**
+ * 
+ */
+package edu.ncsu.csc216.app_manager.model.io;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import edu.ncsu.csc216.app_manager.model.application.Application;
+import edu.ncsu.csc216.app_manager.model.application.Application.AppType;
+
+/**
+ * Tests the AppCheckpoint class: the marker records the journal length a
+ * snapshot holds, and a checkpoint interrupted before its rename is
+ * finished by complete().
+ * 
+ * @author Priyanshu Dongre
+ */
+class AppCheckpointTest {
+
+	/** The snapshot file written by the tests */
+	private final String snapshotFile = "test-files/act_checkpoint.txt";
+
+	/** The file written without a checkpoint for comparison */
+	private final String plainFile = "test-files/act_plain.txt";
+
+	/**
+	 * Removes the files written by each test.
+	 */
+	@AfterEach
+	public void tearDown() {
+		new File(snapshotFile).delete();
+		new File(snapshotFile + AppCheckpoint.SUFFIX).delete();
+		new File(plainFile).delete();
+	}
+
+	/**
+	 * Tests that save() writes the snapshot and a marker holding the journal
+	 * length, and that clear() removes the marker.
+	 * 
+	 * @throws IOException if the files cannot be compared.
+	 */
+	@Test
+	public void testSaveAndClear() throws IOException {
+		List<Application> apps = AppReader.readAppsFromFile("test-files/app1.txt");
+		assertEquals(-1, AppCheckpoint.complete(snapshotFile));
+
+		AppCheckpoint.save(snapshotFile, apps, 120);
+		AppWriter.writeAppsToFile(plainFile, apps);
+		assertArrayEquals(Files.readAllBytes(Paths.get(plainFile)), Files.readAllBytes(Paths.get(snapshotFile)));
+		assertEquals(120, AppCheckpoint.complete(snapshotFile));
+		assertArrayEquals(Files.readAllBytes(Paths.get(plainFile)), Files.readAllBytes(Paths.get(snapshotFile)));
+
+		AppCheckpoint.clear(snapshotFile);
+		assertFalse(new File(snapshotFile + AppCheckpoint.SUFFIX).exists());
+		assertEquals(-1, AppCheckpoint.complete(snapshotFile));
+		AppCheckpoint.clear(snapshotFile);
+
+		assertThrows(IllegalArgumentException.class, () -> AppCheckpoint.save("no-such-dir/apps.txt", apps, 0));
+		assertFalse(new File("no-such-dir/apps.txt" + AppCheckpoint.SUFFIX).exists());
+	}
+
+	/**
+	 * Tests that complete() renames the new snapshot into place when a
+	 * checkpoint wrote its marker but crashed before the rename.
+	 * 
+	 * @throws IOException if the interrupted checkpoint cannot be set up.
+	 */
+	@Test
+	public void testCompleteInterruptedRename() throws IOException {
+		List<Application> old = List.of(new Application(1, AppType.NEW, "Old", "Note"));
+		List<Application> apps = AppReader.readAppsFromFile("test-files/app1.txt");
+		AppWriter.writeAppsToFile(snapshotFile, old);
+		Path target = Paths.get(snapshotFile).toAbsolutePath();
+		Path temp = AppWriter.writeTempFile(target, apps);
+		Files.write(Paths.get(snapshotFile + AppCheckpoint.SUFFIX),
+				("64\n" + temp.getFileName() + "\n").getBytes(StandardCharsets.UTF_8));
+
+		assertEquals(64, AppCheckpoint.complete(snapshotFile));
+		assertFalse(Files.exists(temp));
+		AppWriter.writeAppsToFile(plainFile, apps);
+		assertArrayEquals(Files.readAllBytes(Paths.get(plainFile)), Files.readAllBytes(Paths.get(snapshotFile)));
+		assertEquals(64, AppCheckpoint.complete(snapshotFile));
+		assertTrue(new File(snapshotFile + AppCheckpoint.SUFFIX).exists());
+	}
+
+	/**
+	 * Tests that a marker that cannot be parsed is rejected.
+	 * 
+	 * @throws IOException if the marker cannot be written.
+	 */
+	@Test
+	public void testInvalidMarker() throws IOException {
+		Path marker = Paths.get(snapshotFile + AppCheckpoint.SUFFIX);
+		Files.write(marker, "length\nfile.tmp\n".getBytes(StandardCharsets.UTF_8));
+		assertThrows(IllegalArgumentException.class, () -> AppCheckpoint.complete(snapshotFile));
+		Files.write(marker, "12\n../other.tmp\n".getBytes(StandardCharsets.UTF_8));
+		assertThrows(IllegalArgumentException.class, () -> AppCheckpoint.complete(snapshotFile));
+		Files.write(marker, "12\n".getBytes(StandardCharsets.UTF_8));
+		assertThrows(IllegalArgumentException.class, () -> AppCheckpoint.complete(snapshotFile));
+	}
+}
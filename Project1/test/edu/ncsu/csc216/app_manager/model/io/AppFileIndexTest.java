@@ -0,0 +1,111 @@
+/**
+ * 
+ */
+package edu.ncsu.csc216.app_manager.model.io;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import edu.ncsu.csc216.app_manager.model.application.Application;
+import edu.ncsu.csc216.app_manager.model.application.Application.AppType;
+
+/**
+ * Tests the AppFileIndex class by writing files with a sidecar index and
+ * reading single applications and filtered subsets back through it.
+ * 
+ * @author Priyanshu Dongre
+ */
+class AppFileIndexTest {
+
+	/** The data file written by the tests */
+	private final String dataFile = "test-files/act_indexed.txt";
+
+	/** The file written without an index for comparison */
+	private final String plainFile = "test-files/act_plain.txt";
+
+	/**
+	 * Tests that the indexed file is the same as a plain save and that every
+	 * application, state and type can be read through the index.
+	 */
+	@Test
+	public void testReadThroughIndex() {
+		try {
+			List<Application> apps = new ArrayList<>(AppReader.readAppsFromFile("test-files/app1.txt"));
+			apps.add(new Application(50, AppType.OLD, "Summary é", "Note ü"));
+			AppWriter.writeAppsToFileWithIndex(dataFile, apps);
+			AppWriter.writeAppsToFile(plainFile, apps);
+			assertArrayEquals(Files.readAllBytes(Paths.get(plainFile)), Files.readAllBytes(Paths.get(dataFile)));
+
+			try (AppFileIndex index = new AppFileIndex(dataFile)) {
+				assertEquals(apps.size(), index.size());
+				for (Application app : apps) {
+					assertEquals(app.toString(), index.getAppById(app.getAppId()).toString());
+				}
+				assertNull(index.getAppById(999));
+				for (String state : new String[] {Application.REVIEW_NAME, Application.INTERVIEW_NAME, Application.CLOSED_NAME}) {
+					List<String> expected = new ArrayList<>();
+					apps.stream().filter(a -> a.getStateName().equals(state)).sorted((a, b) -> a.getAppId() - b.getAppId())
+							.forEach(a -> expected.add(a.toString()));
+					List<String> actual = new ArrayList<>();
+					index.getAppsByState(state).forEach(a -> actual.add(a.toString()));
+					assertEquals(expected, actual);
+				}
+				assertEquals(apps.stream().filter(a -> a.getAppType().equals(Application.A_OLD)).count(),
+						index.getAppsByType(Application.A_OLD).size());
+				assertThrows(IllegalArgumentException.class, () -> index.getAppsByState("Missing"));
+				assertThrows(IllegalArgumentException.class, () -> index.getAppsByType(null));
+			}
+			AppFileIndex closed = new AppFileIndex(dataFile);
+			closed.close();
+			assertThrows(IllegalStateException.class, () -> closed.getAppById(apps.get(0).getAppId()));
+		} catch (IOException e) {
+			fail("Unable to read " + dataFile);
+		} finally {
+			new File(dataFile).delete();
+			new File(dataFile + AppFileIndex.SUFFIX).delete();
+			new File(plainFile).delete();
+		}
+	}
+
+	/**
+	 * Tests that a missing index and an index left behind by an older save
+	 * of the data file are rejected, including a save of the same length.
+	 */
+	@Test
+	public void testMissingOrStaleIndex() {
+		try {
+			List<Application> apps = AppReader.readAppsFromFile("test-files/app1.txt");
+			AppWriter.writeAppsToFile(dataFile, apps);
+			assertThrows(IllegalArgumentException.class, () -> new AppFileIndex(dataFile));
+
+			AppWriter.writeAppsToFileWithIndex(dataFile, apps);
+			AppWriter.writeAppsToFile(dataFile, apps.subList(1, apps.size()));
+			assertThrows(IllegalArgumentException.class, () -> new AppFileIndex(dataFile));
+
+			AppWriter.writeAppsToFileWithIndex(dataFile, apps);
+			assertEquals(0, new File(dataFile).getAbsoluteFile().getParentFile().list((dir, name) -> name.endsWith(".tmp")).length);
+			byte[] data = Files.readAllBytes(Paths.get(dataFile));
+			data[data.length - 2] ^= 1;
+			Files.write(Paths.get(dataFile), data);
+			assertThrows(IllegalArgumentException.class, () -> new AppFileIndex(dataFile));
+		} catch (IOException e) {
+			fail("Unable to change " + dataFile);
+		} finally {
+			new File(dataFile).delete();
+			new File(dataFile + AppFileIndex.SUFFIX).delete();
+		}
+		assertThrows(IllegalArgumentException.class, () -> new AppFileIndex("test-files/no-such-file.txt"));
+	}
+}
@@ -0,0 +1,155 @@
+/**
+ * 
+ */
+package edu.ncsu.csc216.app_manager.model.io;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import edu.ncsu.csc216.app_manager.model.application.Application.AppType;
+import edu.ncsu.csc216.app_manager.model.command.Command;
+
+/**
+ * Tests the AppJournal class: events are replayed in the order they were
+ * written, and a partly written last event is ignored and cut off.
+ * 
+ * @author Priyanshu Dongre
+ */
+class AppJournalTest {
+
+	/** The journal file used by the tests */
+	private final String journalFile = "test-files/act_journal.dat";
+
+	/**
+	 * Removes the journal file after each test.
+	 */
+	@AfterEach
+	public void tearDown() {
+		new File(journalFile).delete();
+	}
+
+	/**
+	 * Tests writing and replaying every kind of event.
+	 */
+	@Test
+	public void testReplay() {
+		AppJournal journal = new AppJournal(journalFile);
+		journal.logAdd(1, AppType.NEW, "Summary", "Note");
+		journal.logCommand(1, new Command(Command.CommandValue.ACCEPT, "reviewer", null, "Accepted"));
+		journal.logCommand(1, new Command(Command.CommandValue.REJECT, null, Command.Resolution.INTCOMPLETED, "Rejected"));
+		journal.logDelete(1);
+		journal.close();
+
+		List<String> events = new ArrayList<>();
+		List<Command> commands = new ArrayList<>();
+		int count = AppJournal.replay(journalFile, new RecordingHandler(events, commands));
+		assertEquals(4, count);
+		assertEquals(List.of("add 1 NEW Summary Note", "execute 1", "execute 1", "delete 1"), events);
+		assertEquals("reviewer", commands.get(0).getReviewerId());
+		assertNull(commands.get(0).getResolution());
+		assertEquals(Command.CommandValue.REJECT, commands.get(1).getCommand());
+		assertNull(commands.get(1).getReviewerId());
+		assertEquals(Command.Resolution.INTCOMPLETED, commands.get(1).getResolution());
+		assertEquals("Rejected", commands.get(1).getNote());
+
+		assertEquals(0, AppJournal.replay("test-files/no_journal.dat", new RecordingHandler(events, commands)));
+		assertThrows(IllegalArgumentException.class, () -> AppJournal.replay(journalFile, null));
+	}
+
+	/**
+	 * Tests that a torn last event is skipped on replay and removed before
+	 * new events are appended.
+	 * 
+	 * @throws IOException if the journal cannot be damaged.
+	 */
+	@Test
+	public void testTruncatedTail() throws IOException {
+		AppJournal journal = new AppJournal(journalFile);
+		journal.logAdd(1, AppType.NEW, "Summary", "Note");
+		journal.logDelete(1);
+		journal.close();
+		try (FileOutputStream out = new FileOutputStream(journalFile, true)) {
+			out.write(new byte[] {0, 0, 0, 20, 1, 0});
+		}
+		List<String> events = new ArrayList<>();
+		assertEquals(2, AppJournal.replay(journalFile, new RecordingHandler(events, new ArrayList<>())));
+
+		journal = new AppJournal(journalFile);
+		journal.logDelete(2);
+		journal.truncate();
+		journal.logDelete(3);
+		journal.close();
+		events.clear();
+		assertEquals(1, AppJournal.replay(journalFile, new RecordingHandler(events, new ArrayList<>())));
+		assertEquals(List.of("delete 3"), events);
+	}
+
+	/**
+	 * Tests that replaying from the length recorded by size() skips the
+	 * events written before it.
+	 */
+	@Test
+	public void testReplayFromOffset() {
+		AppJournal journal = new AppJournal(journalFile);
+		journal.logAdd(1, AppType.NEW, "Summary", "Note");
+		journal.logDelete(1);
+		long length = journal.size();
+		assertEquals(new File(journalFile).length(), length);
+		journal.logDelete(2);
+		journal.close();
+
+		List<String> events = new ArrayList<>();
+		assertEquals(1, AppJournal.replay(journalFile, length, new RecordingHandler(events, new ArrayList<>())));
+		assertEquals(List.of("delete 2"), events);
+		assertEquals(3, AppJournal.replay(journalFile, 0, new RecordingHandler(events, new ArrayList<>())));
+		assertEquals(0, AppJournal.replay(journalFile, new File(journalFile).length(), new RecordingHandler(events, new ArrayList<>())));
+	}
+
+	/**
+	 * Handler that records the events it is given.
+	 */
+	private static class RecordingHandler implements AppJournal.Handler {
+
+		/** A description of each event */
+		private final List<String> events;
+
+		/** The command of each execute event */
+		private final List<Command> commands;
+
+		/**
+		 * Constructs a RecordingHandler.
+		 * @param events the list to describe events in.
+		 * @param commands the list to add commands to.
+		 */
+		RecordingHandler(List<String> events, List<Command> commands) {
+			this.events = events;
+			this.commands = commands;
+		}
+
+		@Override
+		public void added(int id, AppType appType, String summary, String note) {
+			events.add("add " + id + " " + appType + " " + summary + " " + note);
+		}
+
+		@Override
+		public void executed(int id, Command command) {
+			events.add("execute " + id);
+			commands.add(command);
+		}
+
+		@Override
+		public void deleted(int id) {
+			events.add("delete " + id);
+		}
+	}
+}
@@ -7,11 +7,23 @@ package edu.ncsu.csc216.app_manager.model.io;
 
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
 
 
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
 
 import org.junit.jupiter.api.Test;
 
@@ -138,4 +150,142 @@ public class AppReaderTest {
 		assertEquals("Unable to load file.", e1.getMessage());
 	}
 
+
+	/**
+	 * Tests reading a file one application at a time, through an iterator
+	 * and through a stream, including stopping early.
+	 */
+	@Test
+	public void testIterateAndStream() {
+		ArrayList<Application> expected = AppReader.readAppsFromFile(validFile);
+		ArrayList<Application> actual = new ArrayList<>();
+		try (AppFileIterator apps = AppReader.iterateAppsFromFile(validFile)) {
+			while (apps.hasNext()) {
+				actual.add(apps.next());
+			}
+			assertFalse(apps.hasNext());
+			assertThrows(NoSuchElementException.class, () -> apps.next());
+		}
+		assertEquals(expected.size(), actual.size());
+		for (int i = 0; i < expected.size(); i++) {
+			assertEquals(expected.get(i).toString(), actual.get(i).toString());
+		}
+
+		AppFileIterator closed = AppReader.iterateAppsFromFile(validFile);
+		assertEquals(expected.get(0).toString(), closed.next().toString());
+		closed.close();
+		assertFalse(closed.hasNext());
+
+		try (Stream<Application> apps = AppReader.streamAppsFromFile(validFile)) {
+			assertEquals(expected.stream().filter(a -> "Review".equals(a.getStateName())).count(),
+					apps.filter(a -> "Review".equals(a.getStateName())).count());
+		}
+		try (Stream<Application> apps = AppReader.streamAppsFromFile(validFile)) {
+			assertEquals(expected.get(1).getAppId(), apps.skip(1).findFirst().get().getAppId());
+		}
+		assertThrows(IllegalArgumentException.class, () -> AppReader.streamAppsFromFile("test-files/app7.txt"));
+	}
+
+	/**
+	 * Tests reading a file in parallel, including a file large enough to be
+	 * split into many parts.
+	 */
+	@Test
+	public void testReadParallel() {
+		ArrayList<Application> expected = AppReader.readAppsFromFile(validFile);
+		expected.sort(Comparator.comparingInt(Application::getAppId));
+		ArrayList<Application> actual = AppReader.readAppsFromFileParallel(validFile);
+		assertEquals(expected.size(), actual.size());
+		for (int i = 0; i < expected.size(); i++) {
+			assertEquals(expected.get(i).toString(), actual.get(i).toString());
+		}
+
+		String bigFile = "test-files/act_parallel.txt";
+		try {
+			StringBuilder text = new StringBuilder();
+			for (int id = 3000; id > 0; id--) {
+				text.append("*").append(id).append(",Review,New,Summary ").append(id).append(",,false,\r\n")
+						.append("-note one\r\n-note two\r\n");
+			}
+			try (FileWriter writer = new FileWriter(bigFile)) {
+				writer.write(text.toString());
+			}
+			ArrayList<Application> sequential = AppReader.readAppsFromFile(bigFile);
+			ArrayList<Application> parallel = AppReader.readAppsFromFileParallel(bigFile, new ForkJoinPool(4));
+			assertEquals(3000, parallel.size());
+			for (int i = 0; i < parallel.size(); i++) {
+				assertEquals(i + 1, parallel.get(i).getAppId());
+				assertEquals(sequential.get(parallel.size() - 1 - i).toString(), parallel.get(i).toString());
+			}
+		} catch (IOException e) {
+			fail("Unable to write " + bigFile);
+		} finally {
+			new File(bigFile).delete();
+		}
+		assertThrows(IllegalArgumentException.class, () -> AppReader.readAppsFromFileParallel("test-files/app7.txt"));
+	}
+
+	/**
+	 * Tests parsing single records, including the field and note splitting
+	 * rules the file format has always followed.
+	 */
+	@Test
+	public void testProcessApp() {
+		Application app = AppReader.processApp("3,Closed,Hired,Follow up,jdoe,TRUE,OfferCompleted\n-[Review] a\n-[Closed] b\n");
+		assertEquals(3, app.getAppId());
+		assertEquals("Closed", app.getStateName());
+		assertEquals("Hired", app.getAppType());
+		assertEquals("Follow up", app.getSummary());
+		assertEquals("jdoe", app.getReviewer());
+		assertTrue(app.isProcessed());
+		assertEquals("OfferCompleted", app.getResolution());
+		assertEquals("-[Review] a\n-[Closed] b", app.getNotesString());
+
+		app = AppReader.processApp(",1,Review,New,Summary,,false,\n-[Review] note\n");
+		assertEquals(1, app.getAppId());
+		assertEquals("", app.getReviewer());
+		assertFalse(app.isProcessed());
+		assertEquals("-[Review] note", app.getNotesString());
+
+		assertThrows(IllegalArgumentException.class, () -> AppReader.processApp(""));
+		assertThrows(IllegalArgumentException.class, () -> AppReader.processApp("1,Review,New,Summary,,false\n-[Review] n\n"));
+		assertThrows(IllegalArgumentException.class, () -> AppReader.processApp("1,Review,New,Summary,,false,\n-[Review] a, b\n"));
+		assertThrows(IllegalArgumentException.class, () -> AppReader.processApp("1,Review,New,Summary,,false,\n"));
+		assertThrows(IllegalArgumentException.class, () -> AppReader.processApp("x,Review,New,Summary,,false,\n-[Review] n\n"));
+		assertThrows(IllegalArgumentException.class, () -> AppReader.processApp("1,Review,New,Summary-x,,false,,"));
+	}
+
+	/**
+	 * Tests reading a file through a memory mapping, with one window and
+	 * with windows much smaller than a record, falling back for compressed
+	 * and binary files, and decoding text that is not ASCII as UTF-8.
+	 */
+	@Test
+	public void testReadMapped() {
+		ArrayList<Application> expected = AppReader.readAppsFromFile(validFile);
+		for (ArrayList<Application> actual : List.of(AppReader.readAppsFromFileMapped(validFile),
+				AppReader.readAppsFromFileMapped(validFile, 5))) {
+			assertEquals(expected.size(), actual.size());
+			for (int i = 0; i < expected.size(); i++) {
+				assertEquals(expected.get(i).toString(), actual.get(i).toString());
+			}
+		}
+
+		String compressed = "test-files/act_mapped.txt";
+		try {
+			AppWriter.writeAppsToFile(compressed, expected, Deflater.BEST_SPEED);
+			assertEquals(expected.size(), AppReader.readAppsFromFileMapped(compressed).size());
+			AppBinaryWriter.writeAppsToFile(compressed, expected);
+			assertEquals(expected.get(2).toString(), AppReader.readAppsFromFileMapped(compressed, 1).get(2).toString());
+
+			ArrayList<Application> accented = new ArrayList<>(expected);
+			accented.add(new Application(40, Application.AppType.OLD, "Résumé", "Note ü"));
+			AppWriter.writeAppsToFile(compressed, accented);
+			assertEquals("Résumé", AppReader.readAppsFromFileMapped(compressed, 5).get(accented.size() - 1).getSummary());
+			assertEquals("Résumé", AppReader.readAppsFromFile(compressed).get(accented.size() - 1).getSummary());
+		} finally {
+			new File(compressed).delete();
+		}
+		assertThrows(IllegalArgumentException.class, () -> AppReader.readAppsFromFileMapped("test-files/app7.txt"));
+	}
 }
@@ -0,0 +1,82 @@
+/**
+ * 
+ */
+package edu.ncsu.csc216.app_manager.model.io;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Scanner;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests that AppRecordReader splits text into exactly the records that
+ * joining the lines of the text and splitting it with a Scanner on '*'
+ * gives, which is how AppReader used to split files.
+ * 
+ * @author Priyanshu Dongre
+ */
+class AppRecordReaderTest {
+
+	/**
+	 * Tests splitting against the line-joining Scanner on edge cases.
+	 * 
+	 * @throws IOException if the text cannot be read.
+	 */
+	@Test
+	public void testSplitMatchesScanner() throws IOException {
+		String[] texts = {"", "\n", "*", "*a", "*a\n*b\n", "*a\r\n-note\r\n*b", "x*a**b*", "**a", "\n*a\n",
+			"*a\rb\r\n\r\n*c", "*a*\n", "*" + "y".repeat(20000) + "\n*z"};
+		for(String text: texts) {
+			assertEquals(scannerRecords(text), streamRecords(text), text);
+		}
+	}
+
+	/**
+	 * Splits text by joining its lines and splitting on '*' with a Scanner.
+	 * 
+	 * @param text the text to split.
+	 * @return the records.
+	 * @throws IOException if the text cannot be read.
+	 */
+	private List<String> scannerRecords(String text) throws IOException {
+		StringBuilder joined = new StringBuilder();
+		BufferedReader reader = new BufferedReader(new StringReader(text));
+		String line = reader.readLine();
+		while(line != null) {
+			joined.append(line).append('\n');
+			line = reader.readLine();
+		}
+		List<String> records = new ArrayList<>();
+		Scanner scanner = new Scanner(joined.toString()).useDelimiter("[*]");
+		while(scanner.hasNext()) {
+			records.add(scanner.next());
+		}
+		scanner.close();
+		return records;
+	}
+
+	/**
+	 * Splits text with an AppRecordReader.
+	 * 
+	 * @param text the text to split.
+	 * @return the records.
+	 * @throws IOException if the text cannot be read.
+	 */
+	private List<String> streamRecords(String text) throws IOException {
+		List<String> records = new ArrayList<>();
+		try (AppRecordReader reader = new AppRecordReader(new StringReader(text))) {
+			String record = reader.nextRecord();
+			while(record != null) {
+				records.add(record);
+				record = reader.nextRecord();
+			}
+		}
+		return records;
+	}
+}
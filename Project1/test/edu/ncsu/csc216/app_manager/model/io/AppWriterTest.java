@@ -5,17 +5,29 @@ package edu.ncsu.csc216.app_manager.model.io;
 
 
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 import java.util.Scanner;
+import java.util.zip.Deflater;
 
 import org.junit.jupiter.api.Test;
 
 import edu.ncsu.csc216.app_manager.model.application.Application;
+import edu.ncsu.csc216.app_manager.model.application.Application.AppType;
 
 /**
  * This class tests the AppWriter functionality. It ensures that applications are correctly 
@@ -60,6 +72,191 @@ class AppWriterTest {
 	}
 	
 	
+	/**
+	 * Tests writing compressed text files, which every reader recognizes and
+	 * reads the same as the uncompressed file.
+	 */
+	@Test
+	public void testWriteCompressed() {
+		String compressed = "test-files/act_app_compressed.txt";
+		try {
+			List<Application> apps = AppReader.readAppsFromFile("test-files/app1.txt");
+			for (int level : new int[] {Deflater.DEFAULT_COMPRESSION, Deflater.NO_COMPRESSION, Deflater.BEST_SPEED, Deflater.BEST_COMPRESSION}) {
+				AppWriter.writeAppsToFile(compressed, apps, level);
+				List<Application> read = AppReader.readAppsFromFile(compressed);
+				assertEquals(apps.size(), read.size());
+				for (int i = 0; i < apps.size(); i++) {
+					assertEquals(apps.get(i).toString(), read.get(i).toString());
+				}
+			}
+			assertTrue(new File(compressed).length() < new File("test-files/app1.txt").length());
+			assertEquals(apps.size(), AppReader.readAppsFromFileParallel(compressed).size());
+			try (AppFileIterator iterator = AppReader.iterateAppsFromFile(compressed)) {
+				assertEquals(apps.get(0).toString(), iterator.next().toString());
+			}
+		} finally {
+			new File(compressed).delete();
+		}
+		assertThrows(IllegalArgumentException.class, () -> AppWriter.writeAppsToFile(compressed, new ArrayList<>(), 10));
+		assertFalse(new File(compressed).exists());
+	}
+
+	/**
+	 * Tests that the serializer writes every application exactly as its
+	 * toString() followed by a line break.
+	 */
+	@Test
+	public void testSerializer() {
+		List<Application> apps = new ArrayList<>(AppReader.readAppsFromFile("test-files/app1.txt"));
+		apps.addAll(AppReader.readAppsFromFile("test-files/app_closed.txt"));
+		apps.add(new Application(1234567890, AppType.OLD, "Summary", "Note"));
+		apps.add(new Application(new Application(7, AppType.NEW, "Summary, again", "Note")));
+		StringBuilder expected = new StringBuilder();
+		StringWriter actual = new StringWriter();
+		AppTextSerializer serializer = new AppTextSerializer(actual);
+		try {
+			for (Application app : apps) {
+				expected.append(app.toString()).append("\n");
+				serializer.write(app);
+			}
+		} catch (IOException e) {
+			fail("Unable to serialize.");
+		}
+		assertEquals(expected.toString(), actual.toString());
+	}
+
+	/**
+	 * Tests that an atomic save replaces the file with the same content as a
+	 * normal save, leaves no temporary file behind, and leaves the file
+	 * untouched when the save fails.
+	 */
+	@Test
+	public void testWriteAppsToFileAtomically() {
+		String atomicFile = "test-files/act_app_atomic.txt";
+		try {
+			List<Application> apps = AppReader.readAppsFromFile("test-files/app_closed.txt");
+			AppWriter.writeAppsToFile(atomicFile, AppReader.readAppsFromFile("test-files/app1.txt"));
+			AppWriter.writeAppsToFileAtomically(atomicFile, apps);
+			checkFiles(expFile1, atomicFile);
+			File[] leftovers = new File("test-files").listFiles((dir, name) -> name.startsWith("act_app_atomic.txt."));
+			assertEquals(0, leftovers.length);
+
+			assertThrows(IllegalArgumentException.class, () -> AppWriter.writeAppsToFileAtomically("no-such-dir/apps.txt", apps));
+			checkFiles(expFile1, atomicFile);
+		} finally {
+			new File(atomicFile).delete();
+		}
+	}
+
+	/**
+	 * Tests that a parallel save writes exactly the same file as a
+	 * sequential one, for lists spanning many partitions and for an empty
+	 * list.
+	 */
+	@Test
+	public void testWriteAppsToFileParallel() {
+		String sequentialFile = "test-files/act_app_sequential.txt";
+		String parallelFile = "test-files/act_app_parallel.txt";
+		try {
+			List<Application> apps = new ArrayList<>(AppReader.readAppsFromFile("test-files/app1.txt"));
+			for (int id = 100; id < 10000; id++) {
+				apps.add(new Application(id, AppType.NEW, "Summary " + id, "Note é " + id));
+			}
+			AppWriter.writeAppsToFile(sequentialFile, apps);
+			AppWriter.writeAppsToFileParallel(parallelFile, apps, new ForkJoinPool(3));
+			assertArrayEquals(Files.readAllBytes(Paths.get(sequentialFile)), Files.readAllBytes(Paths.get(parallelFile)));
+
+			AppWriter.writeAppsToFileParallel(parallelFile, apps.subList(0, 5));
+			AppWriter.writeAppsToFile(sequentialFile, apps.subList(0, 5));
+			assertArrayEquals(Files.readAllBytes(Paths.get(sequentialFile)), Files.readAllBytes(Paths.get(parallelFile)));
+
+			AppWriter.writeAppsToFileParallel(parallelFile, new ArrayList<>());
+			assertEquals(0, new File(parallelFile).length());
+		} catch (IOException e) {
+			fail("Unable to read " + parallelFile);
+		} finally {
+			new File(sequentialFile).delete();
+			new File(parallelFile).delete();
+		}
+		assertThrows(IllegalArgumentException.class, () -> AppWriter.writeAppsToFileParallel("no-such-dir/apps.txt", new ArrayList<>()));
+	}
+
+	/**
+	 * Tests appending deltas to a delta file and reading them back in order.
+	 */
+	@Test
+	public void testAppendDeltaToFile() {
+		String deltaFile = "test-files/act_app.delta";
+		try {
+			List<Application> apps = AppReader.readAppsFromFile("test-files/app_closed.txt");
+			AppWriter.appendDeltaToFile(deltaFile, new AppDelta(new int[] {4, 9}, apps.subList(0, 1)));
+			AppWriter.appendDeltaToFile(deltaFile, new AppDelta(new int[0], apps));
+			AppWriter.appendDeltaToFile(deltaFile, new AppDelta(new int[] {2}, List.of()));
+
+			List<AppDelta> deltas = AppReader.readDeltasFromFile(deltaFile);
+			assertEquals(3, deltas.size());
+			assertArrayEquals(new int[] {4, 9}, deltas.get(0).getDeletedIds());
+			assertEquals(1, deltas.get(0).getApps().size());
+			assertEquals(apps.get(0).toString(), deltas.get(0).getApps().get(0).toString());
+			assertEquals(apps.size(), deltas.get(1).getApps().size());
+			assertEquals(apps.get(apps.size() - 1).toString(), deltas.get(1).getApps().get(apps.size() - 1).toString());
+			assertArrayEquals(new int[] {2}, deltas.get(2).getDeletedIds());
+			assertTrue(deltas.get(2).getApps().isEmpty());
+			assertTrue(AppReader.readDeltasFromFile("test-files/no_app.delta").isEmpty());
+		} finally {
+			new File(deltaFile).delete();
+		}
+	}
+	
+	/**
+	 * Tests that a delta torn by a crash is ignored when reading and cut off
+	 * by the next append, and that damage before the last delta is rejected.
+	 * 
+	 * @throws IOException if the delta file cannot be damaged.
+	 */
+	@Test
+	public void testTornDelta() throws IOException {
+		String deltaFile = "test-files/act_torn.delta";
+		String copyFile = "test-files/act_torn_copy.delta";
+		try {
+			List<Application> apps = AppReader.readAppsFromFile("test-files/app_closed.txt");
+			AppWriter.appendDeltaToFile(deltaFile, new AppDelta(new int[] {4}, apps.subList(0, 1)));
+			long length = new File(deltaFile).length();
+			AppWriter.appendDeltaToFile(copyFile, new AppDelta(new int[0], apps));
+			byte[] full = Files.readAllBytes(Paths.get(copyFile));
+			for (int torn : new int[] {3, 20, full.length - 1}) {
+				try (RandomAccessFile raf = new RandomAccessFile(deltaFile, "rw")) {
+					raf.setLength(length);
+					raf.seek(length);
+					raf.write(full, 0, torn);
+				}
+				assertEquals(1, AppReader.readDeltasFromFile(deltaFile).size());
+			}
+			byte[] damaged = full.clone();
+			damaged[damaged.length - 2] ^= 1;
+			try (RandomAccessFile raf = new RandomAccessFile(deltaFile, "rw")) {
+				raf.setLength(length);
+				raf.seek(length);
+				raf.write(damaged);
+			}
+			assertEquals(1, AppReader.readDeltasFromFile(deltaFile).size());
+
+			AppWriter.appendDeltaToFile(deltaFile, new AppDelta(new int[] {2}, List.of()));
+			List<AppDelta> deltas = AppReader.readDeltasFromFile(deltaFile);
+			assertEquals(2, deltas.size());
+			assertArrayEquals(new int[] {2}, deltas.get(1).getDeletedIds());
+
+			byte[] bytes = Files.readAllBytes(Paths.get(deltaFile));
+			bytes[(int) length - 5] ^= 1;
+			Files.write(Paths.get(deltaFile), bytes);
+			assertThrows(IllegalArgumentException.class, () -> AppReader.readDeltasFromFile(deltaFile));
+			assertThrows(IllegalArgumentException.class, () -> AppReader.readDeltasFromFile("test-files/app_closed.txt"));
+		} finally {
+			new File(deltaFile).delete();
+			new File(copyFile).delete();
+		}
+	}
+	
 	 /**
      * Helper method to compare the contents of two files line by line.
      * 
@@ -73,9 +270,6 @@ class AppWriterTest {
 				while (expScanner.hasNextLine()) {
 					assertEquals(expScanner.nextLine(), actScanner.nextLine());
 				}
-				
-				expScanner.close();
-				actScanner.close();
 			} catch (IOException e) {
 				fail("Error reading files.");
 			}
@@ -0,0 +1,92 @@
+/**
+ * 
+ */
+package edu.ncsu.csc216.app_manager.model.io;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests that MappedRecordReader splits a file into exactly the records
+ * AppRecordReader gives for the same text, whatever the window size.
+ * 
+ * @author Priyanshu Dongre
+ */
+class MappedRecordReaderTest {
+
+	/** The file written by the tests */
+	private final String mappedFile = "test-files/act_mapped.txt";
+
+	/**
+	 * Tests splitting against AppRecordReader on edge cases, with windows
+	 * small enough that records, line endings and multi-byte characters
+	 * cross from one window to the next.
+	 * 
+	 * @throws IOException if the file cannot be written or read.
+	 */
+	@Test
+	public void testSplitMatchesRecordReader() throws IOException {
+		String[] texts = {"", "\n", "*", "*a", "*a\n*b\n", "*a\r\n-note\r\n*b", "x*a**b*", "**a", "\n*a\n",
+			"*a\rb\r\n\r\n*c", "*a*\n", "*é\r\n-ü€\r\n*𝄞b", "*" + "y".repeat(20000) + "\n*z"};
+		try {
+			for(String text: texts) {
+				Files.write(Paths.get(mappedFile), text.getBytes(StandardCharsets.UTF_8));
+				List<String> expected = streamRecords(text);
+				for(int windowSize: new int[] {1, 2, 3, 7, 4096, Integer.MAX_VALUE}) {
+					assertEquals(expected, mappedRecords(windowSize), text + " / " + windowSize);
+				}
+			}
+		} finally {
+			new File(mappedFile).delete();
+		}
+	}
+
+	/**
+	 * Splits text with an AppRecordReader.
+	 * 
+	 * @param text the text to split.
+	 * @return the records.
+	 * @throws IOException if the text cannot be read.
+	 */
+	private List<String> streamRecords(String text) throws IOException {
+		List<String> records = new ArrayList<>();
+		try (AppRecordReader reader = new AppRecordReader(new StringReader(text))) {
+			String record = reader.nextRecord();
+			while(record != null) {
+				records.add(record);
+				record = reader.nextRecord();
+			}
+		}
+		return records;
+	}
+
+	/**
+	 * Splits the test file with a MappedRecordReader.
+	 * 
+	 * @param windowSize the largest number of bytes to map at a time.
+	 * @return the records.
+	 * @throws IOException if the file cannot be read.
+	 */
+	private List<String> mappedRecords(int windowSize) throws IOException {
+		List<String> records = new ArrayList<>();
+		try (MappedRecordReader reader = new MappedRecordReader(FileChannel.open(Paths.get(mappedFile)), windowSize)) {
+			String record = reader.nextRecord();
+			while(record != null) {
+				records.add(record);
+				record = reader.nextRecord();
+			}
+		}
+		return records;
+	}
+}
@@ -0,0 +1,139 @@
+/**
+ * 
+ */
+package edu.ncsu.csc216.app_manager.model.io;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Set;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the WalWriter class: records from concurrent threads are all
+ * committed, each thread's records keep their order, and the statistics
+ * account for every record.
+ * 
+ * @author Priyanshu Dongre
+ */
+class WalWriterTest {
+
+	/** The log file used by the tests */
+	private final String logFile = "test-files/act_wal.dat";
+
+	/**
+	 * Removes the log file after each test.
+	 */
+	@AfterEach
+	public void tearDown() {
+		new File(logFile).delete();
+	}
+
+	/**
+	 * Tests group commit from several threads in every sync mode.
+	 * 
+	 * @throws Exception if the log cannot be read back.
+	 */
+	@Test
+	public void testGroupCommit() throws Exception {
+		for(WalWriter.SyncMode mode: WalWriter.SyncMode.values()) {
+			new File(logFile).delete();
+			WalWriter writer = new WalWriter(logFile, mode, 5);
+			Thread[] threads = new Thread[4];
+			for(int t = 0; t < threads.length; t++) {
+				int thread = t;
+				threads[t] = new Thread(() -> {
+					for(int i = 0; i < 200; i++) {
+						writer.append(ByteBuffer.allocate(8).putInt(thread).putInt(i).array());
+					}
+				});
+				threads[t].start();
+			}
+			for(Thread thread: threads) {
+				thread.join();
+			}
+			WalWriter.Stats stats = writer.getStats();
+			writer.close();
+
+			assertEquals(800, stats.getRecords());
+			assertTrue(stats.getCommits() >= 1 && stats.getCommits() <= 800);
+			assertEquals((double) 800 / stats.getCommits(), stats.getAverageBatchSize(), 1e-9);
+			assertTrue(stats.getMaxLatencyMicros() >= stats.getAverageLatencyMicros());
+			if(mode == WalWriter.SyncMode.EVERY_COMMIT) {
+				assertEquals(stats.getCommits(), stats.getSyncs());
+			} else if(mode == WalWriter.SyncMode.OS) {
+				assertEquals(0, stats.getSyncs());
+			}
+
+			ByteBuffer log = ByteBuffer.wrap(Files.readAllBytes(Paths.get(logFile)));
+			assertEquals(800 * 8, log.remaining());
+			int[] next = new int[threads.length];
+			while(log.hasRemaining()) {
+				int thread = log.getInt();
+				assertEquals(next[thread]++, log.getInt());
+			}
+			assertArrayEquals(new int[] {200, 200, 200, 200}, next);
+		}
+	}
+
+	/**
+	 * Tests enqueueing without waiting, truncating and closing.
+	 * 
+	 * @throws IOException if the log cannot be read back.
+	 */
+	@Test
+	public void testEnqueueAndTruncate() throws IOException {
+		WalWriter writer = new WalWriter(logFile, WalWriter.SyncMode.OS, 0);
+		long first = writer.enqueue(new byte[] {1, 2});
+		long second = writer.enqueue(new byte[] {3});
+		assertEquals(first + 1, second);
+		writer.awaitCommit(second);
+		assertArrayEquals(new byte[] {1, 2, 3}, Files.readAllBytes(Paths.get(logFile)));
+
+		writer.truncate();
+		writer.append(new byte[] {4});
+		writer.close();
+		writer.close();
+		assertArrayEquals(new byte[] {4}, Files.readAllBytes(Paths.get(logFile)));
+		assertThrows(IllegalStateException.class, () -> writer.enqueue(new byte[] {5}));
+		assertThrows(IllegalArgumentException.class, () -> new WalWriter(logFile, WalWriter.SyncMode.INTERVAL, 0));
+	}
+
+	/**
+	 * Tests that callers waiting for a commit fail instead of hanging when
+	 * the flusher thread is interrupted, and that the log can still be closed.
+	 * 
+	 * @throws InterruptedException if the test is interrupted while waiting.
+	 */
+	@Test
+	public void testInterruptedFlusher() throws InterruptedException {
+		Set<Thread> before = Thread.getAllStackTraces().keySet();
+		WalWriter writer = new WalWriter(logFile, WalWriter.SyncMode.OS, 0);
+		writer.append(new byte[] {1});
+		Thread flusher = null;
+		for(Thread thread: Thread.getAllStackTraces().keySet()) {
+			if("wal-flusher".equals(thread.getName()) && !before.contains(thread)) {
+				flusher = thread;
+			}
+		}
+		assertNotNull(flusher);
+		flusher.interrupt();
+		flusher.join(5000);
+		assertFalse(flusher.isAlive());
+
+		assertThrows(IllegalArgumentException.class, () -> writer.append(new byte[] {2}));
+		writer.close();
+		assertThrows(IllegalStateException.class, () -> writer.enqueue(new byte[] {3}));
+	}
+}
@@ -0,0 +1,94 @@
+package edu.ncsu.csc216.app_manager.model.manager;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for AppBitmap.
+ * Compares the bitmap against java.util.BitSet for sparse and dense id sets,
+ * so both kinds of container and the conversions between them are covered.
+ *
+ * @author Priyanshu Dongre
+ */
+public class AppBitmapTest {
+
+	/**
+	 * Tests adding, removing and looking up ids.
+	 */
+	@Test
+	public void testAddRemoveContains() {
+		AppBitmap bitmap = new AppBitmap();
+		bitmap.add(3);
+		bitmap.add(70000);
+		bitmap.add(3);
+		assertEquals(2, bitmap.cardinality());
+		assertTrue(bitmap.contains(70000));
+		assertFalse(bitmap.contains(4));
+
+		bitmap.remove(70000);
+		bitmap.remove(12);
+		assertArrayEquals(new int[] {3}, bitmap.toArray());
+	}
+
+	/**
+	 * Tests a container growing past 4096 ids into a bitset and shrinking back.
+	 */
+	@Test
+	public void testDenseContainer() {
+		AppBitmap bitmap = new AppBitmap();
+		for(int id = 0; id < 10000; id++) {
+			bitmap.add(id);
+		}
+		assertEquals(10000, bitmap.cardinality());
+		for(int id = 0; id < 9000; id++) {
+			bitmap.remove(id);
+		}
+		assertEquals(1000, bitmap.cardinality());
+		assertTrue(bitmap.contains(9500));
+		assertFalse(bitmap.contains(10));
+	}
+
+	/**
+	 * Tests AND, OR and AND NOT against BitSet on random sparse and dense sets.
+	 */
+	@Test
+	public void testSetOperations() {
+		Random random = new Random(216);
+		BitSet a = new BitSet();
+		BitSet b = new BitSet();
+		AppBitmap bitmapA = new AppBitmap();
+		AppBitmap bitmapB = new AppBitmap();
+		for(int i = 0; i < 30000; i++) {
+			int id = random.nextInt(80000);
+			a.set(id);
+			bitmapA.add(id);
+		}
+		for(int i = 0; i < 3000; i++) {
+			int id = random.nextInt(200000);
+			b.set(id);
+			bitmapB.add(id);
+		}
+
+		BitSet and = (BitSet) a.clone();
+		and.and(b);
+		BitSet or = (BitSet) a.clone();
+		or.or(b);
+		BitSet andNot = (BitSet) a.clone();
+		andNot.andNot(b);
+		BitSet notAnd = (BitSet) b.clone();
+		notAnd.andNot(a);
+
+		assertArrayEquals(and.stream().toArray(), bitmapA.and(bitmapB).toArray());
+		assertArrayEquals(or.stream().toArray(), bitmapA.or(bitmapB).toArray());
+		assertArrayEquals(andNot.stream().toArray(), bitmapA.andNot(bitmapB).toArray());
+		assertArrayEquals(notAnd.stream().toArray(), bitmapB.andNot(bitmapA).toArray());
+		assertEquals(a.cardinality(), bitmapA.cardinality());
+	}
+}
@@ -0,0 +1,87 @@
+package edu.ncsu.csc216.app_manager.model.manager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import edu.ncsu.csc216.app_manager.model.application.Application;
+import edu.ncsu.csc216.app_manager.model.application.Application.AppType;
+import edu.ncsu.csc216.app_manager.model.io.AppReader;
+
+/**
+ * Test class for AppColumns.
+ * Builds the columns of the applications in app1.txt and checks scans,
+ * counts and materialized applications against the original objects.
+ *
+ * @author Priyanshu Dongre
+ */
+public class AppColumnsTest {
+
+	/** The list the columns are built from */
+	private AppList appList;
+
+	/** The columns under test */
+	private AppColumns columns;
+
+	/**
+	 * Loads app1.txt and builds its columns.
+	 */
+	@BeforeEach
+	public void setUp() {
+		appList = new AppList();
+		appList.addApps(AppReader.readAppsFromFile("test-files/app1.txt"));
+		columns = AppColumns.of(appList.snapshot());
+	}
+
+	/**
+	 * Tests reading single columns and finding rows by id.
+	 */
+	@Test
+	public void testColumns() {
+		assertEquals(6, columns.size());
+		int row = columns.rowOf(7);
+		assertEquals(2, row);
+		assertEquals(7, columns.getAppId(row));
+		assertEquals(Application.REFCHK_NAME, columns.getStateName(row));
+		assertEquals(Application.A_OLD, columns.getAppType(row));
+		assertEquals(true, columns.isProcessed(row));
+		assertEquals("reviewer", columns.getReviewer(row));
+		assertEquals(-1, columns.rowOf(8));
+		assertThrows(IndexOutOfBoundsException.class, () -> columns.getAppId(6));
+	}
+
+	/**
+	 * Tests counting with the column scans.
+	 */
+	@Test
+	public void testCounts() {
+		assertEquals(1, (int) columns.countByState().get(Application.OFFER_NAME));
+		assertEquals(1, (int) columns.countByState().get(Application.CLOSED_NAME));
+		assertEquals(3, columns.count(null, Application.A_OLD, null, "reviewer"));
+		assertEquals(1, columns.count(null, Application.A_OLD, false, null));
+		assertEquals(2, columns.count(null, null, null, ""));
+		assertEquals(0, columns.count(null, null, null, "nobody"));
+		assertEquals(6, columns.count(null, null, null, null));
+	}
+
+	/**
+	 * Tests that materialized applications match the stored ones, and that
+	 * rows must be added in id order.
+	 */
+	@Test
+	public void testMaterialize() {
+		for(int row = 0; row < columns.size(); row++) {
+			Application app = columns.materialize(row);
+			assertEquals(appList.getAppById(app.getAppId()).toString(), app.toString());
+		}
+
+		AppColumns fresh = new AppColumns();
+		fresh.add(new Application(5, AppType.NEW, "Summary", "Note"));
+		assertNull(fresh.getReviewer(0));
+		assertEquals(fresh.materialize(0).getNotes(), new Application(5, AppType.NEW, "Summary", "Note").getNotes());
+		assertThrows(IllegalArgumentException.class, () -> fresh.add(new Application(2, AppType.NEW, "Summary", "Note")));
+	}
+}
@@ -2,10 +2,14 @@ package edu.ncsu.csc216.app_manager.model.manager;
 
 
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -75,6 +79,40 @@ public class AppListTest {
         assertEquals("Summary 2", apps.get(1).getSummary());
     }
 
+    /**
+     * Test merging a batch with each collision policy.
+     */
+    @Test
+    public void testAddAppsMergePolicies() {
+        appList.addApp(AppType.NEW, "Summary 1", "Note 1");
+        appList.addApp(AppType.NEW, "Summary 2", "Note 2");
+
+        List<Application> batch = new ArrayList<>();
+        batch.add(new Application(5, AppType.NEW, "Summary 5", "Note 5"));
+        batch.add(new Application(2, AppType.OLD, "Replacement 2", "Other note"));
+        batch.add(new Application(3, AppType.NEW, "Summary 3", "Note 3"));
+        List<Application> original = new ArrayList<>(batch);
+
+        MergeReport report = appList.addApps(batch, AppList.MergePolicy.KEEP_EXISTING);
+        assertEquals(original, batch);
+        assertArrayEquals(new int[] {3, 5}, report.getAddedIds());
+        assertArrayEquals(new int[] {2}, report.getSkippedIds());
+        assertEquals("Summary 2", appList.getAppById(2).getSummary());
+        assertEquals(4, appList.getApps().size());
+        assertEquals(3, appList.getApps().get(2).getAppId());
+
+        report = appList.addApps(batch, AppList.MergePolicy.MERGE_NOTES);
+        assertArrayEquals(new int[] {2, 3, 5}, report.getMergedIds());
+        assertEquals(2, appList.getAppById(2).getNotes().size());
+        assertEquals("Summary 2", appList.getAppById(2).getSummary());
+
+        report = appList.addApps(batch, AppList.MergePolicy.REPLACE);
+        assertArrayEquals(new int[] {2, 3, 5}, report.getReplacedIds());
+        assertEquals("Replacement 2", appList.getAppById(2).getSummary());
+        assertEquals(3, appList.getAppsByType(Application.A_NEW).size());
+        assertEquals(1, appList.getAppsByType(Application.A_OLD).size());
+    }
+
     /**
      * Test retrieving an application by its ID.
      */
@@ -110,6 +148,78 @@ public class AppListTest {
         assertEquals("Invalid type", e1.getMessage());
     }
 
+    /**
+     * Test retrieving applications by their state, and that the type and state
+     * indexes follow the transitions made by executed commands.
+     */
+    @Test
+    public void testGetAppsByState() {
+        appList.addApp(AppType.NEW, "Summary 1", "Note 1");
+        appList.addApp(AppType.NEW, "Summary 2", "Note 2");
+        assertEquals(2, appList.getAppsByState(Application.REVIEW_NAME).size());
+        assertEquals(0, appList.getAppsByState(Application.INTERVIEW_NAME).size());
+
+        appList.executeCommand(2, new Command(Command.CommandValue.ACCEPT, "reviewer", null, "Accepted"));
+        assertEquals(1, appList.getAppsByState(Application.REVIEW_NAME).size());
+        assertEquals("Summary 2", appList.getAppsByState(Application.INTERVIEW_NAME).get(0).getSummary());
+        assertEquals(1, appList.getAppsByType(Application.A_NEW).size());
+        assertEquals(1, appList.getAppsByType(Application.A_OLD).size());
+
+        assertThrows(UnsupportedOperationException.class, () -> appList.executeCommand(2,
+                new Command(Command.CommandValue.REOPEN, null, null, "Reopen")));
+        assertEquals(1, appList.getAppsByState(Application.INTERVIEW_NAME).size());
+
+        appList.deleteAppById(2);
+        assertEquals(0, appList.getAppsByState(Application.INTERVIEW_NAME).size());
+        assertEquals(0, appList.getAppsByType(Application.A_OLD).size());
+
+        Exception e1 = assertThrows(IllegalArgumentException.class, () -> appList.getAppsByState(null));
+        assertEquals("Invalid state", e1.getMessage());
+    }
+
+    /**
+     * Test that snapshots keep their contents while the list changes.
+     */
+    @Test
+    public void testSnapshot() {
+        appList.addApp(AppType.NEW, "Summary 1", "Note 1");
+        appList.addApp(AppType.NEW, "Summary 2", "Note 2");
+        AppSnapshot snapshot = appList.snapshot();
+
+        appList.executeCommand(1, new Command(Command.CommandValue.ACCEPT, "reviewer", null, "Accepted"));
+        appList.deleteAppById(2);
+        appList.addApp(AppType.OLD, "Summary 3", "Note 3");
+
+        assertEquals(2, snapshot.size());
+        assertEquals("Review", snapshot.getAppById(1).getStateName());
+        assertEquals(1, snapshot.getAppById(1).getNotes().size());
+        assertEquals("Summary 2", snapshot.getApps().get(1).getSummary());
+        assertNull(snapshot.getAppById(3));
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.getApps().remove(0));
+
+        assertEquals("Interview", appList.getAppById(1).getStateName());
+        assertEquals(1, appList.getAppsByState(Application.INTERVIEW_NAME).size());
+        assertEquals(2, appList.getApps().size());
+        assertEquals(2, appList.snapshot().size());
+    }
+
+    /**
+     * Test that getApps() returns a copy owned by the caller without taking
+     * a snapshot, so the applications in it are still the ones commands update.
+     */
+    @Test
+    public void testGetAppsIsUnshared() {
+        appList.addApp(AppType.NEW, "Summary 1", "Note 1");
+        appList.addApp(AppType.NEW, "Summary 2", "Note 2");
+        List<Application> apps = appList.getApps();
+        apps.remove(1);
+        assertEquals(2, appList.getApps().size());
+
+        appList.executeCommand(1, new Command(Command.CommandValue.ACCEPT, "reviewer", null, "Accepted"));
+        assertSame(appList.getAppById(1), apps.get(0));
+        assertEquals("Interview", apps.get(0).getStateName());
+    }
+
     /**
      * Test deleting an application by its ID.
      */
@@ -166,5 +276,95 @@ public class AppListTest {
         assertNotNull(app);
         assertEquals("Review", app.getStateName()); 
     }
-}
 
+    /**
+     * Test executing a batch of commands, including rejected commands,
+     * unknown ids and a batch large enough to be applied in parallel.
+     */
+    @Test
+    public void testExecuteCommands() {
+        appList.addApp(AppType.NEW, "Summary 1", "Note 1");
+        appList.addApp(AppType.NEW, "Summary 2", "Note 2");
+        AppSnapshot before = appList.snapshot();
+
+        CommandBatch batch = new CommandBatch()
+                .add(1, new Command(Command.CommandValue.ACCEPT, "reviewer", null, "Accepted"))
+                .add(2, new Command(Command.CommandValue.REOPEN, null, Command.Resolution.REVCOMPLETED, "Reopen"))
+                .add(100, new Command(Command.CommandValue.ACCEPT, "reviewer", null, "Missing"))
+                .add(1, new Command(Command.CommandValue.ACCEPT, "reviewer", null, "Checked"));
+        BatchResult result = appList.executeCommands(batch);
+
+        assertEquals(4, result.size());
+        assertEquals(BatchResult.Status.APPLIED, result.getStatus(0));
+        assertEquals(BatchResult.Status.REJECTED, result.getStatus(1));
+        assertNotNull(result.getError(1));
+        assertEquals(BatchResult.Status.NOT_FOUND, result.getStatus(2));
+        assertNull(result.getError(2));
+        assertEquals(BatchResult.Status.APPLIED, result.getStatus(3));
+        assertEquals(2, result.getAppliedCount());
+        assertEquals(2, result.getFailedCount());
+
+        assertEquals("RefCheck", appList.getAppById(1).getStateName());
+        assertEquals("Review", appList.getAppById(2).getStateName());
+        assertEquals("Review", before.getAppById(1).getStateName());
+        assertEquals(1, appList.getAppsByState("RefCheck").size());
+        assertEquals(1, appList.getAppsByState("Review").size());
+
+        CommandBatch large = new CommandBatch(5000);
+        for (int i = 0; i < 5000; i++) {
+            int id = appList.addApp(AppType.NEW, "Bulk", "Note") - 1;
+            large.add(id, new Command(Command.CommandValue.REJECT, null, Command.Resolution.REVCOMPLETED, "Rejected"));
+        }
+        result = appList.executeCommands(large);
+        assertEquals(5000, result.getAppliedCount());
+        assertEquals(5000, appList.getAppsByState("Closed").size());
+        assertThrows(IllegalArgumentException.class, () -> appList.executeCommands(null));
+    }
+
+    /**
+     * Test that a transaction is applied all-or-nothing.
+     */
+    @Test
+    public void testExecuteTransaction() {
+        appList.addApp(AppType.NEW, "Summary 1", "Note 1");
+        appList.addApp(AppType.NEW, "Summary 2", "Note 2");
+        appList.addApp(AppType.NEW, "Summary 3", "Note 3");
+        Application untouched = appList.getAppById(3);
+
+        CommandBatch failing = new CommandBatch()
+                .add(1, new Command(Command.CommandValue.ACCEPT, "reviewer", null, "Accepted"))
+                .add(2, new Command(Command.CommandValue.REJECT, null, Command.Resolution.REVCOMPLETED, "Rejected"))
+                .add(1, new Command(Command.CommandValue.REOPEN, null, Command.Resolution.REVCOMPLETED, "Invalid"));
+        BatchResult result = appList.executeTransaction(failing);
+        assertFalse(result.isCommitted());
+        assertEquals(BatchResult.Status.APPLIED, result.getStatus(0));
+        assertEquals(BatchResult.Status.REJECTED, result.getStatus(2));
+        assertEquals("Review", appList.getAppById(1).getStateName());
+        assertEquals(1, appList.getAppById(1).getNotes().size());
+        assertEquals("Review", appList.getAppById(2).getStateName());
+        assertEquals(3, appList.getAppsByState("Review").size());
+
+        result = appList.executeTransaction(new CommandBatch()
+                .add(2, new Command(Command.CommandValue.REJECT, null, Command.Resolution.REVCOMPLETED, "Rejected"))
+                .add(99, new Command(Command.CommandValue.REJECT, null, Command.Resolution.REVCOMPLETED, "Missing")));
+        assertFalse(result.isCommitted());
+        assertEquals(BatchResult.Status.NOT_FOUND, result.getStatus(1));
+        assertEquals("Review", appList.getAppById(2).getStateName());
+
+        CommandBatch valid = new CommandBatch()
+                .add(1, new Command(Command.CommandValue.ACCEPT, "reviewer", null, "Accepted"))
+                .add(2, new Command(Command.CommandValue.REJECT, null, Command.Resolution.REVCOMPLETED, "Rejected"));
+        result = appList.executeTransaction(valid);
+        assertTrue(result.isCommitted());
+        assertEquals(2, result.getAppliedCount());
+        assertEquals("Interview", appList.getAppById(1).getStateName());
+        assertEquals(2, appList.getAppById(1).getNotes().size());
+        assertEquals("Closed", appList.getAppById(2).getStateName());
+        assertSame(untouched, appList.getAppById(3));
+        assertEquals(1, appList.getAppsByState("Closed").size());
+
+        appList.executeCommand(1, new Command(Command.CommandValue.ACCEPT, "reviewer", null, "Checked"));
+        assertEquals(1, appList.getAppsByState("RefCheck").size());
+        assertEquals(0, appList.getAppsByState("Interview").size());
+    }
+}
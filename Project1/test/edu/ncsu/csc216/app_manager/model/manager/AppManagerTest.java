@@ -2,19 +2,28 @@ package edu.ncsu.csc216.app_manager.model.manager;
 
 
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import static org.junit.jupiter.api.Assertions.fail;
 
+import java.io.File;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
 import org.junit.Before;
 import org.junit.Test;
 
 import edu.ncsu.csc216.app_manager.model.application.Application;
 import edu.ncsu.csc216.app_manager.model.application.Application.AppType;
 import edu.ncsu.csc216.app_manager.model.command.Command;
+import edu.ncsu.csc216.app_manager.model.io.AppCheckpoint;
+import edu.ncsu.csc216.app_manager.model.io.AppReader;
 
 /**
  * Test class for AppManager.
@@ -75,6 +84,29 @@ public class AppManagerTest {
         }
     }
 
+    /**
+     * Test answering compound filters from the bitmap indexes.
+     */
+    @Test
+    public void testFilters() {
+        appManager.loadAppsFromFile("test-files/app1.txt");
+
+        AppFilter oldWithReviewer = AppFilter.type(Application.A_OLD).and(AppFilter.reviewer("reviewer"));
+        assertEquals(3, appManager.countApps(oldWithReviewer));
+        assertEquals(2, appManager.countApps(oldWithReviewer.and(AppFilter.processed(true))));
+        assertEquals(1, appManager.countApps(oldWithReviewer.and(AppFilter.processed(true).not())));
+
+        Object[][] rows = appManager.getAppListAsArray(AppFilter.state(Application.REVIEW_NAME)
+                .or(AppFilter.state(Application.WAITLIST_NAME)));
+        assertEquals(2, rows.length);
+        assertEquals(1, rows[0][0]);
+        assertEquals(14, rows[1][0]);
+
+        assertEquals(2, appManager.countApps(AppFilter.reviewer(null)));
+        assertEquals(6, appManager.countApps(AppFilter.all()));
+        assertEquals(4, appManager.countApps(AppFilter.type(Application.A_NEW).not()));
+    }
+
     /**
      * Test creating a new application list (resetting the list).
      */
@@ -183,5 +215,217 @@ public class AppManagerTest {
         assertEquals(1, appsArray.length); 
         assertEquals("Test Summary", appsArray[0][3]); 
     }
-}
 
+    /**
+     * Test that recover() rebuilds the list from a snapshot and the journal
+     * of the changes made after it.
+     */
+    @Test
+    public void testRecover() {
+        String snapshot = "test-files/act_recover.txt";
+        String journal = "test-files/act_recover.dat";
+        try {
+            assertEquals(0, appManager.recover(snapshot, journal));
+            appManager.addAppToList(AppType.NEW, "First", "Note 1");
+            appManager.addAppToList(AppType.NEW, "Second", "Note 2");
+            appManager.executeCommand(1, new Command(Command.CommandValue.ACCEPT, "reviewer", null, "Accepted"));
+            appManager.executeCommand(2, new Command(Command.CommandValue.ACCEPT, "reviewer", null, "Accepted"));
+            appManager.checkpoint();
+            appManager.executeCommand(1, new Command(Command.CommandValue.ACCEPT, "reviewer", null, "Checked"));
+            appManager.deleteAppById(2);
+            appManager.addAppToList(AppType.OLD, "Third", "Note 3");
+            String expected = appManager.getAppById(1).toString();
+
+            appManager.createNewAppList();
+            assertEquals(0, appManager.getAppListAsArray().length);
+            assertEquals(3, appManager.recover(snapshot, journal));
+            assertEquals(2, appManager.getAppListAsArray().length);
+            assertEquals(expected, appManager.getAppById(1).toString());
+            assertNull(appManager.getAppById(2));
+            assertEquals("Third", appManager.getAppById(3).getSummary());
+
+            appManager.addAppToList(AppType.NEW, "Fourth", "Note 4");
+            assertEquals(4, appManager.getAppById(4).getAppId());
+        } finally {
+            appManager.closeJournal();
+            new java.io.File(snapshot).delete();
+            new java.io.File(journal).delete();
+        }
+    }
+
+    /**
+     * Test that recover() does not replay journal events a second time when
+     * a checkpoint saved its snapshot but crashed before emptying the journal.
+     */
+    @Test
+    public void testRecoverAfterInterruptedCheckpoint() {
+        String snapshot = "test-files/act_crashed.txt";
+        String journal = "test-files/act_crashed.dat";
+        try {
+            appManager.recover(snapshot, journal);
+            appManager.addAppToList(AppType.NEW, "First", "Note 1");
+            appManager.executeCommand(1, new Command(Command.CommandValue.ACCEPT, "reviewer", null, "Accepted"));
+            String expected = appManager.getAppById(1).toString();
+            appManager.closeJournal();
+            // The checkpoint saves the snapshot and then crashes before the journal is truncated.
+            AppCheckpoint.save(snapshot, appManager.getSnapshot().getApps(), new File(journal).length());
+
+            appManager.createNewAppList();
+            assertEquals(0, appManager.recover(snapshot, journal));
+            assertEquals(1, appManager.getAppListAsArray().length);
+            assertEquals(expected, appManager.getAppById(1).toString());
+            assertFalse(new File(snapshot + AppCheckpoint.SUFFIX).exists());
+            assertEquals(0, new File(journal).length());
+
+            appManager.executeCommand(1, new Command(Command.CommandValue.ACCEPT, "reviewer", null, "Checked"));
+            expected = appManager.getAppById(1).toString();
+            appManager.createNewAppList();
+            assertEquals(1, appManager.recover(snapshot, journal));
+            assertEquals(expected, appManager.getAppById(1).toString());
+        } finally {
+            appManager.closeJournal();
+            new File(snapshot).delete();
+            new File(snapshot + AppCheckpoint.SUFFIX).delete();
+            new File(journal).delete();
+        }
+    }
+
+    /**
+     * Test that delta saves write only changes and that compaction folds
+     * them into the base file.
+     */
+    @Test
+    public void testDeltaSaves() {
+        String base = "test-files/act_base.txt";
+        String delta = "test-files/act_base.delta";
+        try {
+            appManager.addAppToList(AppType.NEW, "First", "Note 1");
+            appManager.addAppToList(AppType.NEW, "Second", "Note 2");
+            appManager.addAppToList(AppType.NEW, "Third", "Note 3");
+            appManager.saveAppsToFile(base);
+            assertEquals(0, appManager.saveDeltaToFile(delta));
+
+            appManager.executeCommand(1, new Command(Command.CommandValue.ACCEPT, "reviewer", null, "Accepted"));
+            appManager.deleteAppById(2);
+            assertEquals(2, appManager.saveDeltaToFile(delta));
+            appManager.addAppToList(AppType.NEW, "Fourth", "Note 4");
+            appManager.executeCommand(3, new Command(Command.CommandValue.REJECT, null,
+                    Command.Resolution.REVCOMPLETED, "Rejected"));
+            assertEquals(2, appManager.saveDeltaToFile(delta));
+            Object[][] expected = appManager.getAppListAsArray();
+            String expectedFirst = appManager.getAppById(1).toString();
+
+            appManager.createNewAppList();
+            appManager.loadAppsWithDeltas(base, delta);
+            assertArrayEquals(expected, appManager.getAppListAsArray());
+            assertEquals(expectedFirst, appManager.getAppById(1).toString());
+            assertEquals(0, appManager.saveDeltaToFile(delta));
+
+            appManager.compactDeltas(base, delta);
+            assertFalse(new java.io.File(delta).exists());
+            appManager.createNewAppList();
+            appManager.loadAppsWithDeltas(base, delta);
+            assertArrayEquals(expected, appManager.getAppListAsArray());
+
+            appManager.deleteAppById(4);
+            appManager.saveDeltaToFile(delta);
+            appManager.startCompaction(base, delta, 10);
+            long deadline = System.currentTimeMillis() + 5000;
+            while (new java.io.File(delta).exists() && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            appManager.stopCompaction();
+            assertFalse(new java.io.File(delta).exists());
+            appManager.createNewAppList();
+            appManager.loadAppsFromFile(base);
+            assertEquals(2, appManager.getAppListAsArray().length);
+        } catch (InterruptedException e) {
+            fail("Interrupted while waiting for compaction.");
+        } finally {
+            appManager.stopCompaction();
+            new java.io.File(base).delete();
+            new java.io.File(delta).delete();
+        }
+    }
+
+    /**
+     * Test that a full save to another file leaves the changes of the base
+     * unsaved, and that a full save to the base folds in its delta file.
+     */
+    @Test
+    public void testSavesTrackedAgainstBase() {
+        String base = "test-files/act_tracked.txt";
+        String delta = "test-files/act_tracked.delta";
+        String copy = "test-files/act_tracked_copy.txt";
+        try {
+            appManager.addAppToList(AppType.NEW, "First", "Note 1");
+            appManager.addAppToList(AppType.NEW, "Second", "Note 2");
+            appManager.saveAppsToFile(base);
+            appManager.executeCommand(1, new Command(Command.CommandValue.ACCEPT, "reviewer", null, "Accepted"));
+            appManager.saveAppsToFile(copy);
+            assertEquals(1, appManager.saveDeltaToFile(delta));
+
+            appManager.deleteAppById(2);
+            appManager.addAppToList(AppType.OLD, "Third", "Note 3");
+            appManager.saveAppsToFile(base);
+            assertFalse(new java.io.File(delta).exists());
+            assertEquals(0, appManager.saveDeltaToFile(delta));
+            Object[][] expected = appManager.getAppListAsArray();
+            appManager.createNewAppList();
+            appManager.loadAppsWithDeltas(base, delta);
+            assertArrayEquals(expected, appManager.getAppListAsArray());
+        } finally {
+            new java.io.File(base).delete();
+            new java.io.File(delta).delete();
+            new java.io.File(copy).delete();
+        }
+    }
+
+    /**
+     * Test saving in the background: the snapshot taken when the save is
+     * requested is written, the listener is told, and a failed save leaves
+     * its changes unsaved.
+     */
+    @Test
+    public void testSaveAppsInBackground() {
+        String file = "test-files/act_background.txt";
+        try {
+            appManager.addAppToList(AppType.NEW, "First", "Note 1");
+            appManager.addAppToList(AppType.NEW, "Second", "Note 2");
+            String[] result = new String[1];
+            AppManager.SaveListener listener = new AppManager.SaveListener() {
+
+                @Override
+                public void saveCompleted(String fileName, int count) {
+                    result[0] = fileName + ":" + count;
+                }
+
+                @Override
+                public void saveFailed(String fileName, IllegalArgumentException error) {
+                    result[0] = "failed " + fileName;
+                }
+            };
+            Future<Integer> saved = appManager.saveAppsInBackground(file, listener);
+            appManager.addAppToList(AppType.NEW, "Third", "Note 3");
+            assertEquals(2, saved.get().intValue());
+            assertEquals(file + ":2", result[0]);
+            assertEquals(2, AppReader.readAppsFromFile(file).size());
+
+            Future<Integer> failed = appManager.saveAppsInBackground("no-such-dir/apps.txt", listener);
+            assertThrows(ExecutionException.class, () -> failed.get());
+            assertEquals("failed no-such-dir/apps.txt", result[0]);
+            assertEquals(1, appManager.saveDeltaToFile("test-files/act_background.delta"));
+
+            appManager.addAppToList(AppType.NEW, "Fourth", "Note 4");
+            Future<Integer> broken = appManager.saveAppsInBackground(null, listener);
+            assertThrows(ExecutionException.class, () -> broken.get());
+            assertEquals("failed null", result[0]);
+            assertEquals(1, appManager.saveDeltaToFile("test-files/act_background.delta"));
+        } catch (InterruptedException | ExecutionException e) {
+            fail("Background save should not fail.");
+        } finally {
+            new File(file).delete();
+            new File("test-files/act_background.delta").delete();
+        }
+    }
+}
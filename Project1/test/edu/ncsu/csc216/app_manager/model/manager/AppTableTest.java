@@ -0,0 +1,69 @@
+package edu.ncsu.csc216.app_manager.model.manager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import edu.ncsu.csc216.app_manager.model.application.Application;
+import edu.ncsu.csc216.app_manager.model.application.Application.AppType;
+
+/**
+ * Test class for AppTable.
+ * Verifies id-keyed lookup, deletion and in-order iteration.
+ *
+ * @author Priyanshu Dongre
+ */
+public class AppTableTest {
+
+	/**
+	 * Tests that applications come back in id order regardless of insertion order,
+	 * including ids that fall into different chunks.
+	 */
+	@Test
+	public void testPutAndIterate() {
+		AppTable table = new AppTable();
+		int[] ids = {5000, 3, 1, 1025, 7};
+		for(int id: ids) {
+			table.put(new Application(id, AppType.NEW, "Summary " + id, "Note"));
+		}
+		assertEquals(5, table.size());
+		assertEquals(5000, table.maxId());
+
+		List<Integer> order = new ArrayList<>();
+		for(Application app: table) {
+			order.add(app.getAppId());
+		}
+		assertEquals(List.of(1, 3, 7, 1025, 5000), order);
+		assertEquals("Summary 1025", table.get(1025).getSummary());
+		assertNull(table.get(2));
+		assertNull(table.get(999999));
+	}
+
+	/**
+	 * Tests replacing and removing applications, and that the largest id
+	 * follows removals.
+	 */
+	@Test
+	public void testReplaceAndRemove() {
+		AppTable table = new AppTable();
+		Application first = new Application(4, AppType.NEW, "Summary", "Note");
+		Application second = new Application(4, AppType.OLD, "Summary 2", "Note");
+		table.put(new Application(2, AppType.NEW, "Summary", "Note"));
+		assertNull(table.put(first));
+		assertSame(first, table.put(second));
+		assertEquals(2, table.size());
+
+		assertSame(second, table.remove(4));
+		assertNull(table.remove(4));
+		assertEquals(2, table.maxId());
+		table.remove(2);
+		assertEquals(-1, table.maxId());
+		assertEquals(0, table.size());
+		assertEquals(false, table.iterator().hasNext());
+	}
+}
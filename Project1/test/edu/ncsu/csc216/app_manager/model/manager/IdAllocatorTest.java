@@ -0,0 +1,84 @@
+package edu.ncsu.csc216.app_manager.model.manager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.BitSet;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for IdAllocator.
+ * Verifies single ids, reserved blocks, observed ids and that concurrent
+ * threads never receive the same id.
+ *
+ * @author Priyanshu Dongre
+ */
+public class IdAllocatorTest {
+
+	/**
+	 * Tests handing out single ids and blocks of ids.
+	 */
+	@Test
+	public void testNextIdAndBlocks() {
+		IdAllocator allocator = new IdAllocator();
+		assertEquals(1, allocator.nextId());
+		assertEquals(2, allocator.nextId());
+
+		IdAllocator.IdBlock block = allocator.reserveBlock(3);
+		assertEquals(3, block.remaining());
+		assertEquals(6, allocator.nextId());
+		assertEquals(3, block.next());
+		assertEquals(4, block.next());
+		assertEquals(5, block.next());
+		assertFalse(block.hasNext());
+		assertThrows(IllegalStateException.class, () -> block.next());
+		assertThrows(IllegalArgumentException.class, () -> allocator.reserveBlock(0));
+	}
+
+	/**
+	 * Tests that observed ids are never handed out.
+	 */
+	@Test
+	public void testObserve() {
+		IdAllocator allocator = new IdAllocator();
+		allocator.observe(16);
+		assertEquals(17, allocator.peek());
+		allocator.observe(4);
+		assertEquals(17, allocator.nextId());
+	}
+
+	/**
+	 * Tests that threads allocating concurrently, both directly and from
+	 * thread blocks, never receive the same id.
+	 *
+	 * @throws InterruptedException if the test is interrupted.
+	 */
+	@Test
+	public void testConcurrentAllocation() throws InterruptedException {
+		IdAllocator allocator = new IdAllocator(1, 16);
+		int perThread = 5000;
+		int[][] ids = new int[8][perThread];
+		Thread[] threads = new Thread[ids.length];
+		for(int t = 0; t < threads.length; t++) {
+			int[] mine = ids[t];
+			boolean useBlocks = t % 2 == 0;
+			threads[t] = new Thread(() -> {
+				for(int i = 0; i < perThread; i++) {
+					mine[i] = useBlocks ? allocator.nextThreadId() : allocator.nextId();
+				}
+			});
+			threads[t].start();
+		}
+		BitSet seen = new BitSet();
+		for(int t = 0; t < threads.length; t++) {
+			threads[t].join();
+			for(int id: ids[t]) {
+				assertFalse(seen.get(id));
+				seen.set(id);
+			}
+		}
+		assertEquals(ids.length * perThread, seen.cardinality());
+	}
+}